@@ -1,87 +1,186 @@
 package it.cs.unicam.pa2021.logo;
 
-import it.cs.unicam.pa2021.logo.controller.Controller;
-import it.cs.unicam.pa2021.logo.controller.DefaultController;
+import it.cs.unicam.pa2021.logo.controller.*;
 import it.cs.unicam.pa2021.logo.model.*;
 
 import java.io.IOException;
-import java.util.InputMismatchException;
-import java.util.ListIterator;
-import java.util.Scanner;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Esegue da riga di comando, senza interfaccia grafica, uno o pi&ugrave; programmi LOGO.
+ * Per ogni file o cartella di file .txt specificati, i programmi vengono eseguiti in parallelo con
+ * {@link ExecutionService}, senza conservare la cronologia delle configurazioni, e per ognuno viene creato
+ * il file di output con {@link DefaultController#createLOGOFile(Plane, String)};
+ * al termine viene stampato, per ogni programma, l' esito, il numero di linee e di aree chiuse generate
+ * e il tempo impiegato.
+ * Con l' opzione -e il piano finale di ogni programma viene anche esportato nel formato svg, png o logo;
+ * con l' opzione -a si sceglie il modo in cui vengono individuate le aree chiuse, di default {@link AreaDetection#ENDPOINTS}.
+ */
 public class Main {
 
-    // Consegna media
-    /*public static void main(String[] args) {
-        String filepath = "";
-        double length = 2, height = 2;
-        int choice;
-        Scanner scanner = new Scanner(System.in);
-        Controller<Point<Double>> controller = new DefaultController();
+    private static final String USAGE = "Usage: Main [-w width] [-h height] [-t threads] [-e svg|png|logo] [-a endpoints|intersections] [-v] <file or directory>...";
+    private static final Logger logoLogger = Logger.getLogger("it.cs.unicam.pa2021.logo");
+
+    public static void main(String[] args) {
+        double length = 1000, height = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean verbose = false;
+        PlaneExporter exporter = null;
+        AreaDetection areaDetection = AreaDetection.ENDPOINTS;
+        List<Path> files = new ArrayList<>();
         try {
-            System.out.println("Insert path of file that contains logo instructions: ");
-            if (scanner.hasNextLine())
-                filepath = scanner.nextLine();
-            System.out.println("Creating plane...");
-            System.out.println("Insert plane's width: ");
-            if (scanner.hasNextDouble())
-                length = scanner.nextDouble();
-            System.out.println("Insert plane's height: ");
-            if (scanner.hasNextDouble())
-                height = scanner.nextDouble();
-            controller.newPlane(length, height);
-            controller.loadInstructions(filepath);
-            System.out.println("\nCurrent plane's configuration:\n" + controller.getPlane());
-            System.out.println("Press:\n1 to execute the program step by step" +
-                    "\n2 to execute the program and to see instruction after instruction" +
-                    " and the final plane's configuration:");
-            choice = scanner.nextInt();
-            checkChoice(choice);
-            if (choice == 1) {
-                int conf = 0;
-                ListIterator<String> it = controller.getAllInstructions().listIterator();
-                String instr = "";
-                do {
-                    System.out.println("Press:\n0 for previous plane's configuration:" +
-                            "\n1 for next plane's configuration:\n2 for exit.");
-                    do {
-                        conf = scanner.nextInt();
-                    } while (conf < 0 || conf > 2);
-                    if (conf == 0 && it.hasPrevious() && controller.hasPrevious()) {
-                        System.out.println("\nPrevious plane's configuration:\n" + controller.previous());
-                        it.previous();
-                    } else if (conf == 1 && it.hasNext()) {
-                        instr = it.next();
-                        controller.execute(instr);
-                    }
-                    if (conf != 0)
-                        System.out.println("\nCurrent plane's configuration:\n" + controller.getPlane());
-                    System.out.println();
-                } while (it.hasNext() && conf != 2);
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-w":
+                        length = Double.parseDouble(argument(args, ++i));
+                        break;
+                    case "-h":
+                        height = Double.parseDouble(argument(args, ++i));
+                        break;
+                    case "-t":
+                        threads = Integer.parseInt(argument(args, ++i));
+                        if (threads < 1)
+                            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+                        break;
+                    case "-e":
+                        exporter = PlaneExporter.forExtension(argument(args, ++i));
+                        break;
+                    case "-a":
+                        areaDetection = areaDetection(argument(args, ++i));
+                        break;
+                    case "-v":
+                        verbose = true;
+                        break;
+                    default:
+                        if (args[i].startsWith("-"))
+                            throw new IllegalArgumentException("Unknown option: " + args[i]);
+                        files.addAll(programs(Path.of(args[i])));
+                }
             }
-            if (choice == 2) {
-                for (String instr : controller.getAllInstructions()) {
-                    controller.execute(instr);
-                    Thread.sleep(5000);
+            if (files.isEmpty())
+                throw new IllegalArgumentException("No LOGO programs to execute");
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        ExecutionTracer tracer = ExecutionTracer.NONE;
+        if (verbose)
+            tracer = ExecutionTracer.logging(Logger.getGlobal());
+        else {
+            logoLogger.setLevel(Level.OFF);
+            Logger.getGlobal().setLevel(Level.OFF);
+        }
+        System.exit(executeAll(files, length, height, threads, exporter, areaDetection, tracer) == 0 ? 0 : 1);
+    }
+
+    /**
+     * Esegue in parallelo i programmi LOGO specificati, stampando il risultato di ognuno nell' ordine
+     * in cui sono stati specificati.
+     *
+     * @param files         i file dei programmi da eseguire.
+     * @param length        la base del piano di ogni programma.
+     * @param height        l' altezza del piano di ogni programma.
+     * @param threads       il numero di programmi da eseguire contemporaneamente.
+     * @param exporter      l' esportatore con cui esportare il piano finale di ogni programma, null per non esportarlo.
+     * @param areaDetection il modo in cui vengono individuate le aree chiuse.
+     * @param tracer        il tracer che riceve gli eventi dell' esecuzione di ogni programma.
+     * @return il numero di programmi la cui esecuzione non &egrave; andata a buon fine.
+     */
+    public static int executeAll(List<Path> files, double length, double height, int threads, PlaneExporter exporter,
+                                 AreaDetection areaDetection, ExecutionTracer tracer) {
+        long start = System.nanoTime();
+        int failed = 0;
+        try (ExecutionService service = new ExecutionService(threads)) {
+            List<CompletableFuture<ExecutionResult>> results = new ArrayList<>();
+            for (Path file : files) {
+                try {
+                    ExecutionTask task = new ExecutionTask(file.toString(), Files.readString(file), length, height);
+                    task.setAreaDetection(areaDetection);
+                    task.setTracer(tracer);
+                    results.add(service.submit(task).thenApply(result -> save(result, exporter)));
+                } catch (IOException | IllegalArgumentException e) {
+                    results.add(CompletableFuture.failedFuture(e));
+                }
+            }
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    ExecutionResult result = results.get(i).join();
+                    if (!result.isCompleted())
+                        failed++;
+                    System.out.println(result);
+                } catch (CompletionException e) {
+                    failed++;
+                    System.out.println(files.get(i) + ": ERROR " + e.getCause().getMessage());
                 }
-                System.out.println("\nFinal plane's configuration:\n" + controller.getPlane());
             }
-            controller.createLOGOFile(filepath);
-            scanner.close();
-        } catch (InputMismatchException | InterruptedException mismatchException) {
-            mismatchException.printStackTrace();
-        } catch (IOException ioException) {
-            Logger.getGlobal().severe("Error opening file");
-            ioException.printStackTrace();
-        } catch (IllegalArgumentException illegalArgumentException) {
-            Logger.getGlobal().severe("Invalid input choice");
-            illegalArgumentException.printStackTrace();
         }
-    }*/
+        System.out.println(files.size() + " programs, " + failed + " failed, "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        return failed;
+    }
+
+    /**
+     * Crea il file di output del programma eseguito e, se l' esportatore non &egrave; null, esporta il suo piano finale.
+     * Il risultato di un programma non eseguito completamente viene restituito senza creare alcun file.
+     *
+     * @param result   il risultato dell' esecuzione, il cui nome &egrave; il percorso del file del programma.
+     * @param exporter l' esportatore con cui esportare il piano finale, null per non esportarlo.
+     * @return il risultato specificato.
+     * @throws UncheckedIOException se c'&egrave; un errore di I/O nella scrittura dell' output.
+     */
+    private static ExecutionResult save(ExecutionResult result, PlaneExporter exporter) {
+        if (!result.isCompleted())
+            return result;
+        try {
+            DefaultController.createLOGOFile(result.getPlane(), result.getName());
+            if (exporter != null)
+                DefaultController.exportPlane(result.getPlane(), result.getName(), exporter);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * Restituisce i programmi LOGO indicati dal percorso specificato: il file stesso oppure, se il percorso
+     * &egrave; una cartella, i file .txt in essa contenuti, esclusi i file di output di esecuzioni precedenti.
+     */
+    private static List<Path> programs(Path path) throws IOException {
+        if (Files.isRegularFile(path))
+            return List.of(path);
+        if (!Files.isDirectory(path))
+            throw new IllegalArgumentException("Nonexistent path: " + path);
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(f -> f.getFileName().toString().endsWith(".txt"))
+                    .filter(f -> !f.getFileName().toString().endsWith("Output.txt"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static AreaDetection areaDetection(String name) {
+        for (AreaDetection mode : AreaDetection.values())
+            if (mode.name().equalsIgnoreCase(name))
+                return mode;
+        throw new IllegalArgumentException("Unknown area detection mode: " + name);
+    }
 
-    public static void checkChoice(int choice) {
-        if (choice < 1 || choice > 2)
-            throw new IllegalArgumentException("Invalid choice: " + choice);
+    private static String argument(String[] args, int i) {
+        if (i >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        return args[i];
     }
 }
@@ -0,0 +1,42 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.*;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Esporta il piano nel formato binario descritto in {@link PlaneExporter#binary()}.
+ */
+final class BinaryExporter implements PlaneExporter {
+
+    static final String EXTENSION = "logo";
+    private static final int VERSION = 1;
+
+    @Override
+    public String getExtension() {
+        return EXTENSION;
+    }
+
+    @Override
+    public void export(Plane<Point<Double>> plane, WritableByteChannel channel) throws IOException {
+        ExportWriter out = new ExportWriter(channel);
+        out.putAscii("LOGO").putByte(VERSION);
+        out.putDouble(plane.getLength()).putDouble(plane.getHeight());
+        out.putInt(plane.getBackgroundColor().getARGB() & 0xFFFFFF);
+        SegmentStore segments = ExportWriter.segments(plane);
+        out.putInt(segments.size());
+        for (int i = 0; i < segments.size(); i++)
+            out.putDouble(segments.getStartX(i)).putDouble(segments.getStartY(i))
+                    .putDouble(segments.getEndX(i)).putDouble(segments.getEndY(i))
+                    .putInt(segments.getRGB(i)).putInt(segments.getSize(i));
+        out.putInt(plane.getClosedAreas().size());
+        for (ClosedArea<Line<Point<Double>>> a : plane.getClosedAreas()) {
+            out.putInt(a.getColor().getARGB() & 0xFFFFFF).putInt(a.getArea().size());
+            for (Line<Point<Double>> l : a.getArea())
+                out.putDouble(l.getStartingPoint().getDoubleX()).putDouble(l.getStartingPoint().getDoubleY())
+                        .putDouble(l.getEndPoint().getDoubleX()).putDouble(l.getEndPoint().getDoubleY());
+        }
+        out.flush();
+    }
+}
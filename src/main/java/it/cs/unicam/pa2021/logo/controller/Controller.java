@@ -1,9 +1,11 @@
 package it.cs.unicam.pa2021.logo.controller;
 
+import it.cs.unicam.pa2021.logo.model.AreaDetection;
 import it.cs.unicam.pa2021.logo.model.LOGOSyntaxErrorException;
 import it.cs.unicam.pa2021.logo.model.Plane;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Deque;
 import java.util.List;
 
@@ -57,15 +59,31 @@ public interface Controller<C> {
      */
     Plane<C> next();
 
+    /**
+     * Restituisce la configurazione del piano ottenuta dopo aver eseguito il numero di istruzioni specificato,
+     * rendendola la configurazione corrente. Le configurazioni gi&agrave; eseguite vengono ripristinate dal
+     * checkpoint pi&ugrave; vicino, mentre quelle successive vengono calcolate eseguendo le istruzioni caricate,
+     * purch&eacute; le istruzioni gi&agrave; eseguite siano, nello stesso ordine, le prime istruzioni caricate.
+     *
+     * @param instructionIndex il numero di istruzioni eseguite nella configurazione da restituire, 0 per il piano iniziale.
+     * @return la configurazione del piano dopo il numero di istruzioni specificato.
+     * @throws IllegalArgumentException se l' indice &egrave; negativo o supera il numero di istruzioni disponibili,
+     *                                  oppure se supera le configurazioni gi&agrave; eseguite e le istruzioni eseguite
+     *                                  non sono le prime istruzioni caricate.
+     */
+    Plane<C> seek(int instructionIndex);
+
     /**
      * Restituisce la lista delle istruzioni LOGO contenute nel file, il cui percorso
      * &egrave; passato come parametro.
-     * Viene lanciata una LOGOSyntaxErrorException se viene caricato un numero come istruzione.
+     * Ogni istruzione viene restituita come testo, compreso l' intero blocco di un REPEAT.
      *
      * @param filePath il percorso assoluto o relativo del file da leggere.
-     * @throws IOException se c'&egrave; un errore di I/O nell' apertura del file.
+     * @throws IOException              se c'&egrave; un errore di I/O nell' apertura del file.
+     * @throws LOGOSyntaxErrorException se il file contiene un errore di sintassi, con la riga e la colonna
+     *                                  in cui si trova.
      */
-    void loadInstructions(String filePath) throws IOException;
+    void loadInstructions(String filePath) throws IOException, LOGOSyntaxErrorException;
 
     /**
      * Restituisce la lista delle istruzioni caricate da file.
@@ -93,6 +111,18 @@ public interface Controller<C> {
      */
     boolean createLOGOFile(String filepath) throws IOException;
 
+    /**
+     * Esporta la configurazione corrente del piano con l' esportatore specificato, in un file
+     * con lo stesso nome del file usato per caricare le istruzioni, seguito da "Output" e dall' estensione
+     * dell' esportatore.
+     *
+     * @param filepath il percorso assoluto o relativo del file utilizzato per le istruzioni.
+     * @param exporter l' esportatore con cui scrivere il file.
+     * @return il percorso del file creato.
+     * @throws IOException se ci sono errori di I/O con il file.
+     */
+    Path exportPlane(String filepath, PlaneExporter exporter) throws IOException;
+
     /**
      * Esegue un' istruzione LOGO nel piano.
      * Viene lanciata una LOGOSyntaxErrorException se ci sono errori di sintassi nell' istruzione da eseguire.
@@ -101,6 +131,15 @@ public interface Controller<C> {
      */
     void execute(String instruction);
 
+    /**
+     * Esegue nel piano l' istruzione caricata nella posizione specificata, con il programma compilato
+     * durante il caricamento, senza analizzarne di nuovo il testo.
+     *
+     * @param instructionIndex la posizione dell' istruzione nella lista delle istruzioni caricate.
+     * @throws IllegalArgumentException se la posizione specificata non &egrave; valida.
+     */
+    void execute(int instructionIndex);
+
     /**
      * Esegue una lista di istruzioni LOGO nel piano.
      * Viene lanciata una LOGOSyntaxErrorException se ci sono errori di sintassi nell' istruzione da eseguire.
@@ -120,4 +159,19 @@ public interface Controller<C> {
      */
     void clearNext();
 
+    /**
+     * Restituisce il modo in cui vengono individuate le aree chiuse nel piano.
+     *
+     * @return il modo di individuazione delle aree chiuse.
+     */
+    AreaDetection getAreaDetection();
+
+    /**
+     * Imposta il modo in cui vengono individuate le aree chiuse nel piano corrente e nei piani costruiti in seguito.
+     *
+     * @param areaDetection il modo di individuazione delle aree chiuse.
+     * @throws NullPointerException se il modo specificato &egrave; null.
+     */
+    void setAreaDetection(AreaDetection areaDetection);
+
 }
@@ -5,19 +5,21 @@ import it.cs.unicam.pa2021.logo.model.*;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.Deque;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.logging.Level;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
-import java.util.stream.Collectors;
 
 /**
  * Implementazione del controller dell' interfaccia it.cs.unicam.pa2021.logo.Controller.
@@ -29,22 +31,34 @@ public class DefaultController implements Controller<Point<Double>> {
     private static final Logger logger = Logger.getLogger("it.cs.unicam.pa2021.logo.DefaultController");
     private static final Formatter formatter = new SimpleFormatter();
     private static final ConsoleHandler consoleHandler = new ConsoleHandler();
+
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 256;
+    private static final int DEFAULT_HISTORY_BUDGET = 4096;
+
+    static {
+        consoleHandler.setFormatter(formatter);
+        logger.addHandler(consoleHandler);
+        logger.setUseParentHandlers(false);
+    }
+
     private Plane<Point<Double>> currentPlane;
-    private Deque<Plane<Point<Double>>> previousPlane;
-    private Deque<Plane<Point<Double>>> nextPlane;
+    private List<Plane<Point<Double>>> configurations;
+    private List<CompiledInstruction> executedInstructions;
+    private int position;
+    private int storedConfigurations;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private int historyBudget = DEFAULT_HISTORY_BUDGET;
     private Deque<String> configurationInstructions;
-    private List<String> allInstructions;
+    private List<CompiledInstruction> loadedInstructions;
+    private final List<String> allInstructions = new InstructionList();
+    private ExecutionTracer tracer = ExecutionTracer.NONE;
+    private AreaDetection areaDetection = AreaDetection.ENDPOINTS;
 
     @Override
-    public void newPlane(double length, double height) {
-        this.currentPlane = new DefaultPlane(length, height);
-        this.previousPlane = new LinkedList<>();
-        this.nextPlane = new LinkedList<>();
-        this.configurationInstructions = new LinkedList<>();
-        this.allInstructions = new ArrayList<>();
-        logger.setLevel(Level.INFO);
-        consoleHandler.setFormatter(formatter);
-        logger.addHandler(consoleHandler);
+    public synchronized void newPlane(double length, double height) {
+        this.currentPlane = this.tracedPlane(length, height);
+        this.resetHistory();
+        this.loadedInstructions = new ArrayList<>();
     }
 
     @Override
@@ -54,79 +68,244 @@ public class DefaultController implements Controller<Point<Double>> {
 
     @Override
     public synchronized boolean hasPrevious() {
-        return !this.previousPlane.isEmpty();
+        return this.position > 0;
     }
 
     @Override
     public synchronized boolean hasNext() {
-        return !this.nextPlane.isEmpty();
+        return this.position < this.configurations.size() - 1;
     }
 
     @Override
     public synchronized Plane<Point<Double>> previous() {
-        if (this.hasPrevious()) {
-            this.nextPlane.addFirst(this.currentPlane);
-            this.currentPlane = this.previousPlane.removeFirst();
-            this.configurationInstructions.removeLast();
-            return this.currentPlane;
-        }
+        if (this.hasPrevious())
+            return this.moveTo(this.position - 1);
         logger.info("No previous plane configuration");
         return null;
     }
 
     @Override
     public synchronized Plane<Point<Double>> next() {
-        if (this.hasNext()) {
-            this.previousPlane.addFirst(this.currentPlane);
-            this.currentPlane = this.nextPlane.removeFirst();
-            this.configurationInstructions.addLast(this.allInstructions.get(configurationInstructions.size()));
-            return this.currentPlane;
-        }
+        if (this.hasNext())
+            return this.moveTo(this.position + 1);
         logger.info("No next plane configuration");
         return null;
     }
 
     @Override
-    public synchronized void loadInstructions(String filePath) throws IOException {
+    public synchronized Plane<Point<Double>> seek(int instructionIndex) {
+        int last = this.configurations.size() - 1;
+        if (instructionIndex < 0 || instructionIndex > Math.max(last, this.allInstructions.size()))
+            throw new IllegalArgumentException("Invalid instruction index: " + instructionIndex);
+        PlaneUpdateSupport<Point<Double>> support = this.currentPlane.getPlaneUpdateSupport();
+        support.setEnabled(false);
+        try {
+            if (instructionIndex > last) {
+                if (!this.isLoadedPrefix())
+                    throw new IllegalArgumentException("Invalid instruction index: " + instructionIndex
+                            + ", the executed instructions are not the first loaded instructions");
+                Plane<Point<Double>> plane = this.restore(last);
+                for (int i = last; i < instructionIndex; i++) {
+                    CompiledInstruction instruction = this.loadedInstructions.get(i);
+                    plane = this.replay(plane, instruction);
+                    this.configurations.add(plane);
+                    this.executedInstructions.add(instruction);
+                    this.storedConfigurations++;
+                }
+            }
+            return this.moveTo(instructionIndex);
+        } finally {
+            support.setEnabled(true);
+        }
+    }
+
+    /**
+     * Verifica se le istruzioni della cronologia sono, nello stesso ordine, le prime istruzioni caricate,
+     * ovvero se la configurazione in posizione k della cronologia &egrave; stata ottenuta eseguendo l' istruzione
+     * caricata in posizione k - 1. Solo in questo caso le configurazioni successive all' ultima possono essere
+     * calcolate eseguendo le istruzioni caricate che seguono.
+     */
+    private boolean isLoadedPrefix() {
+        if (this.executedInstructions.size() - 1 > this.loadedInstructions.size())
+            return false;
+        for (int k = 1; k < this.executedInstructions.size(); k++)
+            if (this.executedInstructions.get(k) != this.loadedInstructions.get(k - 1))
+                return false;
+        return true;
+    }
+
+    /**
+     * Imposta ogni quante configurazioni la cronologia conserva un checkpoint, ovvero una configurazione
+     * che non viene mai rilasciata e da cui vengono ricalcolate le configurazioni successive rilasciate.
+     *
+     * @param checkpointInterval il numero di configurazioni tra due checkpoint consecutivi.
+     * @throws IllegalArgumentException se l' intervallo specificato &egrave; minore di 1.
+     */
+    public synchronized void setCheckpointInterval(int checkpointInterval) {
+        if (checkpointInterval < 1)
+            throw new IllegalArgumentException("Invalid checkpoint interval: " + checkpointInterval);
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Imposta il numero massimo di configurazioni conservate nella cronologia. Superato questo numero,
+     * vengono rilasciate le configurazioni pi&ugrave; lontane da quella corrente che non sono checkpoint.
+     *
+     * @param historyBudget il numero massimo di configurazioni conservate.
+     * @throws IllegalArgumentException se il numero specificato &egrave; minore di 1.
+     */
+    public synchronized void setHistoryBudget(int historyBudget) {
+        if (historyBudget < 1)
+            throw new IllegalArgumentException("Invalid history budget: " + historyBudget);
+        this.historyBudget = historyBudget;
+        this.evict();
+    }
+
+    /**
+     * Imposta il tracer che riceve gli eventi dell' esecuzione delle istruzioni, a partire dal piano corrente.
+     * Per default gli eventi non vengono registrati.
+     *
+     * @param tracer il tracer da impostare.
+     * @throws NullPointerException se il tracer specificato &egrave; null.
+     */
+    public synchronized void setTracer(ExecutionTracer tracer) {
+        this.tracer = Objects.requireNonNull(tracer, "Null tracer!");
+        if (this.currentPlane instanceof DefaultPlane)
+            ((DefaultPlane) this.currentPlane).setTracer(tracer);
+    }
+
+    @Override
+    public synchronized AreaDetection getAreaDetection() {
+        return this.areaDetection;
+    }
+
+    @Override
+    public synchronized void setAreaDetection(AreaDetection areaDetection) {
+        this.areaDetection = Objects.requireNonNull(areaDetection, "Null area detection mode!");
+        if (this.currentPlane instanceof DefaultPlane)
+            ((DefaultPlane) this.currentPlane).setAreaDetection(areaDetection);
+    }
+
+    /**
+     * Restituisce il numero di configurazioni conservate nella cronologia, checkpoint compresi.
+     */
+    synchronized int getStoredConfigurations() {
+        return this.storedConfigurations;
+    }
+
+    private DefaultPlane tracedPlane(double length, double height) {
+        DefaultPlane plane = new DefaultPlane(length, height);
+        plane.setTracer(this.tracer);
+        plane.setAreaDetection(this.areaDetection);
+        return plane;
+    }
+
+    /**
+     * Rende corrente la configurazione specificata della cronologia, aggiornando di conseguenza
+     * la coda delle istruzioni eseguite.
+     *
+     * @param index la posizione della configurazione nella cronologia.
+     * @return la configurazione resa corrente.
+     */
+    private Plane<Point<Double>> moveTo(int index) {
+        Plane<Point<Double>> plane = this.restore(index);
+        this.currentPlane = plane;
+        this.position = index;
+        while (this.configurationInstructions.size() > index)
+            this.configurationInstructions.removeLast();
+        while (this.configurationInstructions.size() < index)
+            this.configurationInstructions.addLast(this.executedInstructions.get(this.configurationInstructions.size() + 1).getText());
+        this.evict();
+        return plane;
+    }
+
+    /**
+     * Restituisce la configurazione specificata della cronologia. Se la configurazione &egrave; stata rilasciata,
+     * viene ricalcolata eseguendo di nuovo le istruzioni a partire dalla configurazione conservata pi&ugrave; vicina.
+     *
+     * @param index la posizione della configurazione nella cronologia.
+     * @return la configurazione.
+     */
+    private Plane<Point<Double>> restore(int index) {
+        if (this.configurations.get(index) != null)
+            return this.configurations.get(index);
+        int from = index;
+        while (this.configurations.get(from) == null)
+            from--;
+        Plane<Point<Double>> plane = this.configurations.get(from);
+        PlaneUpdateSupport<Point<Double>> support = plane.getPlaneUpdateSupport();
+        boolean enabled = support.isEnabled();
+        support.setEnabled(false);
+        try {
+            for (int i = from + 1; i <= index; i++) {
+                plane = this.replay(plane, this.executedInstructions.get(i));
+                this.configurations.set(i, plane);
+                this.storedConfigurations++;
+            }
+        } finally {
+            support.setEnabled(enabled);
+        }
+        return plane;
+    }
+
+    /**
+     * Esegue di nuovo un' istruzione gi&agrave; eseguita, senza registrarla nel log e senza compilarla di nuovo.
+     */
+    private Plane<Point<Double>> replay(Plane<Point<Double>> plane, CompiledInstruction instruction) {
+        try {
+            return instruction.getProgram().execute(plane);
+        } catch (LOGOSyntaxErrorException e) {
+            return new DefaultPlane(plane);
+        }
+    }
+
+    /**
+     * Se la cronologia supera il numero massimo di configurazioni, rilascia le configurazioni pi&ugrave; lontane
+     * da quella corrente fino a conservarne la met&agrave;, senza rilasciare mai i checkpoint e la configurazione corrente.
+     */
+    private void evict() {
+        if (this.storedConfigurations <= this.historyBudget)
+            return;
+        List<Integer> released = new ArrayList<>();
+        for (int i = 0; i < this.configurations.size(); i++)
+            if (this.configurations.get(i) != null && i % this.checkpointInterval != 0 && i != this.position)
+                released.add(i);
+        released.sort(Comparator.comparingInt(i -> -Math.abs(i - this.position)));
+        for (int i = 0; i < released.size() && this.storedConfigurations > this.historyBudget / 2; i++) {
+            this.configurations.set(released.get(i), null);
+            this.storedConfigurations--;
+        }
+    }
+
+    private void resetHistory() {
+        this.configurations = new ArrayList<>();
+        this.configurations.add(this.currentPlane);
+        this.executedInstructions = new ArrayList<>();
+        this.executedInstructions.add(null);
+        this.position = 0;
+        this.storedConfigurations = 1;
+        this.configurationInstructions = new LinkedList<>();
+    }
+
+    @Override
+    public synchronized void loadInstructions(String filePath) throws IOException, LOGOSyntaxErrorException {
         if (!Files.exists(Path.of(filePath)))
             logger.severe("Nonexistent file path");
         else {
-            List<String> lst = Files.lines(Path.of(filePath))
-                    .map(l -> l.split(" "))
-                    .flatMap(Arrays::stream)
-                    .collect(Collectors.toList());
-            if (lst.isEmpty()) {
+            List<LOGOStatement> program;
+            try (Reader reader = Files.newBufferedReader(Path.of(filePath))) {
+                program = LOGOParser.parse(reader);
+            }
+            if (program.isEmpty()) {
                 logger.severe("Empty file!");
                 return;
             }
-            this.allInstructions.add(lst.get(0));
-            if (isNumeric(lst.get(0))) {
-                logger.log(Level.SEVERE, "Exception thrown: " + new LOGOSyntaxErrorException("Number is not an istruction!"));
-            }
-            int j = 0;
-            boolean repeat = false;
-            for (int i = 1; i < lst.size(); i++) {
-                if (isNumeric(lst.get(i)))
-                    this.allInstructions.set(j, this.allInstructions.get(j).concat(" " + lst.get(i)));
-                else {
-                    if (lst.get(i).charAt(0) == '[') {
-                        repeat = true;
-                        this.allInstructions.set(j, this.allInstructions.get(j).concat(" " + lst.get(i).substring(1)));
-                    } else if (lst.get(i).charAt(lst.get(i).length() - 1) == ']') {
-                        this.allInstructions.set(j, this.allInstructions.get(j).concat(" " + lst.get(i).substring(0, lst.get(i).length() - 1)));
-                        repeat = false;
-                    } else if (repeat)
-                        this.allInstructions.set(j, this.allInstructions.get(j).concat(" " + lst.get(i)));
-                    else {
-                        this.allInstructions.add(lst.get(i));
-                        j++;
-                    }
-                }
-            }
+            for (LOGOStatement statement : program)
+                this.loadedInstructions.add(new CompiledInstruction(statement.toString(),
+                        LOGOProgram.of(Collections.singletonList(statement))));
         }
     }
 
-
     @Override
     public List<String> getAllInstructions() {
         return this.allInstructions;
@@ -139,21 +318,33 @@ public class DefaultController implements Controller<Point<Double>> {
 
     @Override
     public boolean createLOGOFile(String filepath) throws IOException {
-        StringBuilder outputFile = new StringBuilder();
-        for (int i = 0; i < filepath.length(); i++) {
-            outputFile.append(filepath.charAt(i));
-            if (i == filepath.lastIndexOf(".txt") - 1)
-                outputFile.append("Output");
-        }
-        File file = new File(outputFile.toString());
+        return createLOGOFile(this.getPlane(), filepath);
+    }
+
+    @Override
+    public Path exportPlane(String filepath, PlaneExporter exporter) throws IOException {
+        return exportPlane(this.getPlane(), filepath, exporter);
+    }
+
+    /**
+     * Crea per il piano specificato il file di output descritto da {@link #createLOGOFile(String)},
+     * senza bisogno di un controller che conservi la cronologia delle configurazioni.
+     *
+     * @param plane    il piano di cui memorizzare le linee e le aree chiuse.
+     * @param filepath il percorso assoluto o relativo del file utilizzato per le istruzioni.
+     * @return true se il file non esisteva ed &egrave; stato creato correttamente, false altrimenti.
+     * @throws IOException se ci sono errori di I/O con il file.
+     */
+    public static boolean createLOGOFile(Plane<Point<Double>> plane, String filepath) throws IOException {
+        File file = new File(outputPath(filepath, ".txt"));
         boolean result = file.createNewFile();
-        FileWriter fileWriter = new FileWriter(file);
-        for (Line<Point<Double>> l : this.getPlane().getLines())
-            if (!this.currentPlane.getClosedAreas().contains(l))
-                fileWriter.write(l + "\n");
-        for (ClosedArea<Line<Point<Double>>> a : this.getPlane().getClosedAreas())
-            fileWriter.write(a + "\n");
-        fileWriter.close();
+        try (Writer writer = Files.newBufferedWriter(file.toPath())) {
+            for (Line<Point<Double>> l : plane.getLines())
+                if (plane.areaOf(l).isEmpty())
+                    writer.write(l + "\n");
+            for (ClosedArea<Line<Point<Double>>> a : plane.getClosedAreas())
+                writer.write(a + "\n");
+        }
         if (result)
             logger.info("File created successfully");
         else
@@ -161,146 +352,184 @@ public class DefaultController implements Controller<Point<Double>> {
         return result;
     }
 
-    private boolean isNumeric(String s) {
-        if (s == null) {
-            return false;
-        }
-        try {
-            double d = Double.parseDouble(s);
-        } catch (NumberFormatException e) {
-            return false;
-        }
-        return true;
+    /**
+     * Esporta il piano specificato nel file descritto da {@link #exportPlane(String, PlaneExporter)}.
+     *
+     * @param plane    il piano da esportare.
+     * @param filepath il percorso assoluto o relativo del file utilizzato per le istruzioni.
+     * @param exporter l' esportatore con cui scrivere il file.
+     * @return il percorso del file creato.
+     * @throws IOException se ci sono errori di I/O con il file.
+     */
+    public static Path exportPlane(Plane<Point<Double>> plane, String filepath, PlaneExporter exporter) throws IOException {
+        Path file = Path.of(outputPath(filepath, "." + exporter.getExtension()));
+        exporter.export(plane, file);
+        logger.info("Plane exported to " + file);
+        return file;
+    }
+
+    /**
+     * Restituisce il percorso del file di output per il file delle istruzioni specificato: il nome del file
+     * seguito da "Output" e dall' estensione specificata, al posto dell' ultima estensione .txt del nome del file.
+     * Se il nome del file non contiene l' estensione .txt, "Output" e l' estensione vengono aggiunti in fondo,
+     * cos&igrave; che il file delle istruzioni non venga mai sovrascritto.
+     */
+    static String outputPath(String filepath, String extension) {
+        int name = Math.max(filepath.lastIndexOf('/'), filepath.lastIndexOf(File.separatorChar)) + 1;
+        int index = filepath.lastIndexOf(".txt");
+        if (index <= name)
+            return filepath + "Output" + extension;
+        return filepath.substring(0, index) + "Output" + extension + filepath.substring(index + ".txt".length());
     }
 
     @Override
     public synchronized void execute(String instruction) {
-        Plane<Point<Double>> generatedPlane = new DefaultPlane(this.currentPlane);
-        Instruction<Point<Double>> instr;
-        String[] nameCmd = instruction.split(" ");
-        StringBuilder log = new StringBuilder();
-        boolean defaultCase = false;
-        switch (nameCmd[0]) {
-            case "FORWARD": {
-                checkLOGOSyntax(nameCmd[0], 2, nameCmd.length);
-                instr = Instruction::forward;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1]);
-                break;
-            }
-            case "BACKWARD": {
-                checkLOGOSyntax(nameCmd[0], 2, nameCmd.length);
-                instr = Instruction::backward;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1]);
-                break;
-            }
-            case "LEFT": {
-                checkLOGOSyntax(nameCmd[0], 2, nameCmd.length);
-                instr = Instruction::left;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1]);
-                break;
-            }
-            case "RIGHT": {
-                checkLOGOSyntax(nameCmd[0], 2, nameCmd.length);
-                instr = Instruction::right;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1]);
-                break;
-            }
-            case "CLEARSCREEN": {
-                instr = Instruction::clearScreen;
-                generatedPlane = instr.execute(this.currentPlane);
-                break;
-            }
-            case "HOME": {
-                instr = Instruction::home;
-                generatedPlane = instr.execute(this.currentPlane);
-                break;
-            }
-            case "PENUP": {
-                instr = Instruction::penUp;
-                generatedPlane = instr.execute(this.currentPlane);
-                break;
-            }
-            case "PENDOWN": {
-                instr = Instruction::penDown;
-                generatedPlane = instr.execute(this.currentPlane);
-                break;
-            }
-            case "SETPENCOLOR": {
-                checkLOGOSyntax(nameCmd[0], 4, nameCmd.length);
-                instr = Instruction::setPenColor;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1], nameCmd[2], nameCmd[3]);
-                break;
-            }
-            case "SETFILLCOLOR": {
-                checkLOGOSyntax(nameCmd[0], 4, nameCmd.length);
-                instr = Instruction::setFillColor;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1], nameCmd[2], nameCmd[3]);
-                break;
-            }
-            case "SETSCREENCOLOR": {
-                checkLOGOSyntax(nameCmd[0], 4, nameCmd.length);
-                instr = Instruction::setScreenColor;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1], nameCmd[2], nameCmd[3]);
-                break;
-            }
-            case "SETPENSIZE": {
-                instr = Instruction::setPenSize;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1]);
-                break;
-            }
-            case "REPEAT": {
-                List<String> lstCmd = new ArrayList<>(Arrays.asList(nameCmd).subList(2, nameCmd.length));
-                instr = Instruction::repeat;
-                generatedPlane = instr.execute(this.currentPlane, nameCmd[1], lstCmd);
-                break;
-            }
-            default: {
-                defaultCase = true;
-                if (!isNumeric(nameCmd[0])) {
-                    logger.severe("Nonexistent instruction: " + instruction);
-                } else {
-                    logger.severe("Number is not an instruction: " + instruction);
-                }
-                logger.severe("Not executed instruction: " + instruction);
-                break;
-            }
-        }
-        if (!defaultCase) {
-            for (String s : nameCmd)
-                log.append(s).append(" ");
-            logger.setUseParentHandlers(false);
-            logger.info("Executed instruction: " + log);
-            System.out.println("----------------------------------------");
+        this.execute(new CompiledInstruction(instruction));
+    }
+
+    @Override
+    public synchronized void execute(int instructionIndex) {
+        if (instructionIndex < 0 || instructionIndex >= this.loadedInstructions.size())
+            throw new IllegalArgumentException("Invalid instruction index: " + instructionIndex);
+        this.execute(this.loadedInstructions.get(instructionIndex));
+    }
+
+    /**
+     * Esegue l' istruzione specificata nel piano corrente e ne conserva il programma nella cronologia,
+     * cos&igrave; che le configurazioni ricalcolate non debbano compilarla di nuovo.
+     * Se la configurazione corrente non &egrave; l' ultima della cronologia, le configurazioni successive
+     * vengono cancellate, perch&eacute; sono state calcolate senza l' istruzione eseguita.
+     *
+     * @param instruction l' istruzione da eseguire.
+     */
+    private void execute(CompiledInstruction instruction) {
+        this.clearNext();
+        Plane<Point<Double>> generatedPlane;
+        try {
+            generatedPlane = instruction.getProgram().execute(this.currentPlane);
+            this.tracer.executedInstruction(instruction.getText());
+        } catch (LOGOSyntaxErrorException e) {
+            generatedPlane = new DefaultPlane(this.currentPlane);
+            logger.severe(e.getMessage());
+            logger.severe("Not executed instruction: " + instruction.getText());
         }
-        this.previousPlane.addFirst(this.currentPlane);
         this.currentPlane = generatedPlane;
-        this.configurationInstructions.addLast(instruction);
+        this.position++;
+        this.configurations.add(generatedPlane);
+        this.executedInstructions.add(instruction);
+        this.storedConfigurations++;
+        this.configurationInstructions.addLast(instruction.getText());
+        this.evict();
     }
 
     @Override
-    public void executeAll(List<String> instructions) {
+    public synchronized void executeAll(List<String> instructions) {
         for (String s : instructions)
             execute(s);
     }
 
     @Override
-    public void clear() {
-        this.currentPlane = new DefaultPlane(this.currentPlane.getLength(), this.currentPlane.getHeight());
-        this.configurationInstructions = new LinkedList<>();
-        this.previousPlane = new LinkedList<>();
-        this.nextPlane = new LinkedList<>();
+    public synchronized void clear() {
+        this.currentPlane = this.tracedPlane(this.currentPlane.getLength(), this.currentPlane.getHeight());
+        this.resetHistory();
         logger.info("All Plane configurations deleted");
     }
 
     @Override
-    public void clearNext() {
-        this.nextPlane.clear();
+    public synchronized void clearNext() {
+        List<Plane<Point<Double>>> next = this.configurations.subList(this.position + 1, this.configurations.size());
+        for (Plane<Point<Double>> p : next)
+            if (p != null)
+                this.storedConfigurations--;
+        next.clear();
+        this.executedInstructions.subList(this.position + 1, this.executedInstructions.size()).clear();
     }
 
+    /**
+     * Istruzione conservata dal controller insieme al programma in cui viene compilata.
+     * L' istruzione viene compilata solo la prima volta che serve il suo programma, e lo stesso programma
+     * viene poi riusato ogni volta che l' istruzione viene eseguita di nuovo.
+     */
+    private static final class CompiledInstruction {
+
+        private final String text;
+        private LOGOProgram program;
+        private LOGOSyntaxErrorException error;
+
+        private CompiledInstruction(String text) {
+            this.text = text;
+        }
+
+        private CompiledInstruction(String text, LOGOProgram program) {
+            this.text = text;
+            this.program = program;
+        }
+
+        private String getText() {
+            return this.text;
+        }
 
-    private void checkLOGOSyntax(String instruction, int expectedSize, int size) {
-        if (expectedSize != size)
-            logger.log(Level.SEVERE, "Exception thrown: " + new LOGOSyntaxErrorException("Syntax error for " + instruction + " instruction"));
+        /**
+         * Restituisce il programma dell' istruzione, compilandolo se non &egrave; ancora stato compilato.
+         *
+         * @return il programma dell' istruzione.
+         * @throws LOGOSyntaxErrorException se l' istruzione non &egrave; un' istruzione LOGO valida.
+         */
+        private LOGOProgram getProgram() throws LOGOSyntaxErrorException {
+            if (this.program == null && this.error == null)
+                try {
+                    this.program = LOGOProgram.compile(this.text);
+                } catch (LOGOSyntaxErrorException e) {
+                    this.error = e;
+                }
+            if (this.error != null)
+                throw this.error;
+            return this.program;
+        }
     }
 
+    /**
+     * Lista delle istruzioni caricate vista come testo. Ogni istruzione aggiunta o sostituita viene conservata
+     * senza essere compilata, mentre le istruzioni lette dal file conservano il programma compilato dalle
+     * istruzioni restituite da {@link LOGOParser}, con la riga e la colonna in cui si trovano nel file.
+     */
+    private final class InstructionList extends AbstractList<String> {
+
+        @Override
+        public String get(int index) {
+            synchronized (DefaultController.this) {
+                return loadedInstructions.get(index).getText();
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (DefaultController.this) {
+                return loadedInstructions.size();
+            }
+        }
+
+        @Override
+        public String set(int index, String instruction) {
+            synchronized (DefaultController.this) {
+                return loadedInstructions.set(index, new CompiledInstruction(instruction)).getText();
+            }
+        }
+
+        @Override
+        public void add(int index, String instruction) {
+            synchronized (DefaultController.this) {
+                loadedInstructions.add(index, new CompiledInstruction(instruction));
+            }
+            this.modCount++;
+        }
+
+        @Override
+        public String remove(int index) {
+            this.modCount++;
+            synchronized (DefaultController.this) {
+                return loadedInstructions.remove(index).getText();
+            }
+        }
+    }
 }
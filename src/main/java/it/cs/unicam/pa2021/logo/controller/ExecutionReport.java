@@ -0,0 +1,56 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Raccoglie i risultati di un gruppo di programmi eseguiti con {@link ExecutionService#executeAll(List)},
+ * nello stesso ordine in cui i programmi sono stati specificati.
+ */
+public final class ExecutionReport {
+
+    private final List<ExecutionResult> results;
+    private final long elapsedNanos;
+
+    ExecutionReport(List<ExecutionResult> results, long elapsedNanos) {
+        this.results = Collections.unmodifiableList(results);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<ExecutionResult> getResults() {
+        return this.results;
+    }
+
+    /**
+     * Restituisce il numero di programmi la cui esecuzione ha avuto l' esito specificato.
+     *
+     * @param status l' esito dell' esecuzione.
+     * @return il numero di programmi con l' esito specificato.
+     */
+    public int count(ExecutionResult.Status status) {
+        return (int) this.results.stream().filter(r -> r.getStatus() == status).count();
+    }
+
+    /**
+     * Restituisce il numero di programmi che non sono stati eseguiti completamente.
+     *
+     * @return il numero di programmi non eseguiti completamente.
+     */
+    public int getFailed() {
+        return this.results.size() - this.count(ExecutionResult.Status.COMPLETED);
+    }
+
+    /**
+     * Restituisce il tempo trascorso dall' invio del primo programma al termine dell' ultimo.
+     *
+     * @return il tempo complessivo in millisecondi.
+     */
+    public long getElapsedMillis() {
+        return this.elapsedNanos / 1000000;
+    }
+
+    @Override
+    public String toString() {
+        return this.results.size() + " programs, " + this.getFailed() + " failed, " + this.getElapsedMillis() + " ms";
+    }
+}
@@ -0,0 +1,78 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.Plane;
+import it.cs.unicam.pa2021.logo.model.Point;
+
+/**
+ * Il risultato dell' esecuzione di un programma con {@link ExecutionService}.
+ */
+public final class ExecutionResult {
+
+    /**
+     * L' esito dell' esecuzione di un programma.
+     */
+    public enum Status {
+        COMPLETED, SYNTAX_ERROR, FAILED, TIMEOUT, BUDGET_EXCEEDED
+    }
+
+    private final String name;
+    private final Status status;
+    private final Plane<Point<Double>> plane;
+    private final String error;
+    private final long elapsedNanos;
+
+    ExecutionResult(String name, Status status, Plane<Point<Double>> plane, String error, long elapsedNanos) {
+        this.name = name;
+        this.status = status;
+        this.plane = plane;
+        this.error = error;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Restituisce il piano prodotto dal programma. Se l' esecuzione &egrave; stata interrotta per aver
+     * superato uno dei suoi limiti, il piano contiene le modifiche delle istruzioni eseguite fino all' interruzione.
+     *
+     * @return il piano prodotto dal programma, null se il programma non &egrave; stato eseguito o
+     * se la sua esecuzione &egrave; fallita.
+     */
+    public Plane<Point<Double>> getPlane() {
+        return this.plane;
+    }
+
+    /**
+     * Restituisce la descrizione dell' errore che ha interrotto l' esecuzione.
+     *
+     * @return la descrizione dell' errore, null se il programma &egrave; stato eseguito completamente.
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedNanos / 1000000;
+    }
+
+    public boolean isCompleted() {
+        return this.status == Status.COMPLETED;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder(this.name).append(": ").append(this.status);
+        if (this.plane != null)
+            s.append(", ").append(this.plane.getNumLines()).append(" lines, ")
+                    .append(this.plane.getNumClosedAreas()).append(" closed areas");
+        if (this.error != null)
+            s.append(", ").append(this.error);
+        return s.append(", ").append(this.getElapsedMillis()).append(" ms").toString();
+    }
+}
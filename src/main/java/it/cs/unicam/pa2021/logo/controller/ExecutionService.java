@@ -0,0 +1,103 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Esegue in parallelo programmi LOGO indipendenti su un pool di thread.
+ * Ogni programma viene eseguito in un proprio piano, con i propri ascoltatori, per cui i programmi
+ * non condividono alcuno stato e non si sincronizzano tra loro. A differenza di {@link DefaultController},
+ * il servizio non conserva la cronologia delle configurazioni: di ogni programma restituisce solo il piano finale.
+ * Il tempo massimo e il numero massimo di istruzioni di un programma vengono controllati durante
+ * l' esecuzione stessa, cos&igrave; che un programma interrotto liberi subito il suo thread.
+ */
+public class ExecutionService implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Crea un servizio che esegue contemporaneamente tanti programmi quanti sono i processori disponibili.
+     */
+    public ExecutionService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crea un servizio che esegue contemporaneamente il numero di programmi specificato.
+     *
+     * @param parallelism il numero di programmi da eseguire contemporaneamente.
+     * @throws IllegalArgumentException se il numero specificato &egrave; minore di 1.
+     */
+    public ExecutionService(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Invia un programma al pool per eseguirlo.
+     *
+     * @param task il programma da eseguire.
+     * @return il risultato futuro dell' esecuzione, che viene sempre completato normalmente.
+     */
+    public CompletableFuture<ExecutionResult> submit(ExecutionTask task) {
+        return CompletableFuture.supplyAsync(() -> execute(task), this.pool);
+    }
+
+    /**
+     * Esegue in parallelo i programmi specificati e ne attende il termine.
+     *
+     * @param tasks i programmi da eseguire.
+     * @return i risultati dei programmi, nello stesso ordine in cui sono stati specificati.
+     */
+    public ExecutionReport executeAll(List<ExecutionTask> tasks) {
+        long start = System.nanoTime();
+        List<CompletableFuture<ExecutionResult>> futures = new ArrayList<>();
+        for (ExecutionTask task : tasks)
+            futures.add(submit(task));
+        List<ExecutionResult> results = new ArrayList<>();
+        for (CompletableFuture<ExecutionResult> future : futures)
+            results.add(future.join());
+        return new ExecutionReport(results, System.nanoTime() - start);
+    }
+
+    /**
+     * Esegue un programma nel thread corrente, in un nuovo piano a cui vengono aggiunti gli ascoltatori del programma.
+     *
+     * @param task il programma da eseguire.
+     * @return il risultato dell' esecuzione.
+     */
+    public static ExecutionResult execute(ExecutionTask task) {
+        long start = System.nanoTime();
+        try {
+            LOGOProgram program = LOGOProgram.of(LOGOParser.parse(task.getSource()));
+            DefaultPlane plane = new DefaultPlane(task.getLength(), task.getHeight());
+            plane.setTracer(task.getTracer());
+            plane.setAreaDetection(task.getAreaDetection());
+            for (PlaneUpdateListener<Point<Double>> listener : task.getPlaneUpdateListeners())
+                plane.addPlaneUpdateListener(listener);
+            Plane<Point<Double>> result = program.execute(plane, task.getInstructionBudget(), task.getTimeout());
+            return new ExecutionResult(task.getName(), ExecutionResult.Status.COMPLETED, result, null, System.nanoTime() - start);
+        } catch (LOGOSyntaxErrorException e) {
+            return new ExecutionResult(task.getName(), ExecutionResult.Status.SYNTAX_ERROR, null, e.getMessage(), System.nanoTime() - start);
+        } catch (LOGOLimitExceededException e) {
+            ExecutionResult.Status status = e.getLimit() == LOGOLimitExceededException.Limit.TIME
+                    ? ExecutionResult.Status.TIMEOUT : ExecutionResult.Status.BUDGET_EXCEEDED;
+            return new ExecutionResult(task.getName(), status, e.getPlane(), e.getMessage(), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            return new ExecutionResult(task.getName(), ExecutionResult.Status.FAILED, null, String.valueOf(e.getMessage()), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Termina il pool dopo l' esecuzione dei programmi gi&agrave; inviati.
+     */
+    @Override
+    public void close() {
+        this.pool.shutdown();
+    }
+}
@@ -0,0 +1,149 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.AreaDetection;
+import it.cs.unicam.pa2021.logo.model.ExecutionTracer;
+import it.cs.unicam.pa2021.logo.model.PlaneUpdateListener;
+import it.cs.unicam.pa2021.logo.model.Point;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Descrive un programma LOGO da eseguire con {@link ExecutionService}: il sorgente del programma,
+ * le dimensioni del piano in cui eseguirlo, il modo in cui il piano individua le aree chiuse,
+ * i limiti della sua esecuzione e gli ascoltatori del suo piano.
+ */
+public class ExecutionTask {
+
+    private final String name;
+    private final String source;
+    private final double length;
+    private final double height;
+    private final List<PlaneUpdateListener<Point<Double>>> listeners;
+    private Duration timeout;
+    private long instructionBudget = Long.MAX_VALUE;
+    private ExecutionTracer tracer = ExecutionTracer.NONE;
+    private AreaDetection areaDetection = AreaDetection.ENDPOINTS;
+
+    /**
+     * Crea il programma da eseguire, senza limiti di tempo e di istruzioni.
+     *
+     * @param name   il nome del programma, usato per identificarne il risultato.
+     * @param source il sorgente del programma.
+     * @param length la base del piano in cui eseguire il programma.
+     * @param height l' altezza del piano in cui eseguire il programma.
+     * @throws NullPointerException     se il nome o il sorgente sono null.
+     * @throws IllegalArgumentException se le dimensioni del piano non sono positive.
+     */
+    public ExecutionTask(String name, String source, double length, double height) {
+        if (length <= 0 || height <= 0)
+            throw new IllegalArgumentException("Invalid plane size: " + length + "x" + height);
+        this.name = Objects.requireNonNull(name, "Null program name!");
+        this.source = Objects.requireNonNull(source, "Null program source!");
+        this.length = length;
+        this.height = height;
+        this.listeners = new ArrayList<>();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    public double getLength() {
+        return this.length;
+    }
+
+    public double getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Restituisce il tempo massimo di esecuzione del programma.
+     *
+     * @return il tempo massimo di esecuzione, null se l' esecuzione non ha limiti di tempo.
+     */
+    public Duration getTimeout() {
+        return this.timeout;
+    }
+
+    /**
+     * Imposta il tempo massimo di esecuzione del programma.
+     *
+     * @param timeout il tempo massimo di esecuzione, null per non porre limiti di tempo.
+     * @throws IllegalArgumentException se il tempo specificato &egrave; negativo.
+     */
+    public void setTimeout(Duration timeout) {
+        if (timeout != null && timeout.isNegative())
+            throw new IllegalArgumentException("Invalid timeout: " + timeout);
+        this.timeout = timeout;
+    }
+
+    public long getInstructionBudget() {
+        return this.instructionBudget;
+    }
+
+    /**
+     * Imposta il numero massimo di istruzioni che il programma pu&ograve; eseguire, contando anche
+     * ogni ripetizione delle istruzioni di un REPEAT.
+     *
+     * @param instructionBudget il numero massimo di istruzioni.
+     * @throws IllegalArgumentException se il numero specificato &egrave; negativo.
+     */
+    public void setInstructionBudget(long instructionBudget) {
+        if (instructionBudget < 0)
+            throw new IllegalArgumentException("Invalid instruction budget: " + instructionBudget);
+        this.instructionBudget = instructionBudget;
+    }
+
+    public ExecutionTracer getTracer() {
+        return this.tracer;
+    }
+
+    /**
+     * Imposta il tracer che riceve gli eventi dell' esecuzione del programma.
+     * Per default gli eventi non vengono registrati.
+     *
+     * @param tracer il tracer da impostare.
+     * @throws NullPointerException se il tracer specificato &egrave; null.
+     */
+    public void setTracer(ExecutionTracer tracer) {
+        this.tracer = Objects.requireNonNull(tracer, "Null tracer!");
+    }
+
+    public AreaDetection getAreaDetection() {
+        return this.areaDetection;
+    }
+
+    /**
+     * Imposta il modo in cui il piano del programma individua le aree chiuse.
+     * Per default le aree chiuse vengono individuate con {@link AreaDetection#ENDPOINTS}.
+     *
+     * @param areaDetection il modo di individuazione delle aree chiuse.
+     * @throws NullPointerException se il modo specificato &egrave; null.
+     */
+    public void setAreaDetection(AreaDetection areaDetection) {
+        this.areaDetection = Objects.requireNonNull(areaDetection, "Null area detection mode!");
+    }
+
+    /**
+     * Aggiunge un ascoltatore al piano del programma. L' ascoltatore riceve solo gli eventi di questo
+     * programma, dal thread che lo esegue.
+     *
+     * @param listener l' ascoltatore da aggiungere.
+     * @throws NullPointerException se l' ascoltatore specificato &egrave; null.
+     */
+    public void addPlaneUpdateListener(PlaneUpdateListener<Point<Double>> listener) {
+        this.listeners.add(Objects.requireNonNull(listener, "Null listener!"));
+    }
+
+    public List<PlaneUpdateListener<Point<Double>>> getPlaneUpdateListeners() {
+        return Collections.unmodifiableList(this.listeners);
+    }
+}
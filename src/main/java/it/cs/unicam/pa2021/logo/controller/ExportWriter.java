@@ -0,0 +1,127 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.DefaultPlane;
+import it.cs.unicam.pa2021.logo.model.Line;
+import it.cs.unicam.pa2021.logo.model.Plane;
+import it.cs.unicam.pa2021.logo.model.Point;
+import it.cs.unicam.pa2021.logo.model.SegmentStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scrive i dati di un' esportazione in un canale attraverso un buffer di dimensione fissa, che viene
+ * svuotato nel canale ogni volta che si riempie. La memoria usata non dipende quindi dalla dimensione dei dati.
+ * I numeri vengono scritti in big-endian.
+ */
+final class ExportWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final StringBuilder number;
+
+    ExportWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.number = new StringBuilder();
+    }
+
+    /**
+     * Restituisce i segmenti del piano specificato in forma di colonne, senza copiarli se il piano li memorizza gi&agrave; cos&igrave;.
+     *
+     * @param plane il piano da esportare.
+     * @return i segmenti del piano.
+     */
+    static SegmentStore segments(Plane<Point<Double>> plane) {
+        if (plane instanceof DefaultPlane)
+            return ((DefaultPlane) plane).getSegments();
+        SegmentStore segments = SegmentStore.empty();
+        for (Line<Point<Double>> l : plane.getLines())
+            segments = segments.append(l);
+        return segments;
+    }
+
+    ExportWriter putByte(int b) throws IOException {
+        this.ensure(1);
+        this.buffer.put((byte) b);
+        return this;
+    }
+
+    ExportWriter putInt(int i) throws IOException {
+        this.ensure(4);
+        this.buffer.putInt(i);
+        return this;
+    }
+
+    ExportWriter putDouble(double d) throws IOException {
+        this.ensure(8);
+        this.buffer.putDouble(d);
+        return this;
+    }
+
+    ExportWriter put(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            this.ensure(1);
+            int n = Math.min(length, this.buffer.remaining());
+            this.buffer.put(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+        return this;
+    }
+
+    /**
+     * Scrive i caratteri specificati, che devono essere tutti ASCII.
+     */
+    ExportWriter putAscii(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            this.ensure(1);
+            this.buffer.put((byte) text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Scrive un numero in forma testuale, senza la parte decimale se il numero &egrave; intero.
+     */
+    ExportWriter putNumber(double d) throws IOException {
+        this.number.setLength(0);
+        if (d == Math.rint(d) && Math.abs(d) < 1e15)
+            this.number.append((long) d);
+        else
+            this.number.append(d);
+        return this.putAscii(this.number);
+    }
+
+    /**
+     * Scrive un colore RGB nella forma #rrggbb.
+     */
+    ExportWriter putHexColor(int rgb) throws IOException {
+        this.putByte('#');
+        for (int shift = 20; shift >= 0; shift -= 4)
+            this.putByte(HEX[rgb >> shift & 0xF]);
+        return this;
+    }
+
+    /**
+     * Scrive nel canale il contenuto del buffer.
+     *
+     * @throws IOException se c'&egrave; un errore di I/O nella scrittura.
+     */
+    void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining())
+            this.channel.write(this.buffer);
+        this.buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes)
+            this.flush();
+    }
+}
@@ -0,0 +1,106 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.Plane;
+import it.cs.unicam.pa2021.logo.model.Point;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Esporta le linee e le aree chiuse di un piano in un formato di file.
+ * Gli esportatori scrivono i dati man mano che leggono il piano, attraverso un buffer di dimensione fissa,
+ * per cui non costruiscono in memoria il contenuto del file e non richiedono un' interfaccia grafica.
+ * Le linee vengono scritte prima delle aree chiuse, come le disegna la vista.
+ */
+public interface PlaneExporter {
+
+    /**
+     * Restituisce l' estensione dei file creati da questo esportatore.
+     *
+     * @return l' estensione dei file, senza il punto.
+     */
+    String getExtension();
+
+    /**
+     * Scrive il piano specificato nel canale specificato, senza chiuderlo.
+     *
+     * @param plane   il piano da esportare.
+     * @param channel il canale in cui scrivere.
+     * @throws IOException se c'&egrave; un errore di I/O nella scrittura.
+     */
+    void export(Plane<Point<Double>> plane, WritableByteChannel channel) throws IOException;
+
+    /**
+     * Scrive il piano specificato nel file specificato, sostituendone il contenuto se il file esiste gi&agrave;.
+     *
+     * @param plane il piano da esportare.
+     * @param file  il file in cui scrivere.
+     * @throws IOException se c'&egrave; un errore di I/O nella scrittura.
+     */
+    default void export(Plane<Point<Double>> plane, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.export(plane, channel);
+        }
+    }
+
+    /**
+     * Restituisce l' esportatore in formato SVG, in cui le linee consecutive con lo stesso colore
+     * e lo stesso spessore formano un unico percorso.
+     *
+     * @return l' esportatore in formato SVG.
+     */
+    static PlaneExporter svg() {
+        return new SvgExporter();
+    }
+
+    /**
+     * Restituisce l' esportatore in formato PNG, che disegna il piano con un rasterizzatore software
+     * in un' immagine di un pixel per unit&agrave; del piano.
+     *
+     * @return l' esportatore in formato PNG.
+     */
+    static PlaneExporter png() {
+        return new PngExporter();
+    }
+
+    /**
+     * Restituisce l' esportatore in un formato binario compatto, con i numeri in big-endian:
+     * <ul>
+     * <li>i byte ASCII "LOGO" e un byte con la versione del formato, 1;</li>
+     * <li>la base e l' altezza del piano come double e il colore dello sfondo come int RGB;</li>
+     * <li>il numero di linee come int e, per ogni linea, le coordinate x e y dei suoi estremi come double,
+     * il colore come int RGB e lo spessore come int;</li>
+     * <li>il numero di aree chiuse come int e, per ogni area, il colore come int RGB, il numero delle sue
+     * linee come int e le coordinate degli estremi di ogni linea come double.</li>
+     * </ul>
+     *
+     * @return l' esportatore in formato binario.
+     */
+    static PlaneExporter binary() {
+        return new BinaryExporter();
+    }
+
+    /**
+     * Restituisce l' esportatore per l' estensione specificata.
+     *
+     * @param extension l' estensione dei file da creare: svg, png oppure logo.
+     * @return l' esportatore per l' estensione specificata.
+     * @throws IllegalArgumentException se l' estensione non &egrave; supportata.
+     */
+    static PlaneExporter forExtension(String extension) {
+        switch (extension.toLowerCase()) {
+            case "svg":
+                return svg();
+            case "png":
+                return png();
+            case BinaryExporter.EXTENSION:
+                return binary();
+            default:
+                throw new IllegalArgumentException("Unsupported export format: " + extension);
+        }
+    }
+}
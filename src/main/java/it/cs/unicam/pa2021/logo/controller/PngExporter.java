@@ -0,0 +1,147 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.*;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Esporta il piano in formato PNG, disegnandolo con un rasterizzatore software in un' immagine RGB
+ * di un pixel per unit&agrave; del piano. Le linee vengono disegnate come sequenze di quadrati
+ * del loro spessore e le aree chiuse vengono riempite con la regola pari-dispari.
+ * La memoria usata dipende solo dalle dimensioni dell' immagine, non dal numero di linee e di aree.
+ */
+final class PngExporter implements PlaneExporter {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int CHUNK_SIZE = 1 << 15;
+
+    @Override
+    public String getExtension() {
+        return "png";
+    }
+
+    @Override
+    public void export(Plane<Point<Double>> plane, WritableByteChannel channel) throws IOException {
+        int width = Math.max(1, (int) Math.ceil(plane.getLength()));
+        int height = Math.max(1, (int) Math.ceil(plane.getHeight()));
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, plane.getBackgroundColor().getARGB() & 0xFFFFFF);
+        SegmentStore segments = ExportWriter.segments(plane);
+        for (int i = 0; i < segments.size(); i++)
+            strokeLine(pixels, width, height, segments.getStartX(i), segments.getStartY(i),
+                    segments.getEndX(i), segments.getEndY(i), segments.getSize(i), segments.getRGB(i));
+        for (ClosedArea<Line<Point<Double>>> a : plane.getClosedAreas())
+            fillArea(pixels, width, height, a);
+        ExportWriter out = new ExportWriter(channel);
+        out.put(SIGNATURE, 0, SIGNATURE.length);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;
+        header[9] = 2;
+        writeChunk(out, "IHDR", header, header.length);
+        writeImage(out, pixels, width, height);
+        writeChunk(out, "IEND", header, 0);
+        out.flush();
+    }
+
+    private static void strokeLine(int[] pixels, int width, int height, double x1, double y1, double x2, double y2, int size, int rgb) {
+        int side = Math.max(1, size);
+        int steps = (int) Math.ceil(Math.max(Math.abs(x2 - x1), Math.abs(y2 - y1)));
+        for (int k = 0; k <= steps; k++) {
+            double t = steps == 0 ? 0 : (double) k / steps;
+            int left = (int) Math.floor(x1 + (x2 - x1) * t - side / 2.0 + 0.5);
+            int bottom = (int) Math.floor(y1 + (y2 - y1) * t - side / 2.0 + 0.5);
+            for (int y = Math.max(0, bottom); y < Math.min(height, bottom + side); y++)
+                for (int x = Math.max(0, left); x < Math.min(width, left + side); x++)
+                    pixels[(height - 1 - y) * width + x] = rgb;
+        }
+    }
+
+    private static void fillArea(int[] pixels, int width, int height, ClosedArea<Line<Point<Double>>> area) {
+        int n = area.getArea().size();
+        double[] edges = new double[4 * n];
+        double[] crossings = new double[n];
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        int e = 0;
+        for (Line<Point<Double>> l : area.getArea()) {
+            edges[e++] = l.getStartingPoint().getDoubleX();
+            edges[e++] = l.getStartingPoint().getDoubleY();
+            edges[e++] = l.getEndPoint().getDoubleX();
+            edges[e++] = l.getEndPoint().getDoubleY();
+            minY = Math.min(minY, Math.min(l.getStartingPoint().getDoubleY(), l.getEndPoint().getDoubleY()));
+            maxY = Math.max(maxY, Math.max(l.getStartingPoint().getDoubleY(), l.getEndPoint().getDoubleY()));
+        }
+        int rgb = area.getColor().getARGB() & 0xFFFFFF;
+        for (int y = Math.max(0, (int) Math.floor(minY)); y < Math.min(height, (int) Math.ceil(maxY)); y++) {
+            double center = y + 0.5;
+            int count = 0;
+            for (int i = 0; i < edges.length; i += 4) {
+                double ya = edges[i + 1], yb = edges[i + 3];
+                if ((ya <= center && center < yb) || (yb <= center && center < ya))
+                    crossings[count++] = edges[i] + (center - ya) * (edges[i + 2] - edges[i]) / (yb - ya);
+            }
+            Arrays.sort(crossings, 0, count);
+            for (int c = 0; c + 1 < count; c += 2) {
+                int from = Math.max(0, (int) Math.ceil(crossings[c] - 0.5));
+                int to = Math.min(width - 1, (int) Math.ceil(crossings[c + 1] - 0.5) - 1);
+                for (int x = from; x <= to; x++)
+                    pixels[(height - 1 - y) * width + x] = rgb;
+            }
+        }
+    }
+
+    /**
+     * Comprime le righe dell' immagine una alla volta, senza filtro, scrivendo un blocco IDAT
+     * ogni volta che il compressore produce un blocco di dati.
+     */
+    private static void writeImage(ExportWriter out, int[] pixels, int width, int height) throws IOException {
+        Deflater deflater = new Deflater();
+        byte[] row = new byte[1 + 3 * width];
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0, p = 1; x < width; x++) {
+                    int rgb = pixels[y * width + x];
+                    row[p++] = (byte) (rgb >> 16);
+                    row[p++] = (byte) (rgb >> 8);
+                    row[p++] = (byte) rgb;
+                }
+                deflater.setInput(row);
+                while (!deflater.needsInput())
+                    writeCompressed(out, deflater, chunk);
+            }
+            deflater.finish();
+            while (!deflater.finished())
+                writeCompressed(out, deflater, chunk);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeCompressed(ExportWriter out, Deflater deflater, byte[] chunk) throws IOException {
+        int length = deflater.deflate(chunk);
+        if (length > 0)
+            writeChunk(out, "IDAT", chunk, length);
+    }
+
+    private static void writeChunk(ExportWriter out, String type, byte[] data, int length) throws IOException {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data, 0, length);
+        out.putInt(length).put(name, 0, name.length).put(data, 0, length).putInt((int) crc.getValue());
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
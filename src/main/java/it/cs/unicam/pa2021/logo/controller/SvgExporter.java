@@ -0,0 +1,80 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.*;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Esporta il piano in formato SVG. Le coordinate restano quelle del piano, con l' origine in basso a sinistra,
+ * e vengono capovolte da una trasformazione del gruppo che contiene le linee e le aree.
+ */
+final class SvgExporter implements PlaneExporter {
+
+    @Override
+    public String getExtension() {
+        return "svg";
+    }
+
+    @Override
+    public void export(Plane<Point<Double>> plane, WritableByteChannel channel) throws IOException {
+        ExportWriter out = new ExportWriter(channel);
+        out.putAscii("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"")
+                .putNumber(plane.getLength()).putAscii("\" height=\"").putNumber(plane.getHeight())
+                .putAscii("\" viewBox=\"0 0 ").putNumber(plane.getLength()).putAscii(" ").putNumber(plane.getHeight())
+                .putAscii("\">\n<rect width=\"100%\" height=\"100%\" fill=\"")
+                .putHexColor(plane.getBackgroundColor().getARGB()).putAscii("\"/>\n<g transform=\"matrix(1 0 0 -1 0 ")
+                .putNumber(plane.getHeight()).putAscii(")\" fill=\"none\" stroke-linecap=\"square\">\n");
+        writeSegments(out, ExportWriter.segments(plane));
+        for (ClosedArea<Line<Point<Double>>> a : plane.getClosedAreas())
+            writeArea(out, a);
+        out.putAscii("</g>\n</svg>\n");
+        out.flush();
+    }
+
+    private static void writeSegments(ExportWriter out, SegmentStore segments) throws IOException {
+        int i = 0;
+        while (i < segments.size()) {
+            int rgb = segments.getRGB(i);
+            int size = segments.getSize(i);
+            out.putAscii("<path stroke=\"").putHexColor(rgb).putAscii("\" stroke-width=\"").putNumber(size).putAscii("\" d=\"");
+            double x = Double.NaN, y = Double.NaN;
+            for (; i < segments.size() && segments.getRGB(i) == rgb && segments.getSize(i) == size; i++) {
+                if (segments.getStartX(i) != x || segments.getStartY(i) != y)
+                    out.putAscii("M").putNumber(segments.getStartX(i)).putAscii(" ").putNumber(segments.getStartY(i));
+                x = segments.getEndX(i);
+                y = segments.getEndY(i);
+                out.putAscii("L").putNumber(x).putAscii(" ").putNumber(y);
+            }
+            out.putAscii("\"/>\n");
+        }
+    }
+
+    /**
+     * Scrive l' area specificata come poligono, con un vertice per ogni linea: le linee dell' area possono essere
+     * state disegnate in versi diversi, per cui ogni vertice &egrave; l' estremo che la linea condivide con la precedente.
+     */
+    private static void writeArea(ExportWriter out, ClosedArea<Line<Point<Double>>> area) throws IOException {
+        out.putAscii("<polygon stroke=\"none\" fill=\"").putHexColor(area.getColor().getARGB()).putAscii("\" points=\"");
+        List<Line<Point<Double>>> lines = area.getArea();
+        if (!lines.isEmpty()) {
+            Line<Point<Double>> first = lines.get(0);
+            Point<Double> vertex = first.getStartingPoint();
+            if (lines.size() > 1 && !isEndpoint(lines.get(1), first.getEndPoint()))
+                vertex = first.getEndPoint();
+            for (int i = 0; i < lines.size(); i++) {
+                if (i > 0)
+                    out.putAscii(" ");
+                out.putNumber(vertex.getDoubleX()).putAscii(",").putNumber(vertex.getDoubleY());
+                Line<Point<Double>> l = lines.get(i);
+                vertex = vertex.equals(l.getStartingPoint()) ? l.getEndPoint() : l.getStartingPoint();
+            }
+        }
+        out.putAscii("\"/>\n");
+    }
+
+    private static boolean isEndpoint(Line<Point<Double>> line, Point<Double> point) {
+        return line.getStartingPoint().equals(point) || line.getEndPoint().equals(point);
+    }
+}
@@ -0,0 +1,21 @@
+package it.cs.unicam.pa2021.logo.model;
+
+/**
+ * Rappresenta il modo in cui un piano individua le aree chiuse formate dalle linee tracciate.
+ */
+public enum AreaDetection {
+
+    /**
+     * Le linee si collegano solo nei propri estremi: un' area chiusa viene individuata quando
+     * una linea chiude un ciclo di linee consecutive.
+     */
+    ENDPOINTS,
+
+    /**
+     * Le linee vengono divise nei punti in cui si incrociano, per cui un' area chiusa viene
+     * individuata anche quando il ciclo passa per gli incroci tra le linee.
+     * Le aree chiuse sono le facce delimitate dalle linee divise e non si sovrappongono tra loro.
+     */
+    INTERSECTIONS
+
+}
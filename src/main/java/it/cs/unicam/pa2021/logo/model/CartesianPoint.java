@@ -1,14 +1,15 @@
 package it.cs.unicam.pa2021.logo.model;
 
-import java.util.Objects;
-
 /**
  * Implementazione del punto cartesiano avente una coppia di coordinate in virgola mobile.
+ * Le coordinate sono conservate come double e l' hashcode viene calcolato una sola volta alla creazione,
+ * poich&eacute; i punti sono le chiavi degli indici del piano e i dati dei nodi del grafo delle linee.
  */
 public class CartesianPoint implements Point<Double> {
 
-    private final Double x;
-    private final Double y;
+    private final double x;
+    private final double y;
+    private final int hash;
 
     /**
      * Crea un punto cartesiano nel piano.
@@ -16,9 +17,10 @@ public class CartesianPoint implements Point<Double> {
      * @param x l' ascissa da impostare al punto.
      * @param y l' ordinata da impostare al punto.
      */
-    CartesianPoint(Double x, Double y) {
+    CartesianPoint(double x, double y) {
         this.x = x;
         this.y = y;
+        this.hash = 31 * (31 + Double.hashCode(x)) + Double.hashCode(y);
     }
 
     @Override
@@ -31,9 +33,19 @@ public class CartesianPoint implements Point<Double> {
         return this.y;
     }
 
+    @Override
+    public double getDoubleX() {
+        return this.x;
+    }
+
+    @Override
+    public double getDoubleY() {
+        return this.y;
+    }
+
     @Override
     public String toString() {
-        return "P(" + getX() + "," + getY() + ")";
+        return "P(" + this.x + "," + this.y + ")";
     }
 
     @Override
@@ -41,12 +53,14 @@ public class CartesianPoint implements Point<Double> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         CartesianPoint that = (CartesianPoint) o;
-        return Objects.equals(x, that.x) && Objects.equals(y, that.y);
+        return this.hash == that.hash
+                && Double.doubleToLongBits(this.x) == Double.doubleToLongBits(that.x)
+                && Double.doubleToLongBits(this.y) == Double.doubleToLongBits(that.y);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return this.hash;
     }
 
 
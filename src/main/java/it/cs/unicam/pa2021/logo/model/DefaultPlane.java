@@ -1,28 +1,78 @@
 package it.cs.unicam.pa2021.logo.model;
 
 
-import java.util.ArrayDeque;
+import java.util.AbstractMap;
+import java.util.AbstractQueue;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Queue;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.logging.Logger;
+import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
+/**
+ * Implementazione di default di un piano LOGO.
+ * Le linee, le aree chiuse e l' indice dei punti sono memorizzati in strutture dati persistenti,
+ * per cui la copia di un piano condivide con l' originale tutta la struttura gi&agrave; esistente
+ * e ogni istruzione produce una nuova versione del piano senza copiarne l' intero contenuto.
+ * Anche il grafo dei punti &egrave; un {@link PersistentGraph}, per cui la sua copia richiede tempo costante
+ * e la prima modifica di una nuova versione non deve copiare i collegamenti gi&agrave; presenti.
+ * Le linee sono indicizzate per estremo e per celle di una griglia uniforme, cos&igrave; che le ricerche
+ * delle linee in un punto, tra due punti o in un rettangolo non debbano scorrere tutte le linee del piano;
+ * allo stesso modo le linee delle aree chiuse sono indicizzate per estremi, per sapere in tempo costante
+ * a quale area chiusa appartiene una linea.
+ * Le aree chiuse sono individuate secondo l' {@link AreaDetection} impostata, di default {@link AreaDetection#ENDPOINTS}.
+ */
 public class DefaultPlane implements Plane<Point<Double>> {
 
+    private static final double CELL_SIZE = 32;
+    private static final double AREA_OFFSET = 0.05;
+
     private final double length;
     private final double height;
     private final Point<Double> home;
     private final Point<Double> origin;
+    private final Point<Double> downRight;
+    private final Point<Double> upLeft;
+    private final Point<Double> upRight;
     private final Cursor<Point<Double>, SimpleDirection> cursor;
-    private final Queue<Line<Point<Double>>> lines;
-    private final Queue<ClosedArea<Line<Point<Double>>>> closedAreas;
+    private SegmentStore lines;
+    private PersistentVector<ClosedArea<Line<Point<Double>>>> closedAreas;
+    private PersistentVector<double[]> areaShapes;
     private RGBColor backgroundColor;
-    private final Graph<Point<Double>> graph;
-    private final Map<Point<Double>, Integer> points;
+    private PersistentGraph<Point<Double>> graph;
+    private PersistentHashMap<Point<Double>, Integer> points;
+    private PersistentHashMap<Point<Double>, PersistentVector<Integer>> endpoints;
+    private PersistentHashMap<Long, PersistentVector<Integer>> cells;
+    private PersistentHashMap<Long, PersistentVector<Map.Entry<Line<Point<Double>>, ClosedArea<Line<Point<Double>>>>>> areaLines;
+    private int minCellX;
+    private int minCellY;
+    private int maxCellX;
+    private int maxCellY;
+    private AreaDetection areaDetection;
+    private PersistentHashMap<Long, Line<Point<Double>>> pieces;
+    private PersistentHashMap<Long, Line<Point<Double>>> openPieces;
+    private PersistentHashMap<Long, PersistentVector<Long>> pieceCells;
+    private final Queue<Line<Point<Double>>> linesView = new VersionQueue<>(() -> this.lines, () -> this.lines.size());
+    private final Queue<ClosedArea<Line<Point<Double>>>> closedAreasView = new VersionQueue<>(() -> this.closedAreas, () -> this.closedAreas.size());
+    private final Map<Point<Double>, Integer> pointsView = new PointsView();
     private PlaneUpdateSupport<Point<Double>> planeUpdateSupport;
+    private ExecutionTracer tracer = ExecutionTracer.NONE;
+    private List<ClosedArea<Line<Point<Double>>>> generatedAreas;
 
     /**
      * Crea un piano geometrico con le caratteristiche di default dell' ambiente LOGO.
@@ -56,41 +106,92 @@ public class DefaultPlane implements Plane<Point<Double>> {
             throw new NullPointerException("Null Origin position!");
         this.length = length;
         this.height = height;
-        this.lines = new ArrayDeque<>();
-        this.closedAreas = new ArrayDeque<>();
+        this.lines = SegmentStore.empty();
+        this.closedAreas = PersistentVector.empty();
+        this.areaShapes = PersistentVector.empty();
         if (!bePartOfPlane(home))
             throw new IllegalArgumentException("Nonexistent Home position in this plane!");
         if (!bePartOfPlane(origin))
             throw new IllegalArgumentException("Nonexistent Origin position in this plane!");
         this.home = home;
         this.origin = origin;
+        this.downRight = Point.cartesianPoint(length - 1, 0);
+        this.upLeft = Point.cartesianPoint(0, height - 1);
+        this.upRight = Point.cartesianPoint(length - 1, height - 1);
         this.cursor = new SimpleCursor(this);
-        this.backgroundColor = new RGBColor(255, 255, 255);
-        this.graph = new UndirectedGraph<>();
-        this.points = new HashMap<>();
+        this.backgroundColor = RGBColor.of(255, 255, 255);
+        this.graph = new PersistentGraph<>();
+        this.points = PersistentHashMap.empty();
+        this.clearLineIndex();
+        this.areaLines = PersistentHashMap.empty();
+        this.areaDetection = AreaDetection.ENDPOINTS;
+        this.pieces = PersistentHashMap.empty();
+        this.openPieces = PersistentHashMap.empty();
+        this.pieceCells = PersistentHashMap.empty();
         this.planeUpdateSupport = new PlaneUpdateSupport<>();
     }
 
     /**
      * Crea un piano identico a quello specificato.
+     * Se il piano specificato &egrave; un DefaultPlane, le linee, le aree chiuse, i punti e il grafo
+     * vengono condivisi con esso anzich&eacute; copiati.
      *
      * @param plane il piano con le caratteristiche da creare.
      */
     public DefaultPlane(Plane<Point<Double>> plane) {
         this.length = plane.getLength();
         this.height = plane.getHeight();
-        this.lines = new ArrayDeque<>();
-        this.lines.addAll(plane.getLines());
-        this.closedAreas = new ArrayDeque<>();
-        this.closedAreas.addAll(plane.getClosedAreas());
         this.home = plane.getHome();
         this.origin = plane.getOrigin();
+        this.downRight = plane.getDownRightPoint();
+        this.upLeft = plane.getUpLeftPoint();
+        this.upRight = plane.getUpRightPoint();
         this.cursor = new SimpleCursor(this, plane.getCursor());
-        this.backgroundColor = new RGBColor(plane.getBackgroundColor().getRed(), plane.getBackgroundColor().getGreen(), plane.getBackgroundColor().getBlue());
-        this.graph = new UndirectedGraph<>(plane.getGraph());
-        this.points = new HashMap<>();
-        this.points.putAll(plane.getPoints());
+        this.backgroundColor = plane.getBackgroundColor();
         this.planeUpdateSupport = plane.getPlaneUpdateSupport();
+        this.tracer = plane.getTracer();
+        if (plane instanceof DefaultPlane) {
+            DefaultPlane source = (DefaultPlane) plane;
+            this.lines = source.lines;
+            this.closedAreas = source.closedAreas;
+            this.areaShapes = source.areaShapes;
+            this.points = source.points;
+            this.endpoints = source.endpoints;
+            this.cells = source.cells;
+            this.areaLines = source.areaLines;
+            this.minCellX = source.minCellX;
+            this.minCellY = source.minCellY;
+            this.maxCellX = source.maxCellX;
+            this.maxCellY = source.maxCellY;
+            this.graph = source.graph.copy();
+            this.areaDetection = source.areaDetection;
+            this.pieces = source.pieces;
+            this.openPieces = source.openPieces;
+            this.pieceCells = source.pieceCells;
+        } else {
+            this.lines = SegmentStore.empty();
+            this.clearLineIndex();
+            for (Line<Point<Double>> l : plane.getLines()) {
+                this.lines = this.lines.append(l);
+                this.indexLine(this.lines.size() - 1, l);
+            }
+            this.points = PersistentHashMap.empty();
+            for (Map.Entry<Point<Double>, Integer> e : plane.<Integer>getPoints().entrySet())
+                this.points = this.points.put(e.getKey(), e.getValue());
+            this.closedAreas = PersistentVector.empty();
+            this.areaShapes = PersistentVector.empty();
+            this.areaLines = PersistentHashMap.empty();
+            for (ClosedArea<Line<Point<Double>>> a : plane.getClosedAreas())
+                this.addClosedArea(a);
+            this.graph = new PersistentGraph<>();
+            for (Line<Point<Double>> l : this.lines)
+                if (!this.lineInClosedAreasisPresent(l))
+                    this.graph.addEdge(this.node(l.getStartingPoint()), this.node(l.getEndPoint()));
+            this.areaDetection = AreaDetection.ENDPOINTS;
+            this.pieces = PersistentHashMap.empty();
+            this.openPieces = PersistentHashMap.empty();
+            this.pieceCells = PersistentHashMap.empty();
+        }
     }
 
     @Override
@@ -115,7 +216,7 @@ public class DefaultPlane implements Plane<Point<Double>> {
 
     @Override
     public Queue<Line<Point<Double>>> getLines() {
-        return this.lines;
+        return this.linesView;
     }
 
     @Override
@@ -123,6 +224,16 @@ public class DefaultPlane implements Plane<Point<Double>> {
         return this.lines.size();
     }
 
+    /**
+     * Restituisce le linee del piano come sequenza di segmenti memorizzati per colonne, per scorrerne
+     * le coordinate senza creare gli oggetti delle linee.
+     *
+     * @return i segmenti del piano in ordine cronologico.
+     */
+    public SegmentStore getSegments() {
+        return this.lines;
+    }
+
     @Override
     public RGBColor getBackgroundColor() {
         return this.backgroundColor;
@@ -137,49 +248,474 @@ public class DefaultPlane implements Plane<Point<Double>> {
     public void addLine(Line<Point<Double>> line) {
         if (line.getStartingPoint().equals(line.getEndPoint()))
             return;
-        this.lines.offer(line);
+        this.lines = this.lines.append(line);
+        this.indexLine(this.lines.size() - 1, line);
+        this.detectAreas(line);
+    }
+
+    /**
+     * Aggiunge al piano le linee specificate, con lo stesso risultato di {@link #addLine(Line)} chiamato per ognuna.
+     * Tutte le linee vengono prima aggiunte e indicizzate, aggiornando una sola volta ogni estremo e ogni cella
+     * della griglia, poi vengono esaminate in un' unica passata per individuare le aree chiuse, nell' ordine
+     * in cui sono specificate. Durante la passata le modifiche del grafo dei punti vengono raccolte e scritte
+     * nella sua mappa persistente alla fine, una sola volta per ogni punto toccato dalle linee;
+     * le aree chiuse generate vengono notificate ai listener tutte insieme alla fine.
+     *
+     * @param lines le linee da aggiungere al piano.
+     */
+    @Override
+    public void addLines(Collection<Line<Point<Double>>> lines) {
+        List<Line<Point<Double>>> added = new ArrayList<>(lines.size());
+        Map<Point<Double>, List<Integer>> endpoints = new HashMap<>();
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (Line<Point<Double>> line : lines)
+            if (!line.getStartingPoint().equals(line.getEndPoint())) {
+                this.lines = this.lines.append(line);
+                this.indexLine(this.lines.size() - 1, line,
+                        (p, i) -> endpoints.computeIfAbsent(p, k -> new ArrayList<>()).add(i),
+                        (key, i) -> cells.computeIfAbsent(key, k -> new ArrayList<>()).add(i));
+                added.add(line);
+            }
+        this.endpoints = appendAll(this.endpoints, endpoints);
+        this.cells = appendAll(this.cells, cells);
+        List<ClosedArea<Line<Point<Double>>>> generated = new ArrayList<>();
+        this.generatedAreas = generated;
+        this.graph.startBatch();
+        try {
+            for (Line<Point<Double>> line : added)
+                this.detectAreas(line);
+        } finally {
+            this.graph.commitBatch();
+            this.generatedAreas = null;
+        }
+        if (!generated.isEmpty())
+            this.planeUpdateSupport.fireGeneratedAreas(generated);
+    }
+
+    /**
+     * Indicizza gli estremi della linea specificata, gi&agrave; aggiunta al piano, e individua
+     * le aree chiuse che la linea genera.
+     *
+     * @param line la linea appena aggiunta.
+     */
+    private void detectAreas(Line<Point<Double>> line) {
         this.setIndexPoints(line);
-        for (Line<Point<Double>> l : this.lines)
-            if (!this.lineInClosedAreasisPresent(l))
-                graph.addEdge(new GraphNode<>(this.points.get(l.getStartingPoint()), l.getStartingPoint()), new GraphNode<>(this.points.get(l.getEndPoint()), l.getEndPoint()));
-        Optional<List<Point<Double>>> area = checkClosedArea(this.graph);
-        List<Line<Point<Double>>> l;
-        if (area.isPresent()) {
-            l = new ArrayList<>();
-            for (int i = 0; i < area.get().size(); i++) {
-                if (i == area.get().size() - 1)
-                    l.add(this.lineExistsBetween(area.get().get(0), area.get().get(i)).get());
-                else
-                    l.add(this.lineExistsBetween(area.get().get(i), area.get().get(i + 1)).get());
+        if (this.areaDetection == AreaDetection.INTERSECTIONS) {
+            this.addPieces(line);
+            return;
+        }
+        if (this.lineInClosedAreasisPresent(line))
+            return;
+        this.connect(line.getStartingPoint(), line.getEndPoint(), this::lineBetween);
+    }
+
+    /**
+     * Restituisce il modo in cui questo piano individua le aree chiuse.
+     *
+     * @return il modo di individuazione delle aree chiuse.
+     */
+    public AreaDetection getAreaDetection() {
+        return this.areaDetection;
+    }
+
+    /**
+     * Imposta il modo in cui questo piano individua le aree chiuse.
+     * Le aree chiuse gi&agrave; individuate restano invariate, mentre le linee che non fanno ancora parte
+     * di un' area chiusa vengono ricollegate secondo il nuovo modo, per cui possono generare nuove aree chiuse.
+     * Passando a {@link AreaDetection#INTERSECTIONS} tutti gli incroci tra queste linee vengono calcolati
+     * con un' unica scansione del piano tramite {@link SweepLineIntersector}.
+     *
+     * @param areaDetection il modo di individuazione delle aree chiuse.
+     * @throws NullPointerException se il modo specificato &egrave; null.
+     */
+    public void setAreaDetection(AreaDetection areaDetection) {
+        if (areaDetection == null)
+            throw new NullPointerException("Null area detection mode!");
+        if (areaDetection == this.areaDetection)
+            return;
+        List<Line<Point<Double>>> open = new ArrayList<>();
+        if (this.areaDetection == AreaDetection.INTERSECTIONS)
+            for (Map.Entry<Long, Line<Point<Double>>> e : this.openPieces)
+                open.add(e.getValue());
+        else
+            for (Line<Point<Double>> l : this.lines)
+                if (!this.lineInClosedAreasisPresent(l))
+                    open.add(l);
+        this.areaDetection = areaDetection;
+        this.graph = new PersistentGraph<>();
+        this.openPieces = PersistentHashMap.empty();
+        this.pieceCells = PersistentHashMap.empty();
+        if (areaDetection == AreaDetection.ENDPOINTS) {
+            for (Line<Point<Double>> l : open)
+                this.connect(l.getStartingPoint(), l.getEndPoint(), this::lineBetween);
+            return;
+        }
+        this.pieces = PersistentHashMap.empty();
+        for (List<Line<Point<Double>>> split : SweepLineIntersector.split(open))
+            for (Line<Point<Double>> piece : split) {
+                this.setIndexPoints(piece);
+                this.addPieceAndCloseFaces(piece);
             }
-            ClosedArea<Line<Point<Double>>> closedArea = new SimpleArea(l, this.cursor.getAreaColor());
-            this.closedAreas.offer(closedArea);
-            Logger.getGlobal().info("Generated closed area: " + closedArea);
+    }
+
+    /**
+     * Collega nel grafo i punti specificati; se i due punti sono gi&agrave; collegati da un cammino,
+     * il ciclo cos&igrave; chiuso viene rimosso dal grafo e diventa una nuova area chiusa.
+     *
+     * @param from        il primo estremo del collegamento.
+     * @param to          il secondo estremo del collegamento.
+     * @param lineBetween la funzione che restituisce la linea tra due punti consecutivi del ciclo.
+     */
+    private void connect(Point<Double> from, Point<Double> to,
+                         BiFunction<Point<Double>, Point<Double>, Line<Point<Double>>> lineBetween) {
+        GraphNode<Integer, Point<Double>> u = this.node(from);
+        GraphNode<Integer, Point<Double>> v = this.node(to);
+        List<GraphNode<Integer, Point<Double>>> path = this.graph.getPath(u, v);
+        if (path.isEmpty()) {
+            this.graph.addEdge(u, v);
+            return;
+        }
+        for (int i = 0; i < path.size() - 1; i++)
+            this.graph.removeEdge(path.get(i), path.get(i + 1));
+        this.generateArea(new SimpleArea(this.areaLines(path, lineBetween), this.cursor.getAreaColor()));
+    }
+
+    private void generateArea(ClosedArea<Line<Point<Double>>> closedArea) {
+        this.addClosedArea(closedArea);
+        this.tracer.generatedArea(closedArea);
+        if (this.generatedAreas != null)
+            this.generatedAreas.add(closedArea);
+        else
             this.planeUpdateSupport.fireGeneratedArea(closedArea);
+    }
+
+    /**
+     * Aggiunge al grafo la linea specificata dividendola, insieme ai tratti gi&agrave; presenti, nei punti in cui
+     * si incrociano. Vengono confrontati con la linea solo i tratti registrati nelle celle della griglia che la
+     * linea attraversa, compresi quelli che fanno gi&agrave; parte di un' area chiusa, per cui i bordi delle aree
+     * non vengono mai attraversati senza essere divisi.
+     * Le parti della linea che cadono all' interno di un' area chiusa non vengono aggiunte al grafo.
+     *
+     * @param line la linea da aggiungere.
+     */
+    private void addPieces(Line<Point<Double>> line) {
+        List<Point<Double>> cuts = new ArrayList<>();
+        Map<Long, List<Point<Double>>> crossed = new LinkedHashMap<>();
+        for (long key : this.piecesAround(line)) {
+            Line<Point<Double>> piece = this.pieces.get(key);
+            for (Point<Double> p : SweepLineIntersector.commonPoints(line, piece)) {
+                if (!isEndPoint(piece, p))
+                    crossed.computeIfAbsent(key, k -> new ArrayList<>()).add(p);
+                if (!isEndPoint(line, p))
+                    cuts.add(p);
+            }
+        }
+        for (Map.Entry<Long, List<Point<Double>>> e : crossed.entrySet()) {
+            Line<Point<Double>> piece = this.pieces.get(e.getKey());
+            boolean open = this.openPieces.containsKey(e.getKey());
+            this.pieces = this.pieces.remove(e.getKey());
+            this.openPieces = this.openPieces.remove(e.getKey());
+            this.graph.removeEdge(this.node(piece.getStartingPoint()), this.node(piece.getEndPoint()));
+            for (Line<Point<Double>> l : SweepLineIntersector.split(piece, e.getValue())) {
+                this.setIndexPoints(l);
+                this.addPiece(l, open);
+            }
+        }
+        for (Line<Point<Double>> l : SweepLineIntersector.split(line, cuts)) {
+            if (this.isInsideClosedArea(l))
+                continue;
+            this.setIndexPoints(l);
+            this.addPieceAndCloseFaces(l);
         }
     }
 
     /**
-     * Metodo di comodo che si occupa di restituire un' area chiusa, ovvero un ciclo
-     * nel grafo specificato.
+     * Restituisce le chiavi dei tratti registrati nelle celle della griglia attraversate dalla linea specificata,
+     * senza ripetizioni.
+     * Le celle conservano anche le chiavi dei tratti che nel frattempo sono stati divisi:
+     * queste vengono scartate e, quando sono pi&ugrave; della met&agrave;, rimosse dalla cella.
      *
-     * @param graph il grafo in cui trovare il ciclo.
-     * @return un Optional descrivente un' area chiusa.
-     */
-    private Optional<List<Point<Double>>> checkClosedArea(Graph<Point<Double>> graph) {
-        if (this.getNumLines() != 0) {
-            Line<Point<Double>> line = null;
-            for (Line<Point<Double>> l : this.lines) {
-                if (!lineInClosedAreasisPresent(l))
-                    line = l;
+     * @param line la linea di cui cercare i tratti vicini.
+     * @return le chiavi dei tratti vicini alla linea.
+     */
+    private Set<Long> piecesAround(Line<Point<Double>> line) {
+        Set<Long> keys = new LinkedHashSet<>();
+        forEachCell(line, cell -> {
+            PersistentVector<Long> inCell = this.pieceCells.get(cell);
+            if (inCell == null)
+                return;
+            int current = 0;
+            for (long key : inCell)
+                if (this.pieces.containsKey(key)) {
+                    current++;
+                    keys.add(key);
+                }
+            if (2 * current < inCell.size())
+                this.pieceCells = this.pieceCells.put(cell, this.piecesIn(inCell));
+        });
+        return keys;
+    }
+
+    private PersistentVector<Long> piecesIn(PersistentVector<Long> inCell) {
+        PersistentVector<Long> current = PersistentVector.empty();
+        for (long key : inCell)
+            if (this.pieces.containsKey(key))
+                current = current.append(key);
+        return current;
+    }
+
+    /**
+     * Aggiunge al grafo un tratto che non incrocia altri tratti, a meno che un tratto con gli stessi estremi
+     * non sia gi&agrave; stato aggiunto. Il tratto viene registrato nelle celle della griglia che attraversa.
+     * I tratti restano nel grafo anche quando fanno parte di un' area, perch&eacute; possono essere il lato di un' altra faccia.
+     *
+     * @param piece il tratto da aggiungere.
+     * @param open  true se il tratto non fa parte di un' area chiusa.
+     * @return true se il tratto &egrave; stato aggiunto e i suoi estremi erano gi&agrave; collegati, false altrimenti.
+     */
+    private boolean addPiece(Line<Point<Double>> piece, boolean open) {
+        long key = this.pieceKey(piece.getStartingPoint(), piece.getEndPoint());
+        if (this.pieces.containsKey(key))
+            return false;
+        this.pieces = this.pieces.put(key, piece);
+        if (open)
+            this.openPieces = this.openPieces.put(key, piece);
+        forEachCell(piece, cell -> {
+            PersistentVector<Long> inCell = this.pieceCells.get(cell);
+            this.pieceCells = this.pieceCells.put(cell, (inCell == null ? PersistentVector.<Long>empty() : inCell).append(key));
+        });
+        GraphNode<Integer, Point<Double>> u = this.node(piece.getStartingPoint()), v = this.node(piece.getEndPoint());
+        boolean connected = this.graph.isConnected(u.getLabel(), v.getLabel());
+        this.graph.addEdge(u, v);
+        return connected;
+    }
+
+    /**
+     * Aggiunge al grafo un tratto che non incrocia altri tratti; se i suoi estremi erano gi&agrave; collegati,
+     * il tratto divide in due una faccia del grafo e ciascuna delle due facce che lo hanno come lato
+     * pu&ograve; diventare una nuova area chiusa.
+     *
+     * @param piece il tratto da aggiungere.
+     */
+    private void addPieceAndCloseFaces(Line<Point<Double>> piece) {
+        if (!this.addPiece(piece, true))
+            return;
+        int u = this.points.get(piece.getStartingPoint()), v = this.points.get(piece.getEndPoint());
+        this.closeFace(u, v);
+        this.closeFace(v, u);
+    }
+
+    /**
+     * Percorre la faccia del grafo che si trova a sinistra dell' arco da a verso b, girando a ogni nodo
+     * verso l' arco pi&ugrave; a sinistra, e la trasforma in un' area chiusa. I tratti che la faccia percorre
+     * avanti e indietro, che non ne fanno parte, vengono scartati; la faccia esterna, che viene percorsa
+     * in senso orario, e le facce che si sovrappongono a un' area chiusa vengono ignorate.
+     *
+     * @param a l' etichetta del primo estremo dell' arco.
+     * @param b l' etichetta del secondo estremo dell' arco.
+     */
+    private void closeFace(int a, int b) {
+        List<Integer> face = new ArrayList<>();
+        int from = a, to = b, steps = 0;
+        do {
+            if (++steps > 2 * this.graph.getEdges())
+                return;
+            int last = face.size() - 1;
+            if (last > 0 && face.get(last - 1) == to)
+                face.remove(last);
+            else
+                face.add(to);
+            int next = this.leftmostTurn(from, to);
+            from = to;
+            to = next;
+            if (from == b && to == a)
+                return;
+        } while (from != a || to != b);
+        if (face.size() < 3 || new HashSet<>(face).size() < face.size() || this.signedArea(face) <= 0)
+            return;
+        List<GraphNode<Integer, Point<Double>>> cycle = new ArrayList<>();
+        for (int label : face)
+            cycle.add(new GraphNode<>(label, this.graph.getData(label)));
+        List<Line<Point<Double>>> lines = this.areaLines(cycle, this::pieceBetween);
+        if (this.overlapsClosedArea(lines))
+            return;
+        for (int i = 0; i < cycle.size(); i++)
+            this.openPieces = this.openPieces.remove(this.pieceKey(cycle.get(i).getData(), cycle.get((i + 1) % cycle.size()).getData()));
+        this.generateArea(new SimpleArea(lines, this.cursor.getAreaColor()));
+    }
+
+    /**
+     * Restituisce il nodo adiacente a to in cui prosegue la faccia a sinistra dell' arco da from verso to,
+     * cio&egrave; il primo che si incontra ruotando in senso orario a partire dalla direzione di from.
+     */
+    private int leftmostTurn(int from, int to) {
+        Point<Double> center = this.graph.getData(to), back = this.graph.getData(from);
+        double reference = Math.atan2(back.getDoubleY() - center.getDoubleY(), back.getDoubleX() - center.getDoubleX());
+        int next = from;
+        double best = 2 * Math.PI;
+        for (int label : this.graph.getAdjacent(to)) {
+            if (label == from)
+                continue;
+            Point<Double> p = this.graph.getData(label);
+            double turn = reference - Math.atan2(p.getDoubleY() - center.getDoubleY(), p.getDoubleX() - center.getDoubleX());
+            if (turn <= 0)
+                turn += 2 * Math.PI;
+            if (turn < best) {
+                best = turn;
+                next = label;
             }
-            if (line != null) {
-                List<Point<Double>> cycle = graph.getCycle(new GraphNode<>(this.points.get(line.getStartingPoint()), line.getStartingPoint()), new GraphNode<>(0, null));
-                if (!cycle.isEmpty())
-                    return Optional.of(cycle);
+        }
+        return next;
+    }
+
+    private double signedArea(List<Integer> face) {
+        double area = 0;
+        for (int i = 0; i < face.size(); i++) {
+            Point<Double> p = this.graph.getData(face.get(i)), q = this.graph.getData(face.get((i + 1) % face.size()));
+            area += p.getDoubleX() * q.getDoubleY() - q.getDoubleX() * p.getDoubleY();
+        }
+        return area / 2;
+    }
+
+    /**
+     * Verifica se il tratto specificato, che non incrocia le linee delle aree chiuse, cade all' interno di una di esse.
+     *
+     * @param piece il tratto da verificare.
+     * @return true se il punto medio del tratto &egrave; interno a un' area chiusa, false altrimenti.
+     */
+    private boolean isInsideClosedArea(Line<Point<Double>> piece) {
+        double x = (piece.getStartingPoint().getDoubleX() + piece.getEndPoint().getDoubleX()) / 2;
+        double y = (piece.getStartingPoint().getDoubleY() + piece.getEndPoint().getDoubleY()) / 2;
+        for (int i = 0; i < this.closedAreas.size(); i++)
+            if (isInside(this.areaShapes.get(i), x, y) && contains(this.closedAreas.get(i).getArea(), x, y))
+                return true;
+        return false;
+    }
+
+    /**
+     * Verifica se il ciclo formato dalle linee specificate si sovrappone a un' area chiusa.
+     * Poich&eacute; le linee dei due bordi non si incrociano, le due aree si sovrappongono solo se una
+     * contiene l' altra, e quindi anche un suo punto interno.
+     *
+     * @param area le linee del ciclo.
+     * @return true se il ciclo si sovrappone a un' area chiusa, false altrimenti.
+     */
+    private boolean overlapsClosedArea(List<Line<Point<Double>>> area) {
+        double[] shape = shape(area);
+        for (int i = 0; i < this.closedAreas.size(); i++) {
+            double[] closedShape = this.areaShapes.get(i);
+            if (isInside(closedShape, shape[4], shape[5]) && contains(this.closedAreas.get(i).getArea(), shape[4], shape[5])
+                    || isInside(shape, closedShape[4], closedShape[5]) && contains(area, closedShape[4], closedShape[5]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Restituisce il rettangolo che contiene l' area formata dalle linee specificate e un punto interno all' area,
+     * come {minX, minY, maxX, maxY, x, y}.
+     * Il punto interno dista {@value #AREA_OFFSET} dal punto medio della linea pi&ugrave; lunga,
+     * pi&ugrave; dell' arrotondamento dei punti di incrocio.
+     */
+    private static double[] shape(List<Line<Point<Double>>> area) {
+        double[] shape = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0};
+        Line<Point<Double>> longest = area.get(0);
+        for (Line<Point<Double>> l : area) {
+            for (Point<Double> p : List.of(l.getStartingPoint(), l.getEndPoint())) {
+                shape[0] = Math.min(shape[0], p.getDoubleX());
+                shape[1] = Math.min(shape[1], p.getDoubleY());
+                shape[2] = Math.max(shape[2], p.getDoubleX());
+                shape[3] = Math.max(shape[3], p.getDoubleY());
             }
+            if (length(l) > length(longest))
+                longest = l;
         }
-        return Optional.empty();
+        double x1 = longest.getStartingPoint().getDoubleX(), y1 = longest.getStartingPoint().getDoubleY(),
+                x2 = longest.getEndPoint().getDoubleX(), y2 = longest.getEndPoint().getDoubleY();
+        double nx = (y1 - y2) / length(longest) * AREA_OFFSET, ny = (x2 - x1) / length(longest) * AREA_OFFSET;
+        double x = (x1 + x2) / 2, y = (y1 + y2) / 2;
+        boolean side = contains(area, x + nx, y + ny);
+        shape[4] = side ? x + nx : x - nx;
+        shape[5] = side ? y + ny : y - ny;
+        return shape;
+    }
+
+    private static double length(Line<Point<Double>> line) {
+        return Math.hypot(line.getEndPoint().getDoubleX() - line.getStartingPoint().getDoubleX(),
+                line.getEndPoint().getDoubleY() - line.getStartingPoint().getDoubleY());
+    }
+
+    private static boolean isInside(double[] shape, double x, double y) {
+        return x >= shape[0] && x <= shape[2] && y >= shape[1] && y <= shape[3];
+    }
+
+    /**
+     * Verifica se il punto specificato &egrave; interno all' area formata dalle linee specificate,
+     * contando quante linee attraversa una semiretta che parte dal punto.
+     */
+    private static boolean contains(List<Line<Point<Double>>> area, double x, double y) {
+        boolean inside = false;
+        for (Line<Point<Double>> l : area) {
+            double x1 = l.getStartingPoint().getDoubleX(), y1 = l.getStartingPoint().getDoubleY(),
+                    x2 = l.getEndPoint().getDoubleX(), y2 = l.getEndPoint().getDoubleY();
+            if ((y1 > y) != (y2 > y) && x < x1 + (y - y1) * (x2 - x1) / (y2 - y1))
+                inside = !inside;
+        }
+        return inside;
+    }
+
+    private long pieceKey(Point<Double> a, Point<Double> b) {
+        return pairKey(this.points.get(a), this.points.get(b));
+    }
+
+    static long pairKey(int i, int j) {
+        return spread(((long) Math.min(i, j) << 32) | Math.max(i, j));
+    }
+
+    /**
+     * Rimescola i bit di una chiave formata da due interi. L' hashcode di un Long &egrave; lo xor delle sue
+     * due met&agrave;, per cui coppie come (2k, 2k + 1) avrebbero tutte lo stesso hashcode; la moltiplicazione
+     * per una costante dispari &egrave; invertibile, quindi chiavi diverse restano diverse.
+     */
+    private static long spread(long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    private Line<Point<Double>> pieceBetween(Point<Double> a, Point<Double> b) {
+        return this.pieces.get(this.pieceKey(a, b));
+    }
+
+    private Line<Point<Double>> lineBetween(Point<Double> a, Point<Double> b) {
+        return this.lineExistsBetween(a, b).orElseGet(() -> this.pieceBetween(a, b));
+    }
+
+    private static boolean isEndPoint(Line<Point<Double>> line, Point<Double> point) {
+        return line.getStartingPoint().equals(point) || line.getEndPoint().equals(point);
+    }
+
+    /**
+     * Metodo di comodo che restituisce le linee di un' area chiusa a partire dal ciclo di nodi che la individua.
+     * Le linee partono dal punto inserito per primo nel piano e seguono il ciclo verso il suo vicino
+     * inserito per primo, cos&igrave; da rispettare l' ordine in cui sono state tracciate.
+     *
+     * @param cycle       i nodi del ciclo che individua l' area chiusa.
+     * @param lineBetween la funzione che restituisce la linea tra due punti consecutivi del ciclo.
+     * @return le linee che individuano l' area chiusa.
+     */
+    private List<Line<Point<Double>>> areaLines(List<GraphNode<Integer, Point<Double>>> cycle,
+                                                BiFunction<Point<Double>, Point<Double>, Line<Point<Double>>> lineBetween) {
+        int size = cycle.size(), start = 0;
+        for (int i = 1; i < size; i++)
+            if (cycle.get(i).getLabel() < cycle.get(start).getLabel())
+                start = i;
+        int step = cycle.get((start + 1) % size).getLabel() < cycle.get((start + size - 1) % size).getLabel() ? 1 : size - 1;
+        List<Line<Point<Double>>> l = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Point<Double> from = cycle.get((start + i * step) % size).getData();
+            Point<Double> to = cycle.get((start + (i + 1) * step) % size).getData();
+            l.add(lineBetween.apply(from, to));
+        }
+        return l;
     }
 
     /**
@@ -191,30 +727,255 @@ public class DefaultPlane implements Plane<Point<Double>> {
      * @return un Optional descrivente la linea da cercare.
      */
     public Optional<Line<Point<Double>>> lineExistsBetween(Point<Double> point1, Point<Double> point2) {
-        return this.lines.stream()
-                .filter((l) -> (l.getStartingPoint().equals(point1) && l.getEndPoint().equals(point2))
-                        || (l.getStartingPoint().equals(point2) && l.getEndPoint().equals(point1)))
-                .findAny();
+        PersistentVector<Integer> at = this.endpoints.get(point1);
+        if (at == null)
+            return Optional.empty();
+        for (int i : at) {
+            Line<Point<Double>> l = this.lines.get(i);
+            if ((l.getStartingPoint().equals(point1) && l.getEndPoint().equals(point2))
+                    || (l.getStartingPoint().equals(point2) && l.getEndPoint().equals(point1)))
+                return Optional.of(l);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<Line<Point<Double>>> getLinesAt(Point<Double> point) {
+        Set<Line<Point<Double>>> lines = new HashSet<>();
+        PersistentVector<Integer> at = this.endpoints.get(point);
+        if (at != null && bePartOfPlane(point))
+            for (int i : at)
+                lines.add(this.lines.get(i));
+        return lines;
+    }
+
+    @Override
+    public List<Line<Point<Double>>> getLinesIn(Point<Double> corner, Point<Double> opposite) {
+        double minX = Math.min(corner.getDoubleX(), opposite.getDoubleX()), maxX = Math.max(corner.getDoubleX(), opposite.getDoubleX());
+        double minY = Math.min(corner.getDoubleY(), opposite.getDoubleY()), maxY = Math.max(corner.getDoubleY(), opposite.getDoubleY());
+        List<Line<Point<Double>>> l = new ArrayList<>();
+        if (this.lines.isEmpty())
+            return l;
+        BitSet found = new BitSet(this.lines.size());
+        for (int cx = Math.max(cell(minX), this.minCellX); cx <= Math.min(cell(maxX), this.maxCellX); cx++)
+            for (int cy = Math.max(cell(minY), this.minCellY); cy <= Math.min(cell(maxY), this.maxCellY); cy++) {
+                PersistentVector<Integer> inCell = this.cells.get(cellKey(cx, cy));
+                if (inCell != null)
+                    for (int i : inCell)
+                        found.set(i);
+            }
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+            if (crosses(this.lines.getStartX(i), this.lines.getStartY(i), this.lines.getEndX(i), this.lines.getEndY(i), minX, minY, maxX, maxY))
+                l.add(this.lines.get(i));
+        }
+        return l;
+    }
+
+    /**
+     * Aggiunge la linea in posizione index agli indici per estremo e per cella.
+     * La linea viene registrata solo nelle celle che attraversa effettivamente.
+     *
+     * @param index la posizione della linea.
+     * @param line  la linea da indicizzare.
+     */
+    private void indexLine(int index, Line<Point<Double>> line) {
+        this.indexLine(index, line, (p, i) -> this.endpoints = this.endpoints.put(p, append(this.endpoints.get(p), i)),
+                (key, i) -> this.cells = this.cells.put(key, append(this.cells.get(key), i)));
+    }
+
+    /**
+     * Calcola gli estremi e le celle della griglia della linea specificata, passandoli insieme alla
+     * posizione della linea alle funzioni che li aggiungono agli indici.
+     *
+     * @param index    la posizione della linea nel piano.
+     * @param line     la linea da indicizzare.
+     * @param endpoint la funzione che aggiunge la posizione della linea all' indice di un suo estremo.
+     * @param cell     la funzione che aggiunge la posizione della linea all' indice di una cella attraversata.
+     */
+    private void indexLine(int index, Line<Point<Double>> line,
+                           BiConsumer<Point<Double>, Integer> endpoint, BiConsumer<Long, Integer> cell) {
+        Point<Double> start = line.getStartingPoint(), end = line.getEndPoint();
+        endpoint.accept(start, index);
+        if (!end.equals(start))
+            endpoint.accept(end, index);
+        forEachCell(line, key -> cell.accept(key, index));
+        int fromX = cell(Math.min(start.getDoubleX(), end.getDoubleX())), toX = cell(Math.max(start.getDoubleX(), end.getDoubleX()));
+        int fromY = cell(Math.min(start.getDoubleY(), end.getDoubleY())), toY = cell(Math.max(start.getDoubleY(), end.getDoubleY()));
+        this.minCellX = Math.min(this.minCellX, fromX);
+        this.minCellY = Math.min(this.minCellY, fromY);
+        this.maxCellX = Math.max(this.maxCellX, toX);
+        this.maxCellY = Math.max(this.maxCellY, toY);
+    }
+
+    /**
+     * Passa alla funzione specificata la chiave di ogni cella della griglia attraversata dalla linea specificata.
+     * Le celle vengono cercate colonna per colonna, solo nell' intervallo di ordinate che la linea occupa
+     * in ogni colonna, per cui il costo &egrave; proporzionale alle celle attraversate e non all' area
+     * del rettangolo che contiene la linea.
+     *
+     * @param line la linea di cui calcolare le celle.
+     * @param cell la funzione che riceve la chiave di ogni cella attraversata.
+     */
+    private static void forEachCell(Line<Point<Double>> line, LongConsumer cell) {
+        Point<Double> left = line.getStartingPoint(), right = line.getEndPoint();
+        if (left.getDoubleX() > right.getDoubleX()) {
+            left = line.getEndPoint();
+            right = line.getStartingPoint();
+        }
+        double x1 = left.getDoubleX(), y1 = left.getDoubleY(), x2 = right.getDoubleX(), y2 = right.getDoubleY();
+        int fromY = cell(Math.min(y1, y2)), toY = cell(Math.max(y1, y2));
+        for (int cx = cell(x1); cx <= cell(x2); cx++) {
+            double ya = y1, yb = y2;
+            if (x1 != x2) {
+                ya = y1 + (Math.max(x1, cx * CELL_SIZE) - x1) * (y2 - y1) / (x2 - x1);
+                yb = y1 + (Math.min(x2, (cx + 1) * CELL_SIZE) - x1) * (y2 - y1) / (x2 - x1);
+            }
+            int last = Math.min(toY, cell(Math.max(ya, yb)) + 1);
+            for (int cy = Math.max(fromY, cell(Math.min(ya, yb)) - 1); cy <= last; cy++)
+                if (crosses(line, cx * CELL_SIZE, cy * CELL_SIZE, (cx + 1) * CELL_SIZE, (cy + 1) * CELL_SIZE))
+                    cell.accept(cellKey(cx, cy));
+        }
+    }
+
+    /**
+     * Aggiunge all' indice specificato tutte le posizioni raccolte per ogni chiave, con un solo
+     * aggiornamento dell' indice per chiave.
+     */
+    private static <K> PersistentHashMap<K, PersistentVector<Integer>> appendAll(PersistentHashMap<K, PersistentVector<Integer>> index,
+                                                                               Map<K, List<Integer>> added) {
+        for (Map.Entry<K, List<Integer>> e : added.entrySet()) {
+            PersistentVector<Integer> indexes = index.get(e.getKey());
+            if (indexes == null)
+                indexes = PersistentVector.empty();
+            for (int i : e.getValue())
+                indexes = indexes.append(i);
+            index = index.put(e.getKey(), indexes);
+        }
+        return index;
+    }
+
+    private void clearLineIndex() {
+        this.endpoints = PersistentHashMap.empty();
+        this.cells = PersistentHashMap.empty();
+        this.minCellX = Integer.MAX_VALUE;
+        this.minCellY = Integer.MAX_VALUE;
+        this.maxCellX = Integer.MIN_VALUE;
+        this.maxCellY = Integer.MIN_VALUE;
+    }
+
+    private static PersistentVector<Integer> append(PersistentVector<Integer> indexes, int index) {
+        return (indexes == null ? PersistentVector.<Integer>empty() : indexes).append(index);
+    }
+
+    private static int cell(double coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    static long cellKey(int cx, int cy) {
+        return spread(((long) cx << 32) | (cy & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Verifica se la linea specificata attraversa il rettangolo specificato, bordo compreso,
+     * ritagliandola sui quattro lati del rettangolo (Liang-Barsky).
+     */
+    private static boolean crosses(Line<Point<Double>> line, double minX, double minY, double maxX, double maxY) {
+        return crosses(line.getStartingPoint().getDoubleX(), line.getStartingPoint().getDoubleY(),
+                line.getEndPoint().getDoubleX(), line.getEndPoint().getDoubleY(), minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Verifica se il segmento di estremi (x1, y1) e (x2, y2) attraversa il rettangolo specificato, bordo compreso.
+     */
+    private static boolean crosses(double x1, double y1, double x2, double y2, double minX, double minY, double maxX, double maxY) {
+        double dx = x2 - x1, dy = y2 - y1;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x1 - minX, maxX - x1, y1 - minY, maxY - y1};
+        double t0 = 0, t1 = 1;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0)
+                    return false;
+                continue;
+            }
+            double t = q[i] / p[i];
+            if (p[i] < 0)
+                t0 = Math.max(t0, t);
+            else
+                t1 = Math.min(t1, t);
+            if (t0 > t1)
+                return false;
+        }
+        return true;
     }
 
     private boolean lineInClosedAreasisPresent(Line<Point<Double>> line) {
-        for (ClosedArea<Line<Point<Double>>> a : this.closedAreas)
-            if (a.getArea().contains(line))
-                return true;
-        return false;
+        return this.areaOf(line).isPresent();
+    }
+
+    @Override
+    public Optional<ClosedArea<Line<Point<Double>>>> areaOf(Line<Point<Double>> line) {
+        Integer start = this.points.get(line.getStartingPoint()), end = this.points.get(line.getEndPoint());
+        if (start == null || end == null)
+            return Optional.empty();
+        PersistentVector<Map.Entry<Line<Point<Double>>, ClosedArea<Line<Point<Double>>>>> candidates =
+                this.areaLines.get(pairKey(start, end));
+        if (candidates != null)
+            for (Map.Entry<Line<Point<Double>>, ClosedArea<Line<Point<Double>>>> e : candidates)
+                if (e.getKey().equals(line))
+                    return Optional.of(e.getValue());
+        return Optional.empty();
+    }
+
+    /**
+     * Aggiunge l' area chiusa specificata a questo piano, indicizzandone le linee per estremi.
+     *
+     * @param closedArea l' area chiusa da aggiungere.
+     */
+    private void addClosedArea(ClosedArea<Line<Point<Double>>> closedArea) {
+        this.closedAreas = this.closedAreas.append(closedArea);
+        this.areaShapes = this.areaShapes.append(shape(closedArea.getArea()));
+        for (Line<Point<Double>> l : closedArea.getArea()) {
+            Integer start = this.points.get(l.getStartingPoint()), end = this.points.get(l.getEndPoint());
+            if (start == null || end == null)
+                continue;
+            long key = pairKey(start, end);
+            PersistentVector<Map.Entry<Line<Point<Double>>, ClosedArea<Line<Point<Double>>>>> candidates = this.areaLines.get(key);
+            if (candidates == null)
+                candidates = PersistentVector.empty();
+            this.areaLines = this.areaLines.put(key, candidates.append(new AbstractMap.SimpleImmutableEntry<>(l, closedArea)));
+        }
     }
 
     private void setIndexPoints(Line<Point<Double>> line) {
         if (!this.points.containsKey(line.getStartingPoint()))
-            this.points.put(line.getStartingPoint(), points.size() + 1);
+            this.points = this.points.put(line.getStartingPoint(), points.size() + 1);
         if (!this.points.containsKey(line.getEndPoint()))
-            this.points.put(line.getEndPoint(), points.size() + 1);
+            this.points = this.points.put(line.getEndPoint(), points.size() + 1);
+    }
+
+    private GraphNode<Integer, Point<Double>> node(Point<Double> point) {
+        return new GraphNode<>(this.points.get(point), point);
+    }
+
+    @Override
+    public void clear() {
+        this.lines = SegmentStore.empty();
+        this.closedAreas = PersistentVector.empty();
+        this.areaShapes = PersistentVector.empty();
+        this.areaLines = PersistentHashMap.empty();
+        this.points = PersistentHashMap.empty();
+        this.clearLineIndex();
+        this.graph = new PersistentGraph<>();
+        this.pieces = PersistentHashMap.empty();
+        this.openPieces = PersistentHashMap.empty();
+        this.pieceCells = PersistentHashMap.empty();
     }
 
 
     @Override
     public Queue<ClosedArea<Line<Point<Double>>>> getClosedAreas() {
-        return this.closedAreas;
+        return this.closedAreasView;
     }
 
     @Override
@@ -225,8 +986,8 @@ public class DefaultPlane implements Plane<Point<Double>> {
 
     @Override
     public boolean bePartOfPlane(Point<Double> point) {
-        return (point.getY() >= 0 && point.getY() < this.getHeight()
-                && point.getX() >= 0 && point.getX() < this.getLength());
+        return (point.getDoubleY() >= 0 && point.getDoubleY() < this.getHeight()
+                && point.getDoubleX() >= 0 && point.getDoubleX() < this.getLength());
     }
 
     @Override
@@ -236,17 +997,17 @@ public class DefaultPlane implements Plane<Point<Double>> {
 
     @Override
     public Point<Double> getDownRightPoint() {
-        return Point.cartesianPoint(this.length - 1, 0);
+        return this.downRight;
     }
 
     @Override
     public Point<Double> getUpLeftPoint() {
-        return Point.cartesianPoint(0, this.height - 1);
+        return this.upLeft;
     }
 
     @Override
     public Point<Double> getUpRightPoint() {
-        return Point.cartesianPoint(this.length - 1, this.height - 1);
+        return this.upRight;
     }
 
     @Override
@@ -273,7 +1034,7 @@ public class DefaultPlane implements Plane<Point<Double>> {
     @SuppressWarnings("unchecked")
     @Override
     public Map<Point<Double>, Integer> getPoints() {
-        return this.points;
+        return this.pointsView;
     }
 
 
@@ -298,12 +1059,107 @@ public class DefaultPlane implements Plane<Point<Double>> {
     }
 
     @Override
-    public synchronized void addPlaneUpdateListener(PlaneUpdateListener<Point<Double>> listener) {
+    public ExecutionTracer getTracer() {
+        return this.tracer;
+    }
+
+    /**
+     * Imposta il tracer che riceve gli eventi dell' esecuzione delle istruzioni in questo piano
+     * e nelle versioni del piano create a partire da esso.
+     *
+     * @param tracer il tracer da impostare.
+     * @throws NullPointerException se il tracer specificato &egrave; null.
+     */
+    public void setTracer(ExecutionTracer tracer) {
+        this.tracer = Objects.requireNonNull(tracer, "Null tracer!");
+    }
+
+    @Override
+    public void addPlaneUpdateListener(PlaneUpdateListener<Point<Double>> listener) {
         this.planeUpdateSupport.addListener(listener);
     }
 
     @Override
-    public synchronized void removePlaneUpdateListener(PlaneUpdateListener<Point<Double>> listener) {
+    public void removePlaneUpdateListener(PlaneUpdateListener<Point<Double>> listener) {
         this.planeUpdateSupport.removeListener(listener);
     }
+
+    /**
+     * Vista in sola lettura come coda di una sequenza persistente, che segue sempre
+     * la versione corrente della sequenza in questo piano.
+     *
+     * @param <E> il tipo parametrico degli elementi della coda.
+     */
+    private static final class VersionQueue<E> extends AbstractQueue<E> {
+
+        private final Supplier<? extends Iterable<E>> elements;
+        private final IntSupplier size;
+
+        private VersionQueue(Supplier<? extends Iterable<E>> elements, IntSupplier size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return this.elements.get().iterator();
+        }
+
+        @Override
+        public int size() {
+            return this.size.getAsInt();
+        }
+
+        @Override
+        public boolean offer(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E poll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E peek() {
+            Iterator<E> i = this.iterator();
+            return i.hasNext() ? i.next() : null;
+        }
+    }
+
+    /**
+     * Vista in sola lettura dell' indice dei punti di questo piano.
+     */
+    private final class PointsView extends AbstractMap<Point<Double>, Integer> {
+
+        @Override
+        public Integer get(Object key) {
+            return DefaultPlane.this.points.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return DefaultPlane.this.points.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return DefaultPlane.this.points.size();
+        }
+
+        @Override
+        public Set<Entry<Point<Double>, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Point<Double>, Integer>> iterator() {
+                    return DefaultPlane.this.points.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return DefaultPlane.this.points.size();
+                }
+            };
+        }
+    }
 }
@@ -41,6 +41,26 @@ public interface Directional<D> {
      */
     void setDirectionWay(D direction);
 
+    /**
+     * Restituisce la componente orizzontale del vettore unitario che punta nella direzione corrente,
+     * ovvero il coseno dell' angolo, quando la direzione &egrave; espressa in gradi.
+     *
+     * @return il coseno dell' angolo della direzione.
+     */
+    default double getUnitX() {
+        return Math.cos(Math.toRadians(((Number) getDirectionWay()).doubleValue()));
+    }
+
+    /**
+     * Restituisce la componente verticale del vettore unitario che punta nella direzione corrente,
+     * ovvero il seno dell' angolo, quando la direzione &egrave; espressa in gradi.
+     *
+     * @return il seno dell' angolo della direzione.
+     */
+    default double getUnitY() {
+        return Math.sin(Math.toRadians(((Number) getDirectionWay()).doubleValue()));
+    }
+
     /**
      * Restituisce la rappresentazione della direzione sotto forma di stringa.
      *
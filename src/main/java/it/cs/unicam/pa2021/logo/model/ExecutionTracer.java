@@ -0,0 +1,105 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Riceve gli eventi dell' esecuzione delle istruzioni LOGO, per esempio per registrarli durante il debug.
+ * Tutti i metodi hanno un' implementazione vuota, per cui con {@link #NONE} l' esecuzione non costruisce
+ * alcuna stringa e non chiama alcun logger.
+ * Il tracer viene associato a un piano con {@link DefaultPlane#setTracer(ExecutionTracer)} ed &egrave;
+ * condiviso da tutte le versioni del piano create a partire da esso.
+ */
+public interface ExecutionTracer {
+
+    /**
+     * Il tracer che ignora tutti gli eventi.
+     */
+    ExecutionTracer NONE = new ExecutionTracer() {
+    };
+
+    /**
+     * Notifica l' esecuzione di un' istruzione.
+     *
+     * @param instruction l' istruzione eseguita.
+     */
+    default void executedInstruction(String instruction) {
+    }
+
+    /**
+     * Notifica la generazione di una linea nel piano.
+     *
+     * @param line la linea generata.
+     */
+    default void generatedLine(Line<Point<Double>> line) {
+    }
+
+    /**
+     * Notifica lo spostamento del cursore con la penna alzata.
+     *
+     * @param from la posizione di partenza del cursore.
+     * @param to   la posizione di arrivo del cursore.
+     */
+    default void movedCursor(Point<Double> from, Point<Double> to) {
+    }
+
+    /**
+     * Notifica che il cursore &egrave; stato fermato al bordo del piano.
+     *
+     * @param position il punto del bordo in cui si trova il cursore.
+     */
+    default void reachedBorder(Point<Double> position) {
+    }
+
+    /**
+     * Notifica la generazione di un' area chiusa nel piano.
+     *
+     * @param area l' area chiusa generata.
+     */
+    default void generatedArea(ClosedArea<Line<Point<Double>>> area) {
+    }
+
+    /**
+     * Crea un tracer che registra ogni evento con il logger specificato al livello INFO.
+     * Il messaggio viene costruito solo se il logger registra effettivamente quel livello.
+     *
+     * @param logger il logger con cui registrare gli eventi.
+     * @return il tracer che registra gli eventi.
+     * @throws NullPointerException se il logger specificato &egrave; null.
+     */
+    static ExecutionTracer logging(Logger logger) {
+        Objects.requireNonNull(logger, "Null logger!");
+        return new ExecutionTracer() {
+            @Override
+            public void executedInstruction(String instruction) {
+                if (logger.isLoggable(Level.INFO))
+                    logger.info("Executed instruction: " + instruction);
+            }
+
+            @Override
+            public void generatedLine(Line<Point<Double>> line) {
+                if (logger.isLoggable(Level.INFO))
+                    logger.info("Generated line: " + line);
+            }
+
+            @Override
+            public void movedCursor(Point<Double> from, Point<Double> to) {
+                if (logger.isLoggable(Level.INFO))
+                    logger.info("Moved cursor from " + from + " to " + to);
+            }
+
+            @Override
+            public void reachedBorder(Point<Double> position) {
+                if (logger.isLoggable(Level.INFO))
+                    logger.info("Intersection point: " + position);
+            }
+
+            @Override
+            public void generatedArea(ClosedArea<Line<Point<Double>>> area) {
+                if (logger.isLoggable(Level.INFO))
+                    logger.info("Generated closed area: " + area);
+            }
+        };
+    }
+}
@@ -4,21 +4,14 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Rappresenta un grafo rappresentato tramite matrice di adiacenza.
- * Se viene trovato un ciclo nel grafo, questo viene ritornato e rimosso dal grafo.
+ * Rappresenta un grafo rappresentato tramite liste di adiacenza.
+ * Il grafo permette di sapere, prima di aggiungere un arco (u, v), se u e v sono gi&agrave; collegati
+ * da un cammino, ovvero se il nuovo arco chiuderebbe un ciclo.
  *
  * @param <D> il tipo parametrico per i dati da contenere nei nodi.
  */
 public interface Graph<D> {
 
-    /**
-     * Esegue la visita in profondit&agrve; di questo grafo per trovare uno o più cicli.
-     *
-     * @param u il nodo sorgente.
-     * @param p il padre del nodo sorgente.
-     */
-    void cycleDFS(GraphNode<Integer, D> u, GraphNode<Integer, D> p);
-
     /**
      * Aggiunge un arco (u, v) a questo grafo.
      *
@@ -28,33 +21,28 @@ public interface Graph<D> {
     void addEdge(GraphNode<Integer, D> u, GraphNode<Integer, D> v);
 
     /**
-     * Restituisce e rimuove i nodi che formano un ciclo in questo grafo.
-     * Se il grafo non contiene cicli, viene ritornata una lista vuota.
+     * Rimuove un arco (u, v) da questo grafo, se presente.
      *
-     * @param u il nodo sorgente.
-     * @param p il padre del nodo sorgente.
-     * @return una lista di dati contenuti nei nodi, i quali formano un ciclo presente nel grafo.
-     */
-    List<D> getCycle(GraphNode<Integer, D> u, GraphNode<Integer, D> p);
-
-    /**
-     * Inizializza questo grafo.
+     * @param u il nodo u dell' arco (u, v).
+     * @param v il nodo v dell' arco (u, v).
      */
-    void clear();
+    void removeEdge(GraphNode<Integer, D> u, GraphNode<Integer, D> v);
 
     /**
-     * Restituisce la matrice delle adiacenze di questo grafo.
+     * Restituisce il cammino pi&ugrave; breve da u a v che non usa un arco diretto (u, v).
+     * Aggiungere l' arco (u, v) al grafo chiuderebbe quindi un ciclo formato da questo cammino.
+     * Se il cammino non esiste, viene ritornata una lista vuota.
      *
-     * @return la matrice delle adiacenza di questo grafo.
+     * @param u il nodo di partenza.
+     * @param v il nodo di arrivo.
+     * @return la lista dei nodi del cammino da u a v, estremi compresi.
      */
-    List<List<GraphNode<Integer, D>>> getMatrix();
+    List<GraphNode<Integer, D>> getPath(GraphNode<Integer, D> u, GraphNode<Integer, D> v);
 
     /**
-     * Restituisce la lista dei cicli presenti nel grafo.
-     *
-     * @return la lista dei cicli presenti nel grafo.
+     * Inizializza questo grafo.
      */
-    List<List<Integer>> getCycles();
+    void clear();
 
     /**
      * Restituisce una mappa contenente la mappatura tra l' indice intero di un nodo e l' oggetto
@@ -72,31 +60,10 @@ public interface Graph<D> {
     int getEdges();
 
     /**
-     * Restituisce il numero di ciclo corrente nel grafo.
-     *
-     * @return il numero di ciclo corrente nel grafo.
-     */
-    int getCycleNumber();
-
-    /**
-     * Restituisce una lista degli indici dei padri nel grafo.
-     *
-     * @return la lista degli indici dei padri nel grafo.
-     */
-    List<Integer> getParents();
-
-    /**
-     * Restituisce la lista degli indici dei nodi segnati per quel determinato ciclo.
-     *
-     * @return la lista degli indici dei nodi segnati per quel determinato ciclo.
-     */
-    List<Integer> getMarkedNodes();
-
-    /**
-     * Restituisce la lista degli indici dei nodi colorati.
+     * Restituisce una copia di questo grafo, indipendente da esso.
      *
-     * @return la lista degli indici dei nodi colorati.
+     * @return una copia di questo grafo.
      */
-    List<Integer> getColors();
+    Graph<D> copy();
 
 }
@@ -1,8 +1,6 @@
 package it.cs.unicam.pa2021.logo.model;
 
 import java.util.List;
-import java.util.Optional;
-import java.util.logging.Logger;
 
 
 /**
@@ -24,7 +22,19 @@ public interface Instruction<C> {
      * @throws IllegalArgumentException se la distanza specificata &egrave; minore di 0.
      */
     static Plane<Point<Double>> forward(Plane<Point<Double>> plane, Object... args) {
-        return move('+', plane, args[0]);
+        return forward(plane, toInt(args[0]));
+    }
+
+    /**
+     * Metodo statico che implementa l' istruzione FORWARD con la distanza gi&agrave; convertita in intero.
+     *
+     * @param plane    il piano contenente il cursore da spostare.
+     * @param distance la distanza di cui spostarsi dalla sua posizione.
+     * @return un piano contenente le modifiche dopo aver eseguito l' istruzione FORWARD.
+     * @throws IllegalArgumentException se la distanza specificata &egrave; minore di 0.
+     */
+    static Plane<Point<Double>> forward(Plane<Point<Double>> plane, int distance) {
+        return move('+', plane, distance);
     }
 
     /**
@@ -38,7 +48,19 @@ public interface Instruction<C> {
      * @throws IllegalArgumentException se la distanza specificata &egrave; minore di 0.
      */
     static Plane<Point<Double>> backward(Plane<Point<Double>> plane, Object... args) {
-        return move('-', plane, args[0]);
+        return backward(plane, toInt(args[0]));
+    }
+
+    /**
+     * Metodo statico che implementa l' istruzione BACKWARD con la distanza gi&agrave; convertita in intero.
+     *
+     * @param plane    il piano contenente il cursore da spostare.
+     * @param distance la distanza di cui spostarsi dalla sua posizione.
+     * @return un piano contenente le modifiche dopo aver eseguito l' istruzione BACKWARD.
+     * @throws IllegalArgumentException se la distanza specificata &egrave; minore di 0.
+     */
+    static Plane<Point<Double>> backward(Plane<Point<Double>> plane, int distance) {
+        return move('-', plane, distance);
     }
 
     /**
@@ -51,7 +73,19 @@ public interface Instruction<C> {
      * @throws IllegalArgumentException se l' angolo da impostare &egrave; out of range.
      */
     static Plane<Point<Double>> left(Plane<Point<Double>> plane, Object... args) {
-        return direct('+', plane, args[0]);
+        return left(plane, toInt(args[0]));
+    }
+
+    /**
+     * Metodo statico che implementa l' istruzione LEFT con i gradi gi&agrave; convertiti in intero.
+     *
+     * @param plane   il piano contente il cursore da ruotare.
+     * @param degrees i gradi di cui ruotare in senso antiorario rispetto la sua direzione attuale.
+     * @return un piano contenente le modifiche dopo aver eseguito l' istruzione LEFT.
+     * @throws IllegalArgumentException se l' angolo da impostare &egrave; out of range.
+     */
+    static Plane<Point<Double>> left(Plane<Point<Double>> plane, int degrees) {
+        return direct('+', plane, degrees);
     }
 
     /**
@@ -64,7 +98,30 @@ public interface Instruction<C> {
      * @throws IllegalArgumentException se l' angolo da impostare &egrave; out of range.
      */
     static Plane<Point<Double>> right(Plane<Point<Double>> plane, Object... args) {
-        return direct('-', plane, args[0]);
+        return right(plane, toInt(args[0]));
+    }
+
+    /**
+     * Metodo statico che implementa l' istruzione RIGHT con i gradi gi&agrave; convertiti in intero.
+     *
+     * @param plane   il piano contente il cursore da ruotare.
+     * @param degrees i gradi di cui ruotare in senso orario rispetto la sua direzione attuale.
+     * @return un piano contenente le modifiche dopo aver eseguito l' istruzione RIGHT.
+     * @throws IllegalArgumentException se l' angolo da impostare &egrave; out of range.
+     */
+    static Plane<Point<Double>> right(Plane<Point<Double>> plane, int degrees) {
+        return direct('-', plane, degrees);
+    }
+
+    /**
+     * Metodo statico che converte in intero un argomento di un' istruzione.
+     *
+     * @param arg l' argomento da convertire.
+     * @return il valore intero dell' argomento.
+     * @throws NumberFormatException se l' argomento non rappresenta un intero.
+     */
+    private static int toInt(Object arg) {
+        return arg instanceof Integer ? (Integer) arg : Integer.parseInt(String.valueOf(arg));
     }
 
     /**
@@ -72,12 +129,11 @@ public interface Instruction<C> {
      *
      * @param direction - per direzione in senso orario, + antiorario.
      * @param plane     il piano in cui direzionare il cursore.
-     * @param angle     l' angolo di cui spostarsi.
+     * @param degrees   l' angolo di cui spostarsi.
      * @return un piano contenente le modifiche dopo aver eseguito l' istruzione LEFT/RIGHT.
      */
-    private static Plane<Point<Double>> direct(char direction, Plane<Point<Double>> plane, Object angle) {
+    private static Plane<Point<Double>> direct(char direction, Plane<Point<Double>> plane, int degrees) {
         Plane<Point<Double>> p = new DefaultPlane(plane);
-        int degrees = Integer.parseInt("" + angle);
         if (degrees < 0 || degrees > 360)
             throw new IllegalArgumentException("Angle out of range");
         int newDirection;
@@ -101,28 +157,27 @@ public interface Instruction<C> {
      * @return un piano contenente le modifiche dopo aver eseguito l' istruzione FORWARD/BACKWARD.
      * @throws IllegalArgumentException se la distanza specificata &egrave; minore di 0.
      */
-    private static Plane<Point<Double>> move(char operator, Plane<Point<Double>> plane, Object distance) {
-        int dist = Integer.parseInt("" + distance);
+    private static Plane<Point<Double>> move(char operator, Plane<Point<Double>> plane, int dist) {
         if (dist < 0)
             throw new IllegalArgumentException("Negative distance!");
         Plane<Point<Double>> p = new DefaultPlane(plane);
-        Point<Double> oldPosition = Point.cartesianPoint(p.getCursorPosition().getX(), p.getCursorPosition().getY());
-        int degrees = (int) p.getCursor().getDirection().getDirectionWay();
-        double angleCos = operator == '-' ? -(dist * Math.cos(Math.toRadians(degrees))) : dist * Math.cos(Math.toRadians(degrees));
-        double angleSin = operator == '-' ? -(dist * Math.sin(Math.toRadians(degrees))) : dist * Math.sin(Math.toRadians(degrees));
-        double newX = Math.round((p.getCursorPosition().getX() + angleCos) * 100.0) / 100.0;
-        double newY = Math.round((p.getCursorPosition().getY() + angleSin) * 100.0) / 100.0;
+        Point<Double> oldPosition = p.getCursorPosition();
+        Directional<?> direction = p.getCursor().getDirection();
+        double angleCos = operator == '-' ? -(dist * direction.getUnitX()) : dist * direction.getUnitX();
+        double angleSin = operator == '-' ? -(dist * direction.getUnitY()) : dist * direction.getUnitY();
+        double newX = Math.round((p.getCursorPosition().getDoubleX() + angleCos) * 100.0) / 100.0;
+        double newY = Math.round((p.getCursorPosition().getDoubleY() + angleSin) * 100.0) / 100.0;
         Point<Double> newPosition = Point.cartesianPoint(newX, newY);
         checkCursorAtBorder(p, newPosition, oldPosition);
         Line<Point<Double>> l = new Segment<>(oldPosition, p.getCursorPosition(), plane.getCursor().getLineColor(), plane.getCursor().getPenSize());
         if (p.getCursor().isPen()) {
             p.addLine(l);
-            Logger.getGlobal().info("Generated line: " + l);
+            p.getTracer().generatedLine(l);
             p.getCursor().setPlot(true);
             p.getPlaneUpdateSupport().fireGeneratedLine(l);
         } else {
             p.getCursor().setPlot(false);
-            Logger.getGlobal().info("Moved cursor from " + oldPosition + " to " + newPosition);
+            p.getTracer().movedCursor(oldPosition, newPosition);
             p.getPlaneUpdateSupport().fireMovedCursor(newPosition);
         }
         return p;
@@ -130,28 +185,63 @@ public interface Instruction<C> {
 
     /**
      * Metodo statico per posizionare il cursore al bordo del piano se questo supera i limiti.
+     * Tra i bordi superati viene scelto, come nell' algoritmo di Liang-Barsky, quello che lo spostamento
+     * attraversa per primo, cos&igrave; che anche uscendo da un angolo il cursore si fermi nel piano.
+     * Il calcolo avviene sulle coordinate e crea un nuovo punto solo se il cursore viene fermato al bordo.
      *
      * @param plane             il piano in questione.
      * @param newCursorPosition la nuova posizione del cursore da controllare.
      */
     private static void checkCursorAtBorder(Plane<Point<Double>> plane, Point<Double> newCursorPosition, Point<Double> oldCursorPosition) {
-        Segment<Point<Double>> xDownAxis = new Segment<>(plane.getDownLeftPoint(), plane.getDownRightPoint(), plane.getCursor().getLineColor(), plane.getCursor().getPenSize()),
-                xUpAxis = new Segment<>(plane.getUpLeftPoint(), plane.getUpRightPoint(), plane.getCursor().getLineColor(), plane.getCursor().getPenSize()),
-                yLeftAxis = new Segment<>(plane.getUpLeftPoint(), plane.getDownLeftPoint(), plane.getCursor().getLineColor(), plane.getCursor().getPenSize()),
-                yRightAxis = new Segment<>(plane.getUpRightPoint(), plane.getDownRightPoint(), plane.getCursor().getLineColor(), plane.getCursor().getPenSize());
-        Line<Point<Double>> line = new Segment<>(oldCursorPosition, newCursorPosition, plane.getCursor().getLineColor(), plane.getCursor().getPenSize());
-        Optional<Point<Double>> intersectionPoint = Optional.empty();
-        if (newCursorPosition.getY() >= plane.getHeight())
-            intersectionPoint = Plane.intersection(line, xUpAxis);
-        if (newCursorPosition.getY() < 0)
-            intersectionPoint = Plane.intersection(line, xDownAxis);
-        if (newCursorPosition.getX() >= plane.getLength())
-            intersectionPoint = Plane.intersection(line, yRightAxis);
-        if (newCursorPosition.getX() < 0)
-            intersectionPoint = Plane.intersection(line, yLeftAxis);
-        plane.getCursor().setPosition(intersectionPoint.orElse(newCursorPosition));
-        Logger.getGlobal().info("Intersection point:  " + intersectionPoint);
-        Logger.getGlobal().info("Cursor position " + plane.getCursorPosition());
+        double x1 = oldCursorPosition.getDoubleX(), y1 = oldCursorPosition.getDoubleY();
+        double x2 = newCursorPosition.getDoubleX(), y2 = newCursorPosition.getDoubleY();
+        Point<Double> borderStart = null, borderEnd = null;
+        double exit = Double.POSITIVE_INFINITY;
+        if (y2 >= plane.getHeight() && y2 != y1 && (plane.getHeight() - 1 - y1) / (y2 - y1) < exit) {
+            exit = (plane.getHeight() - 1 - y1) / (y2 - y1);
+            borderStart = plane.getUpLeftPoint();
+            borderEnd = plane.getUpRightPoint();
+        }
+        if (y2 < 0 && y2 != y1 && -y1 / (y2 - y1) < exit) {
+            exit = -y1 / (y2 - y1);
+            borderStart = plane.getDownLeftPoint();
+            borderEnd = plane.getDownRightPoint();
+        }
+        if (x2 >= plane.getLength() && x2 != x1 && (plane.getLength() - 1 - x1) / (x2 - x1) < exit) {
+            exit = (plane.getLength() - 1 - x1) / (x2 - x1);
+            borderStart = plane.getUpRightPoint();
+            borderEnd = plane.getDownRightPoint();
+        }
+        if (x2 < 0 && x2 != x1 && -x1 / (x2 - x1) < exit) {
+            borderStart = plane.getUpLeftPoint();
+            borderEnd = plane.getDownLeftPoint();
+        }
+        Point<Double> position = borderStart == null ? null : borderIntersection(x1, y1, x2, y2,
+                borderStart.getDoubleX(), borderStart.getDoubleY(), borderEnd.getDoubleX(), borderEnd.getDoubleY());
+        if (position == null)
+            plane.getCursor().setPosition(newCursorPosition);
+        else {
+            plane.getCursor().setPosition(position);
+            plane.getTracer().reachedBorder(position);
+        }
+    }
+
+    /**
+     * Calcola il punto in cui la retta dello spostamento del cursore interseca la retta di un bordo del piano,
+     * con gli stessi calcoli e lo stesso arrotondamento di {@link Plane#intersection(Line, Line)}.
+     *
+     * @return il punto di intersezione, null se le due rette sono parallele.
+     */
+    private static Point<Double> borderIntersection(double x1, double y1, double x2, double y2,
+                                                    double x3, double y3, double x4, double y4) {
+        double d = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
+        if (d == 0)
+            return null;
+        double x = ((x3 - x4) * (x1 * y2 - y1 * x2) - (x1 - x2) * (x3 * y4 - y3 * x4)) / d;
+        double y = ((y3 - y4) * (x1 * y2 - y1 * x2) - (y1 - y2) * (x3 * y4 - y3 * x4)) / d;
+        x = x == -0.0 ? 0.0 : x;
+        y = y == -0.0 ? 0.0 : y;
+        return Point.cartesianPoint(Math.round(x * 100.0) / 100.0, Math.round(y * 100.0) / 100.0);
     }
 
     /**
@@ -165,10 +255,7 @@ public interface Instruction<C> {
     static Plane<Point<Double>> clearScreen(Plane<Point<Double>> plane, Object... args) {
         Plane<Point<Double>> p = new DefaultPlane(plane);
         p.getPlaneUpdateSupport().fireScreenCleaned();
-        p.getLines().clear();
-        p.getClosedAreas().clear();
-        p.getPoints().clear();
-        p.getGraph().clear();
+        p.clear();
         return p;
     }
 
@@ -225,9 +312,22 @@ public interface Instruction<C> {
      * @throws IllegalArgumentException se R, G o B sono out of range.
      */
     static Plane<Point<Double>> setPenColor(Plane<Point<Double>> plane, Object... args) {
+        return setPenColor(plane, toInt(args[0]), toInt(args[1]), toInt(args[2]));
+    }
+
+    /**
+     * Metodo statico che implementa l' istruzione SETPENCOLOR con le componenti gi&agrave; convertite in interi.
+     *
+     * @param plane il piano in cui impostare il colore RGB della penna.
+     * @param r     la componente rossa.
+     * @param g     la componente verde.
+     * @param b     la componente blu.
+     * @return un piano contenente le modifiche dopo aver eseguito l' istruzione SETPENCOLOR.
+     * @throws IllegalArgumentException se R, G o B sono out of range.
+     */
+    static Plane<Point<Double>> setPenColor(Plane<Point<Double>> plane, int r, int g, int b) {
         Plane<Point<Double>> p = new DefaultPlane(plane);
-        int r = Integer.parseInt("" + args[0]), g = Integer.parseInt("" + args[1]), b = Integer.parseInt("" + args[2]);
-        p.getCursor().setLineColor(new RGBColor(r, g, b));
+        p.getCursor().setLineColor(RGBColor.of(r, g, b));
         return p;
     }
 
@@ -241,9 +341,22 @@ public interface Instruction<C> {
      * @throws IllegalArgumentException se R, G o B sono out of range.
      */
     static Plane<Point<Double>> setFillColor(Plane<Point<Double>> plane, Object... args) {
+        return setFillColor(plane, toInt(args[0]), toInt(args[1]), toInt(args[2]));
+    }
+
+    /**
+     * Metodo statico che implementa l' istruzione SETFILLCOLOR con le componenti gi&agrave; convertite in interi.
+     *
+     * @param plane il piano in cui impostare il colore RGB di riempimento dell' area chiusa.
+     * @param r     la componente rossa.
+     * @param g     la componente verde.
+     * @param b     la componente blu.
+     * @return un piano contenente le modifiche dopo aver eseguito l' istruzione SETFILLCOLOR.
+     * @throws IllegalArgumentException se R, G o B sono out of range.
+     */
+    static Plane<Point<Double>> setFillColor(Plane<Point<Double>> plane, int r, int g, int b) {
         Plane<Point<Double>> p = new DefaultPlane(plane);
-        int r = Integer.parseInt("" + args[0]), g = Integer.parseInt("" + args[1]), b = Integer.parseInt("" + args[2]);
-        p.getCursor().setAreaColor(new RGBColor(r, g, b));
+        p.getCursor().setAreaColor(RGBColor.of(r, g, b));
         return p;
     }
 
@@ -257,9 +370,22 @@ public interface Instruction<C> {
      * @throws IllegalArgumentException se R, G o B sono out of range.
      */
     static Plane<Point<Double>> setScreenColor(Plane<Point<Double>> plane, Object... args) {
+        return setScreenColor(plane, toInt(args[0]), toInt(args[1]), toInt(args[2]));
+    }
+
+    /**
+     * Metodo statico che implementa l' istruzione SETSCREENCOLOR con le componenti gi&agrave; convertite in interi.
+     *
+     * @param plane il piano in cui impostare il proprio colore RGB.
+     * @param r     la componente rossa.
+     * @param g     la componente verde.
+     * @param b     la componente blu.
+     * @return un piano contenente le modifiche dopo aver eseguito l' istruzione SETSCREENCOLOR.
+     * @throws IllegalArgumentException se R, G o B sono out of range.
+     */
+    static Plane<Point<Double>> setScreenColor(Plane<Point<Double>> plane, int r, int g, int b) {
         Plane<Point<Double>> p = new DefaultPlane(plane);
-        int r = Integer.parseInt("" + args[0]), g = Integer.parseInt("" + args[1]), b = Integer.parseInt("" + args[2]);
-        p.setBackgroundColor(new RGBColor(r, g, b));
+        p.setBackgroundColor(RGBColor.of(r, g, b));
         p.getPlaneUpdateSupport().fireScreenColorChanged(p.getBackgroundColor());
         return p;
     }
@@ -274,8 +400,19 @@ public interface Instruction<C> {
      * @throws IllegalArgumentException se il tratto della penna specificata &egrave; minore di 1.
      */
     static Plane<Point<Double>> setPenSize(Plane<Point<Double>> plane, Object... args) {
+        return setPenSize(plane, toInt(args[0]));
+    }
+
+    /**
+     * Metodo statico che implementa l' istruzione SETPENSIZE con la size gi&agrave; convertita in intero.
+     *
+     * @param plane il piano in cui impostare il tratto della penna.
+     * @param size  la size della penna.
+     * @return un piano contenente le modifiche dopo aver eseguito l' istruzione SETPENSIZE.
+     * @throws IllegalArgumentException se il tratto della penna specificata &egrave; minore di 1.
+     */
+    static Plane<Point<Double>> setPenSize(Plane<Point<Double>> plane, int size) {
         Plane<Point<Double>> p = new DefaultPlane(plane);
-        int size = Integer.parseInt("" + args[0]);
         p.getCursor().setPenSize(size);
         return p;
     }
@@ -283,89 +420,22 @@ public interface Instruction<C> {
     /**
      * Metodo statico che implementa l' istruzione REPEAT.
      * Ripete la sequenza di comandi [cmds] per N volte.
-     * Se nella lista di istruzioni da ripetere sono presenti istruzioni non sono valide per l' ambiente LOGO,
-     * verranno eseguite solo quelle valide.
+     * La sequenza di comandi viene analizzata da {@link LOGOParser} e compilata una sola volta in un
+     * {@link LOGOProgram}, per cui le N ripetizioni non elaborano stringhe.
      *
      * @param plane il piano in cui eseguire la sequenza di comandi per N volte.
      * @param args  in particolare args[0] = N, args[1] = List[cmds].
      * @return un piano contenente le modifiche dopo aver eseguito l' istruzione REPEAT.
+     * @throws IllegalArgumentException se uno dei comandi da ripetere non &egrave; un' istruzione LOGO oppure
+     *                                  se mancano o non sono validi i suoi argomenti.
      */
+    @SuppressWarnings("unchecked")
     static Plane<Point<Double>> repeat(Plane<Point<Double>> plane, Object... args) {
-        Plane<Point<Double>> p = new DefaultPlane(plane);
-        Instruction<Point<Double>> instr;
-        List<String> cmds = (List<String>) args[1];
-        int n = Integer.parseInt("" + args[0]);
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < cmds.size(); j++)
-                switch (cmds.get(j)) {
-                    case "FORWARD": {
-                        instr = Instruction::forward;
-                        p = instr.execute(p, cmds.get(j + 1));
-                        break;
-                    }
-                    case "BACKWARD": {
-                        instr = Instruction::backward;
-                        p = instr.execute(p, cmds.get(j + 1));
-                        break;
-                    }
-                    case "LEFT": {
-                        instr = Instruction::left;
-                        p = instr.execute(p, cmds.get(j + 1));
-                        break;
-                    }
-                    case "RIGHT": {
-                        instr = Instruction::right;
-                        p = instr.execute(p, cmds.get(j + 1));
-                        break;
-                    }
-                    case "CLEARSCREEN": {
-                        instr = Instruction::clearScreen;
-                        p = instr.execute(p);
-                        break;
-                    }
-                    case "HOME": {
-                        instr = Instruction::home;
-                        p = instr.execute(p);
-                        break;
-                    }
-                    case "PENUP": {
-                        instr = Instruction::penUp;
-                        p = instr.execute(p);
-                        break;
-                    }
-                    case "PENDOWN": {
-                        instr = Instruction::penDown;
-                        p = instr.execute(p);
-                        break;
-                    }
-                    case "SETPENCOLOR": {
-                        instr = Instruction::setPenColor;
-                        p = instr.execute(p, cmds.get(j + 1), cmds.get(j + 2), cmds.get(j + 3));
-                        break;
-                    }
-                    case "SETFILLCOLOR": {
-                        instr = Instruction::setFillColor;
-                        p = instr.execute(p, cmds.get(j + 1), cmds.get(j + 2), cmds.get(j + 3));
-                        break;
-                    }
-                    case "SETSCREENCOLOR": {
-                        instr = Instruction::setScreenColor;
-                        p = instr.execute(p, cmds.get(j + 1), cmds.get(j + 2), cmds.get(j + 3));
-                        break;
-                    }
-                    case "SETPENSIZE": {
-                        instr = Instruction::setPenSize;
-                        p = instr.execute(p, cmds.get(j + 1));
-                        break;
-                    }
-                    case "REPEAT": {
-                        instr = Instruction::repeat;
-                        p = instr.execute(p, cmds.get(j));
-                        break;
-                    }
-                }
+        try {
+            return LOGOProgram.compileRepeat(toInt(args[0]), (List<String>) args[1]).execute(plane);
+        } catch (LOGOSyntaxErrorException e) {
+            throw new IllegalArgumentException(e.getMessage());
         }
-        return p;
     }
 
     /**
@@ -0,0 +1,51 @@
+package it.cs.unicam.pa2021.logo.model;
+
+/**
+ * Viene lanciata per indicare che l' esecuzione di un programma LOGO &egrave; stata interrotta perch&eacute;
+ * ha superato il numero massimo di istruzioni o il tempo massimo che le erano stati concessi.
+ */
+public class LOGOLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Il limite che pu&ograve; essere superato dall' esecuzione di un programma.
+     */
+    public enum Limit {
+        INSTRUCTIONS, TIME
+    }
+
+    private final Limit limit;
+    private final transient Plane<Point<Double>> plane;
+
+    /**
+     * Crea l' eccezione per un' esecuzione che ha superato il limite specificato.
+     *
+     * @param error la descrizione dell' errore.
+     * @param limit il limite superato.
+     * @param plane il piano ottenuto eseguendo le istruzioni precedenti all' interruzione.
+     */
+    public LOGOLimitExceededException(String error, Limit limit, Plane<Point<Double>> plane) {
+        super(error);
+        this.limit = limit;
+        this.plane = plane;
+    }
+
+    /**
+     * Restituisce il limite superato dall' esecuzione.
+     *
+     * @return il limite superato.
+     */
+    public Limit getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Restituisce il piano ottenuto eseguendo le istruzioni precedenti all' interruzione.
+     *
+     * @return il piano parziale dell' esecuzione interrotta.
+     */
+    public Plane<Point<Double>> getPlane() {
+        return this.plane;
+    }
+}
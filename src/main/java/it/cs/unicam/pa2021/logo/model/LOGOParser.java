@@ -0,0 +1,178 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analizzatore sintattico a discesa ricorsiva per i programmi LOGO.
+ * Il sorgente viene letto un carattere alla volta e diviso in token separati da spazi o dalle
+ * parentesi "[" e "]", per cui un blocco pu&ograve; essere scritto anche come "[FORWARD 10]".
+ * Il blocco di un REPEAT pu&ograve; contenere altri REPEAT, senza limiti di annidamento.
+ */
+public final class LOGOParser {
+
+    private final Reader reader;
+    private int character;
+    private int line = 1;
+    private int column;
+    private Token token;
+
+    private LOGOParser(Reader reader) throws IOException {
+        this.reader = reader;
+        this.character = reader.read();
+        this.column = 1;
+        this.token = scan();
+    }
+
+    /**
+     * Analizza il programma LOGO letto dal reader specificato.
+     *
+     * @param reader il reader da cui leggere il sorgente del programma.
+     * @return le istruzioni del programma, nell' ordine in cui compaiono nel sorgente.
+     * @throws IOException              se c'&egrave; un errore di I/O nella lettura del sorgente.
+     * @throws LOGOSyntaxErrorException se il sorgente contiene un errore di sintassi, con la sua posizione.
+     */
+    public static List<LOGOStatement> parse(Reader reader) throws IOException, LOGOSyntaxErrorException {
+        return new LOGOParser(reader).sequence(null);
+    }
+
+    /**
+     * Analizza il programma LOGO specificato.
+     *
+     * @param source il sorgente del programma.
+     * @return le istruzioni del programma, nell' ordine in cui compaiono nel sorgente.
+     * @throws LOGOSyntaxErrorException se il sorgente contiene un errore di sintassi, con la sua posizione.
+     */
+    public static List<LOGOStatement> parse(String source) throws LOGOSyntaxErrorException {
+        try {
+            return parse(new StringReader(source));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Analizza una sequenza di istruzioni fino alla fine del sorgente o, se open non &egrave; null,
+     * fino alla parentesi "]" che chiude il blocco aperto da open.
+     */
+    private List<LOGOStatement> sequence(Token open) throws IOException, LOGOSyntaxErrorException {
+        List<LOGOStatement> statements = new ArrayList<>();
+        while (this.token != null && !this.token.text.equals("]"))
+            statements.add(statement());
+        if (open == null && this.token != null)
+            throw error("Unexpected ] without REPEAT block", this.token);
+        if (open != null && this.token == null)
+            throw error("Missing ] at the end of REPEAT block", open);
+        return statements;
+    }
+
+    private LOGOStatement statement() throws IOException, LOGOSyntaxErrorException {
+        Token name = next();
+        int arity = LOGOProgram.arity(name.text);
+        if (arity < 0) {
+            if (name.text.equals("["))
+                throw error("Unexpected [ without REPEAT", name);
+            throw error((isNumeric(name.text) ? "Number is not an instruction: " : "Nonexistent instruction: ") + name.text, name);
+        }
+        int[] arguments = new int[arity];
+        for (int i = 0; i < arity; i++)
+            arguments[i] = argument(name);
+        List<LOGOStatement> body = new ArrayList<>();
+        if (name.text.equals("REPEAT")) {
+            if (this.token == null || !this.token.text.equals("["))
+                throw error("Missing [ after REPEAT " + arguments[0], this.token == null ? end() : this.token);
+            Token open = next();
+            body = sequence(open);
+            next();
+        }
+        return new LOGOStatement(name.text, arguments, body, name.line, name.column);
+    }
+
+    private int argument(Token instruction) throws IOException, LOGOSyntaxErrorException {
+        if (this.token == null)
+            throw error("Syntax error for " + instruction.text + " instruction: missing argument", end());
+        Token argument = this.token;
+        try {
+            int value = Integer.parseInt(argument.text);
+            next();
+            return value;
+        } catch (NumberFormatException e) {
+            throw error("Syntax error for " + instruction.text + " instruction: invalid argument " + argument.text, argument);
+        }
+    }
+
+    private Token next() throws IOException {
+        Token current = this.token;
+        this.token = scan();
+        return current;
+    }
+
+    /**
+     * Legge il prossimo token dal sorgente, oppure restituisce null alla fine del sorgente.
+     */
+    private Token scan() throws IOException {
+        while (this.character >= 0 && Character.isWhitespace(this.character))
+            advance();
+        if (this.character < 0)
+            return null;
+        int tokenLine = this.line;
+        int tokenColumn = this.column;
+        if (this.character == '[' || this.character == ']') {
+            String bracket = String.valueOf((char) this.character);
+            advance();
+            return new Token(bracket, tokenLine, tokenColumn);
+        }
+        StringBuilder text = new StringBuilder();
+        while (this.character >= 0 && !Character.isWhitespace(this.character)
+                && this.character != '[' && this.character != ']') {
+            text.append((char) this.character);
+            advance();
+        }
+        return new Token(text.toString(), tokenLine, tokenColumn);
+    }
+
+    private void advance() throws IOException {
+        if (this.character == '\n') {
+            this.line++;
+            this.column = 1;
+        } else
+            this.column++;
+        this.character = this.reader.read();
+    }
+
+    private Token end() {
+        return new Token("", this.line, this.column);
+    }
+
+    private static LOGOSyntaxErrorException error(String message, Token token) {
+        return new LOGOSyntaxErrorException(message, token.line, token.column);
+    }
+
+    private static boolean isNumeric(String s) {
+        try {
+            Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Token del sorgente, con la riga e la colonna in cui inizia.
+     */
+    private static final class Token {
+
+        private final String text;
+        private final int line;
+        private final int column;
+
+        private Token(String text, int line, int column) {
+            this.text = text;
+            this.line = line;
+            this.column = column;
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rappresenta un programma LOGO compilato in un array di codici operativi, con gli operandi
+ * gi&agrave; convertiti in interi. L' esecuzione del programma non richiede quindi alcuna
+ * elaborazione di stringhe, nemmeno per le istruzioni ripetute da un REPEAT.
+ * Il testo di un programma viene sempre analizzato da {@link LOGOParser}, per cui il blocco di un REPEAT
+ * deve essere racchiuso tra "[" e "]" e ogni parola deve essere un' istruzione LOGO o un suo argomento.
+ * Un REPEAT il cui blocco contiene solo spostamenti, rotazioni e comandi della penna viene eseguito
+ * calcolando direttamente tutte le linee generate, che vengono poi aggiunte al piano in un' unica volta.
+ */
+public final class LOGOProgram {
+
+    private static final int FORWARD = 0;
+    private static final int BACKWARD = 1;
+    private static final int LEFT = 2;
+    private static final int RIGHT = 3;
+    private static final int CLEARSCREEN = 4;
+    private static final int HOME = 5;
+    private static final int PENUP = 6;
+    private static final int PENDOWN = 7;
+    private static final int SETPENCOLOR = 8;
+    private static final int SETFILLCOLOR = 9;
+    private static final int SETSCREENCOLOR = 10;
+    private static final int SETPENSIZE = 11;
+    private static final int REPEAT = 12;
+    private static final int END = 13;
+    private static final int MOTION = 14;
+    private static final List<String> NAMES = Arrays.asList("FORWARD", "BACKWARD", "LEFT", "RIGHT", "CLEARSCREEN",
+            "HOME", "PENUP", "PENDOWN", "SETPENCOLOR", "SETFILLCOLOR", "SETSCREENCOLOR", "SETPENSIZE", "REPEAT");
+    private static final int[] OPERANDS = {1, 1, 1, 1, 0, 0, 0, 0, 3, 3, 3, 1};
+
+    private final int[] code;
+    private final int depth;
+
+    private LOGOProgram(int[] code, int depth) {
+        this.code = code;
+        this.depth = depth;
+    }
+
+    /**
+     * Compila un programma LOGO, analizzandone il testo con {@link LOGOParser}.
+     *
+     * @param source il sorgente del programma da compilare.
+     * @return il programma compilato.
+     * @throws LOGOSyntaxErrorException se il sorgente contiene un errore di sintassi, con la sua posizione.
+     */
+    public static LOGOProgram compile(String source) throws LOGOSyntaxErrorException {
+        try {
+            return of(LOGOParser.parse(new StringReader(source)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compila un REPEAT che ripete le istruzioni descritte dai token specificati per il numero di volte specificato.
+     *
+     * @param times  il numero di ripetizioni.
+     * @param tokens i token delle istruzioni da ripetere.
+     * @return il programma compilato.
+     * @throws LOGOSyntaxErrorException se uno dei token non &egrave; un' istruzione LOGO oppure se mancano
+     *                                  o non sono validi gli argomenti di un' istruzione.
+     */
+    public static LOGOProgram compileRepeat(int times, List<String> tokens) throws LOGOSyntaxErrorException {
+        List<LOGOStatement> body = LOGOParser.parse(String.join(" ", tokens));
+        return of(Collections.singletonList(new LOGOStatement("REPEAT", new int[]{times}, body, 1, 1)));
+    }
+
+    /**
+     * Compila le istruzioni LOGO gi&agrave; analizzate da {@link LOGOParser}.
+     *
+     * @param statements le istruzioni da compilare.
+     * @return il programma compilato.
+     * @throws IllegalArgumentException se una delle istruzioni non &egrave; un' istruzione LOGO oppure
+     *                                  se non ha il numero di argomenti richiesto.
+     */
+    public static LOGOProgram of(List<LOGOStatement> statements) {
+        Compiler compiler = new Compiler();
+        compiler.statements(statements);
+        return compiler.program();
+    }
+
+    /**
+     * Esegue questo programma nel piano specificato.
+     * Ogni istruzione produce, come la corrispondente istruzione di {@link Instruction}, una nuova versione del piano.
+     *
+     * @param plane il piano in cui eseguire il programma.
+     * @return un piano contenente le modifiche dopo aver eseguito il programma.
+     */
+    public Plane<Point<Double>> execute(Plane<Point<Double>> plane) {
+        return execute(plane, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Esegue questo programma nel piano specificato, interrompendo l' esecuzione se supera il numero
+     * massimo di istruzioni o il tempo massimo specificati. Le ripetizioni di un REPEAT contano come
+     * le istruzioni del blocco ripetuto, mentre il REPEAT stesso non viene contato.
+     *
+     * @param plane             il piano in cui eseguire il programma.
+     * @param instructionBudget il numero massimo di istruzioni da eseguire.
+     * @param timeout           il tempo massimo di esecuzione, null se l' esecuzione non ha limiti di tempo.
+     * @return un piano contenente le modifiche dopo aver eseguito il programma.
+     * @throws IllegalArgumentException   se il numero massimo di istruzioni &egrave; negativo.
+     * @throws LOGOLimitExceededException se l' esecuzione supera uno dei limiti specificati.
+     */
+    public Plane<Point<Double>> execute(Plane<Point<Double>> plane, long instructionBudget, Duration timeout) {
+        if (instructionBudget < 0)
+            throw new IllegalArgumentException("Invalid instruction budget: " + instructionBudget);
+        long deadline = timeout == null ? 0 : System.nanoTime() + timeout.toNanos();
+        long executed = 0;
+        long steps = 0;
+        Plane<Point<Double>> p = plane;
+        int[] code = this.code;
+        Blocks blocks = new Blocks(this.depth);
+        int pc = 0;
+        while (pc < code.length) {
+            if (timeout != null && (steps++ & 0xFF) == 0 && System.nanoTime() - deadline > 0)
+                throw timeoutExceeded(timeout, p);
+            if (code[pc] < REPEAT && ++executed > instructionBudget)
+                throw new LOGOLimitExceededException("Instruction budget of " + instructionBudget + " exceeded", LOGOLimitExceededException.Limit.INSTRUCTIONS, p);
+            switch (code[pc]) {
+                case FORWARD:
+                    p = Instruction.forward(p, code[pc + 1]);
+                    pc += 2;
+                    break;
+                case BACKWARD:
+                    p = Instruction.backward(p, code[pc + 1]);
+                    pc += 2;
+                    break;
+                case LEFT:
+                    p = Instruction.left(p, code[pc + 1]);
+                    pc += 2;
+                    break;
+                case RIGHT:
+                    p = Instruction.right(p, code[pc + 1]);
+                    pc += 2;
+                    break;
+                case CLEARSCREEN:
+                    p = Instruction.clearScreen(p);
+                    pc++;
+                    break;
+                case HOME:
+                    p = Instruction.home(p);
+                    pc++;
+                    break;
+                case PENUP:
+                    p = Instruction.penUp(p);
+                    pc++;
+                    break;
+                case PENDOWN:
+                    p = Instruction.penDown(p);
+                    pc++;
+                    break;
+                case SETPENCOLOR:
+                    p = Instruction.setPenColor(p, code[pc + 1], code[pc + 2], code[pc + 3]);
+                    pc += 4;
+                    break;
+                case SETFILLCOLOR:
+                    p = Instruction.setFillColor(p, code[pc + 1], code[pc + 2], code[pc + 3]);
+                    pc += 4;
+                    break;
+                case SETSCREENCOLOR:
+                    p = Instruction.setScreenColor(p, code[pc + 1], code[pc + 2], code[pc + 3]);
+                    pc += 4;
+                    break;
+                case SETPENSIZE:
+                    p = Instruction.setPenSize(p, code[pc + 1]);
+                    pc += 2;
+                    break;
+                case MOTION: {
+                    Plane<Point<Double>> moved = motion(p, code[pc + 1], pc + 3, code[pc + 2] - 2,
+                            instructionBudget - executed, deadline, timeout);
+                    if (moved != null) {
+                        p = moved;
+                        executed += (long) Math.max(code[pc + 1], 0) * count(pc + 3, code[pc + 2] - 2);
+                        pc = code[pc + 2];
+                    } else
+                        // il cursore esce dal piano o il blocco supera il numero massimo di istruzioni:
+                        // il blocco viene eseguito come un normale REPEAT
+                        pc = blocks.enter(code, pc);
+                    break;
+                }
+                case REPEAT:
+                    pc = blocks.enter(code, pc);
+                    break;
+                case END:
+                    pc = blocks.end(code, pc);
+                    break;
+                default:
+                    throw new IllegalStateException("Invalid opcode " + code[pc] + " at " + pc);
+            }
+        }
+        return p == plane ? new DefaultPlane(plane) : p;
+    }
+
+    private static LOGOLimitExceededException timeoutExceeded(Duration timeout, Plane<Point<Double>> plane) {
+        return new LOGOLimitExceededException("Timeout of " + timeout.toMillis() + " ms exceeded", LOGOLimitExceededException.Limit.TIME, plane);
+    }
+
+    /**
+     * Esegue le ripetizioni di un blocco di soli spostamenti, rotazioni e comandi della penna calcolando
+     * direttamente le posizioni del cursore, con gli stessi arrotondamenti di {@link Instruction#forward(Plane, int)}.
+     * Le linee generate vengono notificate ai listener a gruppi di linee consecutive, insieme agli spostamenti
+     * del cursore con la penna alzata, e poi aggiunte al piano con un' unica chiamata a
+     * {@link Plane#addLines(java.util.Collection)}, che notifica le aree chiuse generate.
+     *
+     * @param plane    il piano in cui eseguire il blocco.
+     * @param times    il numero di ripetizioni del blocco.
+     * @param from     la posizione della prima istruzione del blocco.
+     * @param to       la posizione successiva all' ultima istruzione del blocco.
+     * @param budget   il numero di istruzioni che possono ancora essere eseguite.
+     * @param deadline l' istante, in nanosecondi, entro cui deve terminare l' esecuzione.
+     * @param timeout  il tempo massimo di esecuzione, null se l' esecuzione non ha limiti di tempo.
+     * @return il piano risultante, null se il cursore dovrebbe superare i bordi del piano o se il blocco
+     * supera il numero di istruzioni che possono ancora essere eseguite.
+     * @throws LOGOLimitExceededException se l' esecuzione supera il tempo massimo, con il piano precedente al blocco.
+     */
+    @SuppressWarnings("unchecked")
+    private Plane<Point<Double>> motion(Plane<Point<Double>> plane, int times, int from, int to,
+                                        long budget, long deadline, Duration timeout) {
+        if (times <= 0)
+            return plane;
+        Cursor<Point<Double>, SimpleDirection> cursor = plane.getCursor();
+        Point<Double> position = cursor.getPosition();
+        double x = position.getDoubleX(), y = position.getDoubleY();
+        int degrees = cursor.getDirection().getDirectionWay();
+        boolean pen = cursor.isPen(), plot = cursor.isPlot();
+        RGBColor color = cursor.getLineColor();
+        int size = cursor.getPenSize();
+        List<Line<Point<Double>>> lines = new ArrayList<>();
+        List<Object> events = new ArrayList<>();
+        long executed = 0;
+        for (int i = 0; i < times; i++)
+            for (int pc = from; pc < to; ) {
+                if (++executed > budget)
+                    return null;
+                if (timeout != null && (executed & 0xFF) == 0 && System.nanoTime() - deadline > 0)
+                    throw timeoutExceeded(timeout, plane);
+                switch (this.code[pc]) {
+                    case FORWARD:
+                    case BACKWARD: {
+                        int dist = this.code[pc + 1];
+                        if (dist < 0)
+                            throw new IllegalArgumentException("Negative distance!");
+                        double angleCos = dist * SimpleDirection.cos(degrees), angleSin = dist * SimpleDirection.sin(degrees);
+                        if (this.code[pc] == BACKWARD) {
+                            angleCos = -angleCos;
+                            angleSin = -angleSin;
+                        }
+                        double newX = Math.round((x + angleCos) * 100.0) / 100.0;
+                        double newY = Math.round((y + angleSin) * 100.0) / 100.0;
+                        if (newY >= plane.getHeight() || newY < 0 || newX >= plane.getLength() || newX < 0)
+                            return null;
+                        Point<Double> newPosition = Point.cartesianPoint(newX, newY);
+                        if (pen) {
+                            Line<Point<Double>> l = new Segment<>(position, newPosition, color, size);
+                            lines.add(l);
+                            events.add(l);
+                        } else
+                            events.add(newPosition);
+                        plot = pen;
+                        position = newPosition;
+                        x = newX;
+                        y = newY;
+                        pc += 2;
+                        break;
+                    }
+                    case LEFT:
+                    case RIGHT: {
+                        int angle = this.code[pc + 1];
+                        if (angle < 0 || angle > 360)
+                            throw new IllegalArgumentException("Angle out of range");
+                        if (this.code[pc] == RIGHT) {
+                            degrees -= angle;
+                            degrees = degrees < 0 ? degrees + 360 : degrees;
+                        } else {
+                            degrees += angle;
+                            degrees = degrees >= 360 ? degrees - 360 : degrees;
+                        }
+                        pc += 2;
+                        break;
+                    }
+                    case PENUP:
+                        pen = false;
+                        pc++;
+                        break;
+                    default:
+                        pen = true;
+                        pc++;
+                        break;
+                }
+            }
+        Plane<Point<Double>> p = new DefaultPlane(plane);
+        p.getCursor().setPosition(position);
+        p.getCursor().setDirection(Directional.simpleDirection(degrees));
+        if (pen)
+            p.getCursor().penDown();
+        else
+            p.getCursor().penUp();
+        p.getCursor().setPlot(plot);
+        ExecutionTracer tracer = p.getTracer();
+        Point<Double> previous = cursor.getPosition();
+        List<Line<Point<Double>>> batch = new ArrayList<>();
+        for (Object e : events)
+            if (e instanceof Line) {
+                Line<Point<Double>> l = (Line<Point<Double>>) e;
+                tracer.generatedLine(l);
+                batch.add(l);
+                previous = l.getEndPoint();
+            } else {
+                fireLines(p, batch);
+                tracer.movedCursor(previous, (Point<Double>) e);
+                p.getPlaneUpdateSupport().fireMovedCursor((Point<Double>) e);
+                previous = (Point<Double>) e;
+            }
+        fireLines(p, batch);
+        p.addLines(lines);
+        return p;
+    }
+
+    /**
+     * Notifica ai listener del piano le linee specificate, se ce ne sono, e svuota la lista.
+     */
+    private static void fireLines(Plane<Point<Double>> plane, List<Line<Point<Double>>> lines) {
+        if (lines.isEmpty())
+            return;
+        plane.getPlaneUpdateSupport().fireGeneratedLines(new ArrayList<>(lines));
+        lines.clear();
+    }
+
+    /**
+     * Restituisce il numero di istruzioni comprese tra le posizioni specificate.
+     */
+    private int count(int from, int to) {
+        int count = 0;
+        for (int pc = from; pc < to; pc += 1 + OPERANDS[this.code[pc]])
+            count++;
+        return count;
+    }
+
+    /**
+     * Restituisce il numero di argomenti dell' istruzione LOGO specificata.
+     *
+     * @param name il nome dell' istruzione.
+     * @return il numero di argomenti dell' istruzione, oppure -1 se name non &egrave; un' istruzione LOGO.
+     */
+    static int arity(String name) {
+        int op = NAMES.indexOf(name);
+        return op < 0 ? -1 : op == REPEAT ? 1 : OPERANDS[op];
+    }
+
+    @Override
+    public String toString() {
+        return "LOGOProgram{ code=" + Arrays.toString(this.code) + " }";
+    }
+
+    /**
+     * Pila dei contatori dei REPEAT in esecuzione, con il numero di ripetizioni rimaste per ogni blocco.
+     */
+    private static final class Blocks {
+
+        private final int[] counters;
+        private int top;
+
+        private Blocks(int depth) {
+            this.counters = new int[depth];
+        }
+
+        /**
+         * Entra nel blocco del REPEAT in posizione pc, o lo salta se non deve essere ripetuto.
+         *
+         * @return la posizione della prossima istruzione da eseguire.
+         */
+        private int enter(int[] code, int pc) {
+            if (code[pc + 1] <= 0)
+                return code[pc + 2];
+            this.counters[this.top++] = code[pc + 1];
+            return pc + 3;
+        }
+
+        /**
+         * Termina una ripetizione del blocco chiuso dalla fine in posizione pc.
+         *
+         * @return la posizione della prossima istruzione da eseguire.
+         */
+        private int end(int[] code, int pc) {
+            if (--this.counters[this.top - 1] > 0)
+                return code[pc + 1];
+            this.top--;
+            return pc + 2;
+        }
+    }
+
+    /**
+     * Compilatore delle istruzioni analizzate da {@link LOGOParser} nei codici operativi di un LOGOProgram.
+     */
+    private static final class Compiler {
+
+        private int[] code = new int[16];
+        private int size;
+        private int depth;
+        private int maxDepth;
+
+        private LOGOProgram program() {
+            return new LOGOProgram(Arrays.copyOf(this.code, this.size), this.maxDepth);
+        }
+
+        /**
+         * Compila le istruzioni gi&agrave; analizzate, compresi i blocchi dei REPEAT.
+         */
+        private void statements(List<LOGOStatement> statements) {
+            for (LOGOStatement statement : statements) {
+                int op = NAMES.indexOf(statement.getName());
+                if (op < 0)
+                    throw new IllegalArgumentException("Nonexistent instruction: " + statement.getName());
+                int[] arguments = statement.getArguments();
+                if (arguments.length != arity(statement.getName()))
+                    throw new IllegalArgumentException("Invalid number of arguments for " + statement.getName() + " instruction");
+                if (op == REPEAT) {
+                    int jump = beginRepeat(arguments[0]);
+                    statements(statement.getBody());
+                    endRepeat(jump);
+                } else {
+                    emit(op);
+                    for (int argument : arguments)
+                        emit(argument);
+                }
+            }
+        }
+
+        /**
+         * Emette l' inizio di un REPEAT e restituisce la posizione in cui scrivere la fine del blocco.
+         */
+        private int beginRepeat(int times) {
+            emit(REPEAT);
+            emit(times);
+            int jump = this.size;
+            emit(0);
+            this.maxDepth = Math.max(this.maxDepth, ++this.depth);
+            return jump;
+        }
+
+        /**
+         * Emette la fine del REPEAT iniziato con {@link #beginRepeat(int)}.
+         */
+        private void endRepeat(int jump) {
+            int start = jump + 1;
+            this.depth--;
+            if (isMotion(start, this.size))
+                this.code[jump - 2] = MOTION;
+            emit(END);
+            emit(start);
+            this.code[jump] = this.size;
+        }
+
+        /**
+         * Verifica se le istruzioni comprese tra le posizioni specificate sono solo spostamenti,
+         * rotazioni e comandi della penna.
+         */
+        private boolean isMotion(int from, int to) {
+            for (int pc = from; pc < to; pc += 1 + OPERANDS[this.code[pc]]) {
+                int op = this.code[pc];
+                if (op != FORWARD && op != BACKWARD && op != LEFT && op != RIGHT && op != PENUP && op != PENDOWN)
+                    return false;
+            }
+            return true;
+        }
+
+        private void emit(int value) {
+            if (this.size == this.code.length)
+                this.code = Arrays.copyOf(this.code, this.size * 2);
+            this.code[this.size++] = value;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Rappresenta un nodo dell' albero sintattico di un programma LOGO, ovvero un' istruzione con i suoi
+ * argomenti e la posizione in cui si trova nel sorgente.
+ * Un' istruzione REPEAT contiene inoltre il blocco delle istruzioni da ripetere, che possono essere
+ * a loro volta delle istruzioni REPEAT.
+ */
+public final class LOGOStatement {
+
+    private final String name;
+    private final int[] arguments;
+    private final List<LOGOStatement> body;
+    private final int line;
+    private final int column;
+
+    /**
+     * Crea un' istruzione.
+     *
+     * @param name      il nome dell' istruzione.
+     * @param arguments gli argomenti dell' istruzione.
+     * @param body      le istruzioni del blocco di un REPEAT, vuoto per le altre istruzioni.
+     * @param line      la riga del sorgente in cui inizia l' istruzione.
+     * @param column    la colonna del sorgente in cui inizia l' istruzione.
+     */
+    public LOGOStatement(String name, int[] arguments, List<LOGOStatement> body, int line, int column) {
+        this.name = Objects.requireNonNull(name, "Null instruction name!");
+        this.arguments = arguments.clone();
+        this.body = Collections.unmodifiableList(body);
+        this.line = line;
+        this.column = column;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int[] getArguments() {
+        return this.arguments.clone();
+    }
+
+    public List<LOGOStatement> getBody() {
+        return this.body;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+
+    /**
+     * Restituisce il testo dell' istruzione, con i token separati da spazi, nella forma
+     * accettata da {@link LOGOProgram#compile(String)}.
+     *
+     * @return il testo dell' istruzione.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        appendTo(text);
+        return text.toString();
+    }
+
+    private void appendTo(StringBuilder text) {
+        text.append(this.name);
+        for (int argument : this.arguments)
+            text.append(' ').append(argument);
+        if (this.name.equals("REPEAT")) {
+            text.append(" [");
+            for (LOGOStatement statement : this.body) {
+                text.append(' ');
+                statement.appendTo(text);
+            }
+            text.append(" ]");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LOGOStatement that = (LOGOStatement) o;
+        return line == that.line && column == that.column && name.equals(that.name)
+                && Arrays.equals(arguments, that.arguments) && body.equals(that.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(name, body, line, column) + Arrays.hashCode(arguments);
+    }
+}
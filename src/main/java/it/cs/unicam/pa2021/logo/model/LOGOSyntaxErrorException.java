@@ -6,7 +6,43 @@ package it.cs.unicam.pa2021.logo.model;
  */
 public class LOGOSyntaxErrorException extends Exception {
 
+    private final int line;
+    private final int column;
+
     public LOGOSyntaxErrorException(String error) {
         super(error);
+        this.line = 0;
+        this.column = 0;
+    }
+
+    /**
+     * Crea l' eccezione per un errore di sintassi che si trova nella posizione specificata del sorgente.
+     *
+     * @param error  la descrizione dell' errore.
+     * @param line   la riga dell' errore, a partire da 1.
+     * @param column la colonna dell' errore, a partire da 1.
+     */
+    public LOGOSyntaxErrorException(String error, int line, int column) {
+        super(error + " at line " + line + ", column " + column);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Restituisce la riga del sorgente in cui si trova l' errore.
+     *
+     * @return la riga dell' errore, oppure 0 se la posizione non &egrave; nota.
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Restituisce la colonna del sorgente in cui si trova l' errore.
+     *
+     * @return la colonna dell' errore, oppure 0 se la posizione non &egrave; nota.
+     */
+    public int getColumn() {
+        return this.column;
     }
 }
@@ -0,0 +1,274 @@
+package it.cs.unicam.pa2021.logo.model;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rappresenta un grafo non orientato i cui nodi sono memorizzati in una {@link PersistentHashMap}.
+ * Ogni nodo conserva i propri dati, le etichette dei nodi adiacenti nell' ordine di inserimento
+ * e il proprio elemento della union-find delle componenti connesse, per cui la copia di un grafo
+ * richiede tempo costante e condivide con l' originale tutta la sua struttura: ogni modifica successiva
+ * sostituisce solo i nodi coinvolti, in tempo O(log32 N) pi&ugrave; il loro grado.
+ * Tra due nodi possono esserci pi&ugrave; archi e la rimozione di un arco ne rimuove una sola occorrenza.
+ * La ricerca del cammino viene eseguita solo quando i due nodi risultano
+ * nella stessa componente. La union-find non comprime i cammini, perch&eacute; una ricerca modificherebbe
+ * il grafo condiviso con le sue copie, ma l' unione per dimensione limita la profondit&agrave; a O(log N).
+ * Le modifiche di un gruppo di operazioni possono essere raccolte con {@link #startBatch()} e scritte nella mappa
+ * con {@link #commitBatch()}, una sola volta per ogni nodo modificato.
+ *
+ * @param <D> il tipo parametrico per l' oggetto da contenere nel nodo
+ */
+public final class PersistentGraph<D> implements Graph<D> {
+
+    private static final int[] NO_ADJACENCIES = new int[0];
+
+    private PersistentHashMap<Integer, Node<D>> nodes;
+    private Map<Integer, Node<D>> changes;
+    private int edges;
+
+    /**
+     * Crea un grafo non orientato persistente.
+     */
+    public PersistentGraph() {
+        this(PersistentHashMap.empty(), 0);
+    }
+
+    private PersistentGraph(PersistentHashMap<Integer, Node<D>> nodes, int edges) {
+        this.nodes = nodes;
+        this.edges = edges;
+    }
+
+    @Override
+    public void addEdge(GraphNode<Integer, D> u, GraphNode<Integer, D> v) {
+        int a = u.getLabel(), b = v.getLabel();
+        Node<D> from = this.getOrCreate(a);
+        this.store(a, new Node<>(u.getData(), append(from.adjacent, b), from.parent, from.size));
+        Node<D> to = this.getOrCreate(b);
+        this.store(b, new Node<>(v.getData(), append(to.adjacent, a), to.parent, to.size));
+        this.union(a, b);
+        this.edges++;
+    }
+
+    /**
+     * Inizia a raccogliere le modifiche del grafo fuori dalla mappa persistente, fino alla chiamata
+     * di {@link #commitBatch()}. Un nodo modificato pi&ugrave; volte viene cos&igrave; scritto nella mappa una volta sola.
+     */
+    void startBatch() {
+        if (this.changes == null)
+            this.changes = new HashMap<>();
+    }
+
+    /**
+     * Scrive nella mappa persistente le modifiche raccolte dall' ultima chiamata di {@link #startBatch()}.
+     */
+    void commitBatch() {
+        this.flush();
+        this.changes = null;
+    }
+
+    private void flush() {
+        if (this.changes == null)
+            return;
+        for (Map.Entry<Integer, Node<D>> e : this.changes.entrySet())
+            this.nodes = this.nodes.put(e.getKey(), e.getValue());
+        this.changes.clear();
+    }
+
+    private Node<D> node(int label) {
+        if (this.changes != null) {
+            Node<D> node = this.changes.get(label);
+            if (node != null)
+                return node;
+        }
+        return this.nodes.get(label);
+    }
+
+    private void store(int label, Node<D> node) {
+        if (this.changes != null)
+            this.changes.put(label, node);
+        else
+            this.nodes = this.nodes.put(label, node);
+    }
+
+    private Node<D> getOrCreate(int label) {
+        Node<D> node = this.node(label);
+        return node == null ? new Node<>(null, NO_ADJACENCIES, label, 1) : node;
+    }
+
+    private static int[] append(int[] adjacent, int label) {
+        int[] result = Arrays.copyOf(adjacent, adjacent.length + 1);
+        result[adjacent.length] = label;
+        return result;
+    }
+
+    @Override
+    public void removeEdge(GraphNode<Integer, D> u, GraphNode<Integer, D> v) {
+        int a = u.getLabel(), b = v.getLabel();
+        Node<D> from = this.node(a), to = this.node(b);
+        if (from == null || to == null)
+            return;
+        int i = indexOf(from.adjacent, b), j = indexOf(to.adjacent, a);
+        if (i < 0 || j < 0)
+            return;
+        this.store(a, new Node<>(from.data, remove(from.adjacent, i), from.parent, from.size));
+        to = this.node(b);
+        this.store(b, new Node<>(to.data, remove(to.adjacent, indexOf(to.adjacent, a)), to.parent, to.size));
+        this.edges--;
+    }
+
+    private static int indexOf(int[] adjacent, int label) {
+        for (int i = 0; i < adjacent.length; i++)
+            if (adjacent[i] == label)
+                return i;
+        return -1;
+    }
+
+    private static int[] remove(int[] adjacent, int index) {
+        int[] result = new int[adjacent.length - 1];
+        System.arraycopy(adjacent, 0, result, 0, index);
+        System.arraycopy(adjacent, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    @Override
+    public List<GraphNode<Integer, D>> getPath(GraphNode<Integer, D> u, GraphNode<Integer, D> v) {
+        int from = u.getLabel(), to = v.getLabel();
+        if (this.node(from) == null || this.node(to) == null || this.find(from) != this.find(to))
+            return Collections.emptyList();
+        Map<Integer, Integer> parents = new HashMap<>();
+        List<Integer> queue = new ArrayList<>();
+        queue.add(from);
+        parents.put(from, from);
+        for (int first = 0; first < queue.size(); first++) {
+            int x = queue.get(first);
+            for (int y : this.node(x).adjacent) {
+                if ((x == from && y == to) || parents.containsKey(y))
+                    continue;
+                parents.put(y, x);
+                if (y == to) {
+                    List<GraphNode<Integer, D>> path = new ArrayList<>();
+                    for (int z = to; z != from; z = parents.get(z))
+                        path.add(new GraphNode<>(z, this.node(z).data));
+                    path.add(new GraphNode<>(from, this.node(from).data));
+                    Collections.reverse(path);
+                    return path;
+                }
+                queue.add(y);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Verifica se i nodi con le etichette specificate appartengono alla stessa componente.
+     * Poich&eacute; la rimozione di un arco non separa le componenti della union-find, due nodi
+     * possono risultare collegati anche quando non lo sono pi&ugrave;.
+     *
+     * @param a l' etichetta del primo nodo.
+     * @param b l' etichetta del secondo nodo.
+     * @return true se i due nodi sono nel grafo e nella stessa componente, false altrimenti.
+     */
+    boolean isConnected(int a, int b) {
+        return this.node(a) != null && this.node(b) != null && this.find(a) == this.find(b);
+    }
+
+    /**
+     * Restituisce le etichette dei nodi adiacenti al nodo con l' etichetta specificata, nell' ordine di inserimento.
+     * L' array restituito &egrave; condiviso con il grafo e non deve essere modificato.
+     *
+     * @param label l' etichetta del nodo.
+     * @return le etichette dei nodi adiacenti, un array vuoto se il nodo non &egrave; nel grafo.
+     */
+    int[] getAdjacent(int label) {
+        Node<D> node = this.node(label);
+        return node == null ? NO_ADJACENCIES : node.adjacent;
+    }
+
+    /**
+     * Restituisce i dati del nodo con l' etichetta specificata.
+     *
+     * @param label l' etichetta del nodo.
+     * @return i dati del nodo, null se il nodo non &egrave; nel grafo.
+     */
+    D getData(int label) {
+        Node<D> node = this.node(label);
+        return node == null ? null : node.data;
+    }
+
+    private int find(int x) {
+        for (Node<D> node = this.node(x); node.parent != x; node = this.node(x))
+            x = node.parent;
+        return x;
+    }
+
+    private void union(int a, int b) {
+        int rootA = this.find(a), rootB = this.find(b);
+        if (rootA == rootB)
+            return;
+        Node<D> nodeA = this.node(rootA), nodeB = this.node(rootB);
+        if (nodeA.size < nodeB.size) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+            Node<D> swapNode = nodeA;
+            nodeA = nodeB;
+            nodeB = swapNode;
+        }
+        this.store(rootB, new Node<>(nodeB.data, nodeB.adjacent, rootA, nodeB.size));
+        this.store(rootA, new Node<>(nodeA.data, nodeA.adjacent, nodeA.parent, nodeA.size + nodeB.size));
+    }
+
+    @Override
+    public void clear() {
+        this.nodes = PersistentHashMap.empty();
+        if (this.changes != null)
+            this.changes.clear();
+        this.edges = 0;
+    }
+
+    @Override
+    public Map<Integer, D> getNodes() {
+        this.flush();
+        Map<Integer, D> nodes = new HashMap<>();
+        for (Map.Entry<Integer, Node<D>> e : this.nodes)
+            nodes.put(e.getKey(), e.getValue().data);
+        return nodes;
+    }
+
+    @Override
+    public int getEdges() {
+        return this.edges;
+    }
+
+    @Override
+    public PersistentGraph<D> copy() {
+        this.flush();
+        return new PersistentGraph<>(this.nodes, this.edges);
+    }
+
+    /**
+     * Nodo immutabile del grafo: i dati, le etichette dei nodi adiacenti e, per la union-find,
+     * l' etichetta del nodo padre e la dimensione della componente di cui il nodo &egrave; radice.
+     *
+     * @param <D> il tipo parametrico per l' oggetto contenuto nel nodo.
+     */
+    private static final class Node<D> {
+
+        private final D data;
+        private final int[] adjacent;
+        private final int parent;
+        private final int size;
+
+        private Node(D data, int[] adjacent, int parent, int size) {
+            this.data = data;
+            this.adjacent = adjacent;
+            this.parent = parent;
+            this.size = size;
+        }
+    }
+}
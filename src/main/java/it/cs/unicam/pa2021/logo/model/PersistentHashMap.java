@@ -0,0 +1,319 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Mappa persistente e immutabile, realizzata tramite un hash array mapped trie (HAMT).
+ * Ogni inserimento restituisce una nuova versione della mappa in tempo O(log32 N),
+ * condividendo con la versione precedente tutti i nodi non modificati.
+ *
+ * @param <K> il tipo parametrico delle chiavi.
+ * @param <V> il tipo parametrico dei valori.
+ */
+public final class PersistentHashMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Object root;
+    private final int size;
+
+    private PersistentHashMap(Object root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Restituisce la mappa persistente vuota.
+     *
+     * @param <K> il tipo parametrico delle chiavi.
+     * @param <V> il tipo parametrico dei valori.
+     * @return la mappa persistente vuota.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Restituisce il numero di associazioni presenti nella mappa.
+     *
+     * @return il numero di associazioni della mappa.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Verifica se la mappa non contiene associazioni.
+     *
+     * @return true se la mappa &egrave; vuota, false altrimenti.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Verifica se la chiave specificata &egrave; presente nella mappa.
+     *
+     * @param key la chiave da cercare.
+     * @return true se la chiave &egrave; presente, false altrimenti.
+     */
+    public boolean containsKey(Object key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Restituisce il valore associato alla chiave specificata.
+     *
+     * @param key la chiave da cercare.
+     * @return il valore associato alla chiave, null se la chiave non &egrave; presente.
+     */
+    public V get(Object key) {
+        Entry<K, V> entry = find(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Restituisce una nuova versione della mappa in cui la chiave specificata &egrave; associata al valore
+     * specificato. Questa mappa non viene modificata.
+     *
+     * @param key   la chiave.
+     * @param value il valore da associare alla chiave.
+     * @return la nuova mappa contenente l' associazione specificata.
+     */
+    public PersistentHashMap<K, V> put(K key, V value) {
+        Entry<K, V> entry = new Entry<>(hash(key), key, value);
+        if (this.root == null)
+            return new PersistentHashMap<>(entry, 1);
+        boolean[] added = new boolean[1];
+        Object newRoot = put(this.root, 0, entry, added);
+        return new PersistentHashMap<>(newRoot, added[0] ? this.size + 1 : this.size);
+    }
+
+    /**
+     * Restituisce una nuova versione della mappa senza l' associazione per la chiave specificata.
+     * Questa mappa non viene modificata.
+     *
+     * @param key la chiave da rimuovere.
+     * @return la nuova mappa senza la chiave specificata, questa stessa mappa se la chiave non &egrave; presente.
+     */
+    public PersistentHashMap<K, V> remove(Object key) {
+        if (this.root == null)
+            return this;
+        Object newRoot = remove(this.root, 0, hash(key), key);
+        if (newRoot == this.root)
+            return this;
+        return new PersistentHashMap<>(newRoot, this.size - 1);
+    }
+
+    private static int hash(Object key) {
+        int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> find(Object key) {
+        int hash = hash(key);
+        Object node = this.root;
+        int shift = 0;
+        while (node != null) {
+            if (node instanceof Entry) {
+                Entry<K, V> entry = (Entry<K, V>) node;
+                return entry.hash == hash && Objects.equals(entry.key, key) ? entry : null;
+            }
+            if (node instanceof Collision) {
+                for (Entry<?, ?> entry : ((Collision) node).entries)
+                    if (entry.hash == hash && Objects.equals(entry.key, key))
+                        return (Entry<K, V>) entry;
+                return null;
+            }
+            BitmapNode bitmapNode = (BitmapNode) node;
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmapNode.bitmap & bit) == 0)
+                return null;
+            node = bitmapNode.slots[Integer.bitCount(bitmapNode.bitmap & (bit - 1))];
+            shift += BITS;
+        }
+        return null;
+    }
+
+    private static Object put(Object node, int shift, Entry<?, ?> entry, boolean[] added) {
+        if (node instanceof Entry) {
+            Entry<?, ?> current = (Entry<?, ?>) node;
+            if (current.hash == entry.hash) {
+                if (Objects.equals(current.key, entry.key))
+                    return entry;
+                added[0] = true;
+                return new Collision(entry.hash, new Entry<?, ?>[]{current, entry});
+            }
+            added[0] = true;
+            return merge(current, current.hash, entry, entry.hash, shift);
+        }
+        if (node instanceof Collision) {
+            Collision collision = (Collision) node;
+            if (collision.hash != entry.hash) {
+                added[0] = true;
+                return merge(collision, collision.hash, entry, entry.hash, shift);
+            }
+            for (int i = 0; i < collision.entries.length; i++)
+                if (Objects.equals(collision.entries[i].key, entry.key)) {
+                    Entry<?, ?>[] entries = collision.entries.clone();
+                    entries[i] = entry;
+                    return new Collision(entry.hash, entries);
+                }
+            Entry<?, ?>[] entries = Arrays.copyOf(collision.entries, collision.entries.length + 1);
+            entries[collision.entries.length] = entry;
+            added[0] = true;
+            return new Collision(entry.hash, entries);
+        }
+        BitmapNode bitmapNode = (BitmapNode) node;
+        int bit = 1 << ((entry.hash >>> shift) & MASK);
+        int index = Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+        if ((bitmapNode.bitmap & bit) == 0) {
+            Object[] slots = new Object[bitmapNode.slots.length + 1];
+            System.arraycopy(bitmapNode.slots, 0, slots, 0, index);
+            slots[index] = entry;
+            System.arraycopy(bitmapNode.slots, index, slots, index + 1, bitmapNode.slots.length - index);
+            added[0] = true;
+            return new BitmapNode(bitmapNode.bitmap | bit, slots);
+        }
+        Object[] slots = bitmapNode.slots.clone();
+        slots[index] = put(slots[index], shift + BITS, entry, added);
+        return new BitmapNode(bitmapNode.bitmap, slots);
+    }
+
+    private static Object remove(Object node, int shift, int hash, Object key) {
+        if (node instanceof Entry) {
+            Entry<?, ?> entry = (Entry<?, ?>) node;
+            return entry.hash == hash && Objects.equals(entry.key, key) ? null : node;
+        }
+        if (node instanceof Collision) {
+            Collision collision = (Collision) node;
+            if (collision.hash != hash)
+                return node;
+            for (int i = 0; i < collision.entries.length; i++)
+                if (Objects.equals(collision.entries[i].key, key)) {
+                    if (collision.entries.length == 2)
+                        return collision.entries[1 - i];
+                    Entry<?, ?>[] entries = new Entry<?, ?>[collision.entries.length - 1];
+                    System.arraycopy(collision.entries, 0, entries, 0, i);
+                    System.arraycopy(collision.entries, i + 1, entries, i, entries.length - i);
+                    return new Collision(hash, entries);
+                }
+            return node;
+        }
+        BitmapNode bitmapNode = (BitmapNode) node;
+        int bit = 1 << ((hash >>> shift) & MASK);
+        if ((bitmapNode.bitmap & bit) == 0)
+            return node;
+        int index = Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+        Object child = remove(bitmapNode.slots[index], shift + BITS, hash, key);
+        if (child == bitmapNode.slots[index])
+            return node;
+        if (child != null) {
+            if (bitmapNode.slots.length == 1 && !(child instanceof BitmapNode))
+                return child;
+            Object[] slots = bitmapNode.slots.clone();
+            slots[index] = child;
+            return new BitmapNode(bitmapNode.bitmap, slots);
+        }
+        if (bitmapNode.slots.length == 1)
+            return null;
+        if (bitmapNode.slots.length == 2 && !(bitmapNode.slots[1 - index] instanceof BitmapNode))
+            return bitmapNode.slots[1 - index];
+        Object[] slots = new Object[bitmapNode.slots.length - 1];
+        System.arraycopy(bitmapNode.slots, 0, slots, 0, index);
+        System.arraycopy(bitmapNode.slots, index + 1, slots, index, slots.length - index);
+        return new BitmapNode(bitmapNode.bitmap & ~bit, slots);
+    }
+
+    private static Object merge(Object first, int firstHash, Object second, int secondHash, int shift) {
+        int firstIndex = (firstHash >>> shift) & MASK;
+        int secondIndex = (secondHash >>> shift) & MASK;
+        if (firstIndex == secondIndex)
+            return new BitmapNode(1 << firstIndex, new Object[]{merge(first, firstHash, second, secondHash, shift + BITS)});
+        return firstIndex < secondIndex
+                ? new BitmapNode((1 << firstIndex) | (1 << secondIndex), new Object[]{first, second})
+                : new BitmapNode((1 << firstIndex) | (1 << secondIndex), new Object[]{second, first});
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private final Deque<Object> stack = new ArrayDeque<>();
+            private final Deque<Entry<?, ?>> pending = new ArrayDeque<>();
+
+            {
+                if (PersistentHashMap.this.root != null)
+                    this.stack.push(PersistentHashMap.this.root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (this.pending.isEmpty() && !this.stack.isEmpty()) {
+                    Object node = this.stack.pop();
+                    if (node instanceof Entry)
+                        this.pending.add((Entry<?, ?>) node);
+                    else if (node instanceof Collision)
+                        this.pending.addAll(Arrays.asList(((Collision) node).entries));
+                    else {
+                        Object[] slots = ((BitmapNode) node).slots;
+                        for (int i = slots.length - 1; i >= 0; i--)
+                            this.stack.push(slots[i]);
+                    }
+                }
+                return !this.pending.isEmpty();
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public Map.Entry<K, V> next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Entry<K, V> entry = (Entry<K, V>) this.pending.poll();
+                return new AbstractMap.SimpleImmutableEntry<>(entry.key, entry.value);
+            }
+        };
+    }
+
+    private static final class Entry<K, V> {
+        private final int hash;
+        private final K key;
+        private final V value;
+
+        private Entry(int hash, K key, V value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Collision {
+        private final int hash;
+        private final Entry<?, ?>[] entries;
+
+        private Collision(int hash, Entry<?, ?>[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+    }
+
+    private static final class BitmapNode {
+        private final int bitmap;
+        private final Object[] slots;
+
+        private BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+}
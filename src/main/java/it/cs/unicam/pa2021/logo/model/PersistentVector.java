@@ -0,0 +1,158 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Vettore persistente e immutabile, realizzato tramite un trie a 32 vie con coda separata.
+ * Ogni aggiunta restituisce una nuova versione del vettore in tempo O(log32 N),
+ * condividendo con la versione precedente tutti i nodi non modificati.
+ *
+ * @param <E> il tipo parametrico degli elementi contenuti nel vettore.
+ */
+public final class PersistentVector<E> implements Iterable<E> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, new Object[WIDTH], new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Restituisce il vettore persistente vuoto.
+     *
+     * @param <E> il tipo parametrico degli elementi del vettore.
+     * @return il vettore persistente vuoto.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Restituisce il numero di elementi contenuti nel vettore.
+     *
+     * @return il numero di elementi del vettore.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Verifica se il vettore non contiene elementi.
+     *
+     * @return true se il vettore &egrave; vuoto, false altrimenti.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Restituisce l' elemento in posizione index.
+     *
+     * @param index la posizione dell' elemento.
+     * @return l' elemento in posizione index.
+     * @throws IndexOutOfBoundsException se index non &egrave; compreso tra 0 e size() - 1.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    /**
+     * Restituisce una nuova versione del vettore con l' elemento specificato aggiunto in coda.
+     * Questo vettore non viene modificato.
+     *
+     * @param element l' elemento da aggiungere.
+     * @return il nuovo vettore contenente anche l' elemento specificato.
+     */
+    public PersistentVector<E> append(E element) {
+        if (this.size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(this.tail, this.tail.length + 1);
+            newTail[this.tail.length] = element;
+            return new PersistentVector<>(this.size + 1, this.shift, this.root, newTail);
+        }
+        Object[] newRoot;
+        int newShift = this.shift;
+        if ((this.size >>> BITS) > (1 << this.shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = this.root;
+            newRoot[1] = newPath(this.shift, this.tail);
+            newShift += BITS;
+        } else
+            newRoot = pushTail(this.shift, this.root, this.tail);
+        return new PersistentVector<>(this.size + 1, newShift, newRoot, new Object[]{element});
+    }
+
+    private int tailOffset() {
+        return this.size < WIDTH ? 0 : ((this.size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        if (index >= tailOffset())
+            return this.tail;
+        Object[] node = this.root;
+        for (int level = this.shift; level > 0; level -= BITS)
+            node = (Object[]) node[(index >>> level) & MASK];
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((this.size - 1) >>> level) & MASK;
+        Object[] node = parent.clone();
+        Object[] toInsert;
+        if (level == BITS)
+            toInsert = tailNode;
+        else {
+            Object[] child = (Object[]) parent[subIndex];
+            toInsert = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        node[subIndex] = toInsert;
+        return node;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0)
+            return node;
+        Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+            private Object[] leaf = PersistentVector.this.size > 0 ? leafFor(0) : null;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < PersistentVector.this.size;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                if (this.index > 0 && (this.index & MASK) == 0)
+                    this.leaf = leafFor(this.index);
+                return (E) this.leaf[this.index++ & MASK];
+            }
+        };
+    }
+}
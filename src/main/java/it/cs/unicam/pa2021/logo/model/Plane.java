@@ -2,6 +2,8 @@ package it.cs.unicam.pa2021.logo.model;
 
 
 import java.util.Queue;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Map;
 import java.util.Set;
@@ -46,6 +48,7 @@ public interface Plane<C> {
 
     /**
      * Restituisce l' insieme delle linee presenti nel piano in ordine cronologico.
+     * La coda restituita non &egrave; modificabile: per aggiungere una linea usare addLine.
      *
      * @return l' insieme delle linee presenti nel piano.
      */
@@ -79,6 +82,22 @@ public interface Plane<C> {
      */
     void addLine(Line<C> line);
 
+    /**
+     * Aggiunge al piano le linee specificate, nell' ordine in cui vengono restituite dalla collezione.
+     * Il risultato &egrave; lo stesso che si otterrebbe aggiungendo le linee una alla volta con {@link #addLine(Line)}.
+     *
+     * @param lines le linee da aggiungere al piano.
+     */
+    default void addLines(Collection<Line<C>> lines) {
+        for (Line<C> l : lines)
+            addLine(l);
+    }
+
+    /**
+     * Cancella tutte le linee, le aree chiuse e i punti presenti nel piano.
+     */
+    void clear();
+
     /**
      * Restituisce il numero di punti presenti nel piano, che appartengono a delle linee presenti nel piano.
      *
@@ -95,6 +114,7 @@ public interface Plane<C> {
 
     /**
      * Restituisce l' insieme di tutte le aree chiuse presenti nel piano.
+     * La coda restituita non &egrave; modificabile.
      *
      * @return l' insieme di tutte le aree chiuse presenti nel piano.
      */
@@ -160,6 +180,15 @@ public interface Plane<C> {
 
     PlaneUpdateSupport<C> getPlaneUpdateSupport();
 
+    /**
+     * Restituisce il tracer che riceve gli eventi dell' esecuzione delle istruzioni in questo piano.
+     *
+     * @return il tracer del piano, {@link ExecutionTracer#NONE} se gli eventi non vengono registrati.
+     */
+    default ExecutionTracer getTracer() {
+        return ExecutionTracer.NONE;
+    }
+
     /**
      * Restituisce la posizione corrente del cursore nel piano.
      *
@@ -187,6 +216,25 @@ public interface Plane<C> {
         return lines;
     }
 
+    /**
+     * Restituisce la prima area chiusa, in ordine di generazione, di cui fa parte la linea specificata.
+     *
+     * @param line la linea da cercare nelle aree chiuse.
+     * @return un Optional descrivente l' area chiusa a cui appartiene la linea, Optional.isEmpty() se
+     * la linea non fa parte di alcuna area chiusa.
+     */
+    Optional<ClosedArea<Line<C>>> areaOf(Line<C> line);
+
+    /**
+     * Restituisce le linee che attraversano il rettangolo avente come vertici opposti i due punti specificati,
+     * bordo compreso, nell' ordine in cui sono state tracciate.
+     *
+     * @param corner   un vertice del rettangolo.
+     * @param opposite il vertice opposto del rettangolo.
+     * @return la lista delle linee che attraversano il rettangolo.
+     */
+    List<Line<C>> getLinesIn(C corner, C opposite);
+
     /**
      * Metodo statico che prese due linee calcola il punto di intersezione.
      *
@@ -195,10 +243,10 @@ public interface Plane<C> {
      * @return il punto di intersezione tra la linea a e la linea b se esiste, Optional.isEmpty() altrimenti.
      */
     static Optional<Point<Double>> intersection(Line<Point<Double>> a, Line<Point<Double>> b) {
-        double x1 = a.getStartingPoint().getX(), y1 = a.getStartingPoint().getY(),
-                x2 = a.getEndPoint().getX(), y2 = a.getEndPoint().getY(),
-                x3 = b.getStartingPoint().getX(), y3 = b.getStartingPoint().getY(),
-                x4 = b.getEndPoint().getX(), y4 = b.getEndPoint().getY();
+        double x1 = a.getStartingPoint().getDoubleX(), y1 = a.getStartingPoint().getDoubleY(),
+                x2 = a.getEndPoint().getDoubleX(), y2 = a.getEndPoint().getDoubleY(),
+                x3 = b.getStartingPoint().getDoubleX(), y3 = b.getStartingPoint().getDoubleY(),
+                x4 = b.getEndPoint().getDoubleX(), y4 = b.getEndPoint().getDoubleY();
         double d = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
         if (d == 0)
             return Optional.empty();
@@ -0,0 +1,148 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Listener che raccoglie le notifiche del piano, anche da un thread diverso da quello della vista,
+ * e le consegna a un altro listener solo quando viene chiamato {@link #flush()}, ad esempio una volta
+ * per ogni fotogramma della vista.
+ * Le linee e le aree notificate tra due consegne vengono inviate con un' unica chiamata
+ * per ogni gruppo consecutivo, mentre degli spostamenti del cursore e dei cambi di colore
+ * viene consegnato solo l' ultimo. La cancellazione dello schermo scarta le linee e le aree
+ * non ancora consegnate.
+ *
+ * @param <C> il tipo parametrico per le coordinate del punto nel piano.
+ */
+public class PlaneUpdateBuffer<C> implements PlaneUpdateListener<C> {
+
+    private final PlaneUpdateListener<C> target;
+    private List<Batch> batches;
+    private C cursor;
+    private RGBColor color;
+    private boolean cleaned;
+
+    /**
+     * Crea un buffer che consegna le notifiche al listener specificato.
+     *
+     * @param target il listener a cui consegnare le notifiche.
+     * @throws NullPointerException se il listener specificato &egrave; null.
+     */
+    public PlaneUpdateBuffer(PlaneUpdateListener<C> target) {
+        this.target = Objects.requireNonNull(target, "Null listener!");
+        this.batches = new ArrayList<>();
+    }
+
+    @Override
+    public synchronized void fireMovedCursor(C point) {
+        this.cursor = point;
+    }
+
+    @Override
+    public synchronized void fireGeneratedLine(Line<C> line) {
+        this.batch(true).add(line);
+        this.cursor = null;
+    }
+
+    @Override
+    public synchronized void fireGeneratedLines(List<Line<C>> lines) {
+        if (lines.isEmpty())
+            return;
+        this.batch(true).addAll(lines);
+        this.cursor = null;
+    }
+
+    @Override
+    public synchronized void fireGeneratedArea(ClosedArea<Line<C>> area) {
+        this.batch(false).add(area);
+    }
+
+    @Override
+    public synchronized void fireGeneratedAreas(List<ClosedArea<Line<C>>> areas) {
+        if (!areas.isEmpty())
+            this.batch(false).addAll(areas);
+    }
+
+    @Override
+    public synchronized void fireScreenColor(RGBColor color) {
+        this.color = color;
+    }
+
+    @Override
+    public synchronized void fireScreenCleaned() {
+        this.batches.clear();
+        this.cleaned = true;
+    }
+
+    /**
+     * Verifica se ci sono notifiche non ancora consegnate.
+     *
+     * @return true se ci sono notifiche da consegnare, false altrimenti.
+     */
+    public synchronized boolean isPending() {
+        return this.cleaned || this.color != null || this.cursor != null || !this.batches.isEmpty();
+    }
+
+    /**
+     * Consegna al listener, nel thread corrente, le notifiche raccolte dall' ultima consegna:
+     * prima l' eventuale cancellazione dello schermo, poi le linee e le aree nell' ordine in cui sono state
+     * generate, infine l' ultimo colore del piano e l' ultima posizione del cursore.
+     * Le notifiche che arrivano durante la consegna vengono raccolte per la consegna successiva.
+     */
+    @SuppressWarnings("unchecked")
+    public void flush() {
+        List<Batch> batches;
+        C cursor;
+        RGBColor color;
+        boolean cleaned;
+        synchronized (this) {
+            batches = this.batches;
+            cursor = this.cursor;
+            color = this.color;
+            cleaned = this.cleaned;
+            this.batches = new ArrayList<>();
+            this.cursor = null;
+            this.color = null;
+            this.cleaned = false;
+        }
+        if (cleaned)
+            this.target.fireScreenCleaned();
+        for (Batch batch : batches) {
+            if (batch.lines)
+                this.target.fireGeneratedLines((List<Line<C>>) (List<?>) batch.items);
+            else
+                this.target.fireGeneratedAreas((List<ClosedArea<Line<C>>>) (List<?>) batch.items);
+        }
+        if (color != null)
+            this.target.fireScreenColor(color);
+        if (cursor != null)
+            this.target.fireMovedCursor(cursor);
+    }
+
+    /**
+     * Restituisce gli elementi dell' ultimo gruppo di notifiche, se &egrave; un gruppo di linee quando lines
+     * &egrave; true o un gruppo di aree altrimenti, oppure quelli di un nuovo gruppo aggiunto in fondo.
+     */
+    private List<Object> batch(boolean lines) {
+        Batch last = this.batches.isEmpty() ? null : this.batches.get(this.batches.size() - 1);
+        if (last != null && last.lines == lines)
+            return last.items;
+        Batch batch = new Batch(lines);
+        this.batches.add(batch);
+        return batch.items;
+    }
+
+    /**
+     * Gruppo consecutivo di linee o di aree notificate tra due consegne.
+     */
+    private static final class Batch {
+
+        private final boolean lines;
+        private final List<Object> items = new ArrayList<>();
+
+        private Batch(boolean lines) {
+            this.lines = lines;
+        }
+    }
+}
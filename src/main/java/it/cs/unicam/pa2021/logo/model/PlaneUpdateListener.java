@@ -1,5 +1,7 @@
 package it.cs.unicam.pa2021.logo.model;
 
+import java.util.List;
+
 /**
  * Descrive la gestione dell' iterazione tra la vista e il modello.
  *
@@ -28,6 +30,26 @@ public interface PlaneUpdateListener<C> {
      */
     void fireGeneratedArea(ClosedArea<Line<C>> area);
 
+    /**
+     * Notifica con un' unica chiamata che sono state generate le linee specificate, nell' ordine della lista.
+     *
+     * @param lines le linee generate.
+     */
+    default void fireGeneratedLines(List<Line<C>> lines) {
+        for (Line<C> l : lines)
+            fireGeneratedLine(l);
+    }
+
+    /**
+     * Notifica con un' unica chiamata che sono state generate le aree chiuse specificate, nell' ordine della lista.
+     *
+     * @param areas le aree chiuse generate.
+     */
+    default void fireGeneratedAreas(List<ClosedArea<Line<C>>> areas) {
+        for (ClosedArea<Line<C>> a : areas)
+            fireGeneratedArea(a);
+    }
+
     /**
      * Notifica che &egrave; stato cambiato il colore al piano.
      *
@@ -36,7 +58,7 @@ public interface PlaneUpdateListener<C> {
     void fireScreenColor(RGBColor color);
 
     /**
-     * Notifica che &eagrve; stato cancellato tutto ci&ograve; che &egrave; stato
+     * Notifica che &egrave; stato cancellato tutto ci&ograve; che &egrave; stato
      * disegnato sullo schermo.
      */
     void fireScreenCleaned();
@@ -1,22 +1,30 @@
 package it.cs.unicam.pa2021.logo.model;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Permette di gestire i cambiamenti delle propriet&agrave; del piano.
+ * I listener sono memorizzati in un array che viene sostituito, e mai modificato, a ogni aggiunta o rimozione:
+ * le notifiche non acquisiscono alcun lock e costano una lettura volatile pi&ugrave; un ciclo sui listener,
+ * anche quando lo stesso gestore &egrave; condiviso da pi&ugrave; esecuzioni contemporanee.
  *
  * @param <C> il tipo parametrico per le coordinate del punto nel piano.
  */
 public class PlaneUpdateSupport<C> {
 
-    List<PlaneUpdateListener<C>> listeners;
+    private final AtomicReference<PlaneUpdateListener<C>[]> listeners;
+    private volatile boolean enabled = true;
 
     /**
      * Crea un gestore dei cambiamenti delle propriet&agrave; del piano.
      */
+    @SuppressWarnings("unchecked")
     public PlaneUpdateSupport() {
-        this.listeners = new ArrayList<>();
+        this.listeners = new AtomicReference<>((PlaneUpdateListener<C>[]) new PlaneUpdateListener<?>[0]);
     }
 
     /**
@@ -25,20 +33,76 @@ public class PlaneUpdateSupport<C> {
      *
      * @param listener il listener da aggiungere.
      */
-    public synchronized void addListener(PlaneUpdateListener<C> listener) {
+    public void addListener(PlaneUpdateListener<C> listener) {
         if (listener == null) return;
-        this.listeners.add(listener);
+        PlaneUpdateListener<C>[] current, updated;
+        do {
+            current = this.listeners.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+        } while (!this.listeners.compareAndSet(current, updated));
     }
 
     /**
-     * Rimuove il listener specificato.
+     * Aggiunge il listener specificato, a cui le notifiche vengono consegnate con l' executor specificato
+     * invece che nel thread che le genera. Le notifiche vengono consegnate nell' ordine in cui sono generate
+     * solo se l' executor esegue i compiti nell' ordine in cui li riceve, ad esempio con un solo thread.
+     * Se il listener specificato &egrave; null, non viene aggiunto.
+     *
+     * @param listener il listener da aggiungere.
+     * @param executor l' executor con cui consegnare le notifiche al listener.
+     * @throws NullPointerException se l' executor specificato &egrave; null.
+     */
+    public void addListener(PlaneUpdateListener<C> listener, Executor executor) {
+        Objects.requireNonNull(executor, "Null executor!");
+        if (listener == null) return;
+        this.addListener(new ExecutorListener<>(listener, executor));
+    }
+
+    /**
+     * Rimuove il listener specificato, anche se &egrave; stato aggiunto con un executor.
      * Se il listener specificato &egrave; null, non viene rimosso nessun listener.
      *
      * @param listener il listener da rimuovere.
      */
-    public synchronized void removeListener(PlaneUpdateListener<C> listener) {
+    public void removeListener(PlaneUpdateListener<C> listener) {
         if (listener == null) return;
-        this.listeners.remove(listener);
+        PlaneUpdateListener<C>[] current, updated;
+        do {
+            current = this.listeners.get();
+            int index = indexOf(current, listener);
+            if (index < 0) return;
+            updated = Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!this.listeners.compareAndSet(current, updated));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C> int indexOf(PlaneUpdateListener<C>[] listeners, PlaneUpdateListener<C> listener) {
+        for (int i = 0; i < listeners.length; i++)
+            if (listeners[i].equals(listener) || (listeners[i] instanceof ExecutorListener
+                    && ((ExecutorListener<C>) listeners[i]).listener.equals(listener)))
+                return i;
+        return -1;
+    }
+
+    /**
+     * Abilita o disabilita le notifiche ai listener, ad esempio mentre vengono ricalcolate
+     * delle configurazioni del piano che non devono essere mostrate.
+     *
+     * @param enabled true per inviare le notifiche, false per ignorarle.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Indica se le notifiche vengono inviate ai listener.
+     *
+     * @return true se le notifiche vengono inviate, false altrimenti.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
     }
 
     /**
@@ -46,8 +110,10 @@ public class PlaneUpdateSupport<C> {
      *
      * @param point il punto in cui il cursore si &egrave; spostato.
      */
-    public synchronized void fireMovedCursor(C point) {
-        listeners.forEach(p -> p.fireMovedCursor(point));
+    public void fireMovedCursor(C point) {
+        if (!this.enabled) return;
+        for (PlaneUpdateListener<C> l : this.listeners.get())
+            l.fireMovedCursor(point);
     }
 
     /**
@@ -55,8 +121,10 @@ public class PlaneUpdateSupport<C> {
      *
      * @param line la linea generata.
      */
-    public synchronized void fireGeneratedLine(Line<C> line) {
-        listeners.forEach(l -> l.fireGeneratedLine(line));
+    public void fireGeneratedLine(Line<C> line) {
+        if (!this.enabled) return;
+        for (PlaneUpdateListener<C> l : this.listeners.get())
+            l.fireGeneratedLine(line);
     }
 
     /**
@@ -64,8 +132,32 @@ public class PlaneUpdateSupport<C> {
      *
      * @param area l' area generata.
      */
-    public synchronized void fireGeneratedArea(ClosedArea<Line<C>> area) {
-        listeners.forEach(a -> a.fireGeneratedArea(area));
+    public void fireGeneratedArea(ClosedArea<Line<C>> area) {
+        if (!this.enabled) return;
+        for (PlaneUpdateListener<C> l : this.listeners.get())
+            l.fireGeneratedArea(area);
+    }
+
+    /**
+     * Notifica tutti i listener, con un' unica chiamata per listener, che sono state generate le linee specificate.
+     *
+     * @param lines le linee generate.
+     */
+    public void fireGeneratedLines(List<Line<C>> lines) {
+        if (!this.enabled) return;
+        for (PlaneUpdateListener<C> l : this.listeners.get())
+            l.fireGeneratedLines(lines);
+    }
+
+    /**
+     * Notifica tutti i listener, con un' unica chiamata per listener, che sono state generate le aree specificate.
+     *
+     * @param areas le aree generate.
+     */
+    public void fireGeneratedAreas(List<ClosedArea<Line<C>>> areas) {
+        if (!this.enabled) return;
+        for (PlaneUpdateListener<C> l : this.listeners.get())
+            l.fireGeneratedAreas(areas);
     }
 
     /**
@@ -73,15 +165,68 @@ public class PlaneUpdateSupport<C> {
      *
      * @param color il nuovo colore del piano.
      */
-    public synchronized void fireScreenColorChanged(RGBColor color) {
-        listeners.forEach(s -> s.fireScreenColor(color));
+    public void fireScreenColorChanged(RGBColor color) {
+        if (!this.enabled) return;
+        for (PlaneUpdateListener<C> l : this.listeners.get())
+            l.fireScreenColor(color);
     }
 
     /**
-     * Notifica che &eagrve; stato cancellato tutto ci&ograve; che &egrave; stato
+     * Notifica che &egrave; stato cancellato tutto ci&ograve; che &egrave; stato
      * disegnato sullo schermo.
      */
-    public synchronized void fireScreenCleaned(){
-        listeners.forEach(PlaneUpdateListener::fireScreenCleaned);
+    public void fireScreenCleaned(){
+        if (!this.enabled) return;
+        for (PlaneUpdateListener<C> l : this.listeners.get())
+            l.fireScreenCleaned();
+    }
+
+    /**
+     * Listener che consegna le notifiche a un altro listener con un executor.
+     */
+    private static final class ExecutorListener<C> implements PlaneUpdateListener<C> {
+
+        private final PlaneUpdateListener<C> listener;
+        private final Executor executor;
+
+        private ExecutorListener(PlaneUpdateListener<C> listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        @Override
+        public void fireMovedCursor(C point) {
+            this.executor.execute(() -> this.listener.fireMovedCursor(point));
+        }
+
+        @Override
+        public void fireGeneratedLine(Line<C> line) {
+            this.executor.execute(() -> this.listener.fireGeneratedLine(line));
+        }
+
+        @Override
+        public void fireGeneratedArea(ClosedArea<Line<C>> area) {
+            this.executor.execute(() -> this.listener.fireGeneratedArea(area));
+        }
+
+        @Override
+        public void fireGeneratedLines(List<Line<C>> lines) {
+            this.executor.execute(() -> this.listener.fireGeneratedLines(lines));
+        }
+
+        @Override
+        public void fireGeneratedAreas(List<ClosedArea<Line<C>>> areas) {
+            this.executor.execute(() -> this.listener.fireGeneratedAreas(areas));
+        }
+
+        @Override
+        public void fireScreenColor(RGBColor color) {
+            this.executor.execute(() -> this.listener.fireScreenColor(color));
+        }
+
+        @Override
+        public void fireScreenCleaned() {
+            this.executor.execute(this.listener::fireScreenCleaned);
+        }
     }
 }
@@ -21,6 +21,26 @@ public interface Point<N extends Number> {
      */
     N getY();
 
+    /**
+     * Restituisce l' ascissa del punto come double, senza creare l' oggetto che la contiene
+     * se il punto la conserva gi&agrave; come double.
+     *
+     * @return l' ascissa del punto.
+     */
+    default double getDoubleX() {
+        return getX().doubleValue();
+    }
+
+    /**
+     * Restituisce l' ordinata del punto come double, senza creare l' oggetto che la contiene
+     * se il punto la conserva gi&agrave; come double.
+     *
+     * @return l' ordinata del punto.
+     */
+    default double getDoubleY() {
+        return getY().doubleValue();
+    }
+
     /**
      * Restituisce la rappresentazione del punto sotto forma di stringa.
      *
@@ -58,4 +78,15 @@ public interface Point<N extends Number> {
         return new CartesianPoint(x.doubleValue(), y.doubleValue());
     }
 
+    /**
+     * Metodo statico che crea un punto cartesiano in base alle coordinate specificate.
+     *
+     * @param x l' ascissa del punto da creare.
+     * @param y l' ordinate del punto da creare.
+     * @return un punto cartesiano con le coordinate specificate.
+     */
+    static CartesianPoint cartesianPoint(double x, double y) {
+        return new CartesianPoint(x, y);
+    }
+
 }
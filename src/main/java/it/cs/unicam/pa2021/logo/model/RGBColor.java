@@ -1,14 +1,16 @@
 package it.cs.unicam.pa2021.logo.model;
 
-import java.util.Objects;
-
 /**
  * Classe usata per rappresentare i colori secondo il modello additivo RGB.
+ * Il colore &egrave; conservato come un unico intero ARGB, completamente opaco; poich&eacute; i colori sono immutabili,
+ * {@link #of(int, int, int)} restituisce, quando possibile, un' istanza gi&agrave; creata dello stesso colore.
  */
 public class RGBColor {
-    private final int r;
-    private final int g;
-    private final int b;
+
+    private static final int CACHE_SIZE = 1024;
+    private static final RGBColor[] cache = new RGBColor[CACHE_SIZE];
+
+    private final int argb;
 
     /**
      * Crea un colore RGB con i colori rosso, verde e blu specificati nel range tra 0 - 255.
@@ -20,9 +22,29 @@ public class RGBColor {
      */
     public RGBColor(int r, int g, int b) {
         checkRGBRange(r, g, b);
-        this.r = r;
-        this.g = g;
-        this.b = b;
+        this.argb = 0xFF000000 | r << 16 | g << 8 | b;
+    }
+
+    /**
+     * Restituisce il colore RGB con i colori rosso, verde e blu specificati nel range tra 0 - 255.
+     * I colori usati pi&ugrave; di recente vengono conservati in una cache indicizzata dal loro valore ARGB,
+     * per cui ripetere lo stesso colore non crea nuovi oggetti.
+     *
+     * @param r il colore rosso.
+     * @param g il colore verde.
+     * @param b il colore blu.
+     * @return il colore RGB specificato.
+     * @throws IllegalArgumentException se almeno uno dei 3 parametri &egrave; out of range.
+     */
+    public static RGBColor of(int r, int g, int b) {
+        int argb = 0xFF000000 | r << 16 | g << 8 | b;
+        int slot = (argb ^ argb >>> 11) & (CACHE_SIZE - 1);
+        RGBColor color = cache[slot];
+        if (color != null && color.argb == argb && (r | g | b) >>> 8 == 0)
+            return color;
+        color = new RGBColor(r, g, b);
+        cache[slot] = color;
+        return color;
     }
 
     private void checkRGBRange(int r, int g, int b) {
@@ -50,15 +72,25 @@ public class RGBColor {
     }
 
     public int getRed() {
-        return this.r;
+        return this.argb >> 16 & 0xFF;
     }
 
     public int getGreen() {
-        return this.g;
+        return this.argb >> 8 & 0xFF;
     }
 
     public int getBlue() {
-        return this.b;
+        return this.argb & 0xFF;
+    }
+
+    /**
+     * Restituisce il colore come intero ARGB, con l' opacit&agrave; negli otto bit pi&ugrave; significativi,
+     * seguita dal rosso, dal verde e dal blu.
+     *
+     * @return il colore come intero ARGB.
+     */
+    public int getARGB() {
+        return this.argb;
     }
 
     @Override
@@ -66,20 +98,20 @@ public class RGBColor {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         RGBColor rgbColor = (RGBColor) o;
-        return this.r == rgbColor.r && this.g == rgbColor.g && this.b == rgbColor.b;
+        return this.argb == rgbColor.argb;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.r, this.g, this.b);
+        return 31 * (31 * (31 + getRed()) + getGreen()) + getBlue();
     }
 
     @Override
     public String toString() {
         return "RGBColor{" +
-                "r=" + this.r +
-                ", g=" + this.g +
-                ", b=" + this.b +
+                "r=" + getRed() +
+                ", g=" + getGreen() +
+                ", b=" + getBlue() +
                 '}';
     }
 }
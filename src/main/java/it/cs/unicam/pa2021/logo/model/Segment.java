@@ -13,6 +13,7 @@ public class Segment<C> implements Line<C> {
     private final C endPoint;
     private final RGBColor color;
     private final int size;
+    private final int hash;
 
     /**
      * Crea una linea.
@@ -25,6 +26,8 @@ public class Segment<C> implements Line<C> {
         this.endPoint = endPoint;
         this.color = color;
         this.size = size;
+        this.hash = 31 * (31 * (31 * (31 + Objects.hashCode(startingPoint)) + Objects.hashCode(endPoint))
+                + Objects.hashCode(color)) + size;
     }
 
     @Override
@@ -67,6 +70,6 @@ public class Segment<C> implements Line<C> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startingPoint, endPoint, color, size);
+        return this.hash;
     }
 }
@@ -0,0 +1,178 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sequenza persistente di segmenti memorizzati per colonne in array di tipi primitivi: le coordinate
+ * degli estremi, il colore come intero RGB e lo spessore. Ogni segmento occupa cos&igrave; 40 byte,
+ * senza oggetti per i punti e per il colore, e la scansione delle coordinate, ad esempio per il disegno
+ * o l' esportazione, legge memoria contigua.
+ * Le linee restituite da {@link #get(int)} e dall' iteratore sono create solo quando vengono richieste.
+ * <p>
+ * Ogni aggiunta restituisce una nuova versione della sequenza. Le versioni condividono gli stessi array:
+ * la versione pi&ugrave; lunga aggiunge il segmento in coda, nelle posizioni che nessun' altra versione vede,
+ * mentre una versione pi&ugrave; corta che riceve un' aggiunta copia prima i propri segmenti in nuovi array.
+ */
+public final class SegmentStore implements Iterable<Line<Point<Double>>> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final SegmentStore EMPTY = new SegmentStore(new AtomicInteger(), new double[0], new int[0], new int[0], 0);
+
+    private final AtomicInteger tip;
+    private final double[] coordinates;
+    private final int[] colors;
+    private final int[] sizes;
+    private final int size;
+
+    private SegmentStore(AtomicInteger tip, double[] coordinates, int[] colors, int[] sizes, int size) {
+        this.tip = tip;
+        this.coordinates = coordinates;
+        this.colors = colors;
+        this.sizes = sizes;
+        this.size = size;
+    }
+
+    /**
+     * Restituisce la sequenza di segmenti vuota.
+     *
+     * @return la sequenza di segmenti vuota.
+     */
+    public static SegmentStore empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Restituisce il numero di segmenti della sequenza.
+     *
+     * @return il numero di segmenti.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Verifica se la sequenza non contiene segmenti.
+     *
+     * @return true se la sequenza &egrave; vuota, false altrimenti.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public double getStartX(int index) {
+        return this.coordinates[4 * checkIndex(index)];
+    }
+
+    public double getStartY(int index) {
+        return this.coordinates[4 * checkIndex(index) + 1];
+    }
+
+    public double getEndX(int index) {
+        return this.coordinates[4 * checkIndex(index) + 2];
+    }
+
+    public double getEndY(int index) {
+        return this.coordinates[4 * checkIndex(index) + 3];
+    }
+
+    /**
+     * Restituisce il colore del segmento in posizione index come intero RGB, con il rosso negli
+     * otto bit pi&ugrave; significativi dei 24 usati.
+     *
+     * @param index la posizione del segmento.
+     * @return il colore del segmento come intero RGB.
+     */
+    public int getRGB(int index) {
+        return this.colors[checkIndex(index)];
+    }
+
+    public int getSize(int index) {
+        return this.sizes[checkIndex(index)];
+    }
+
+    /**
+     * Restituisce il segmento in posizione index, creandone la linea.
+     *
+     * @param index la posizione del segmento.
+     * @return la linea corrispondente al segmento.
+     * @throws IndexOutOfBoundsException se index non &egrave; compreso tra 0 e size() - 1.
+     */
+    public Line<Point<Double>> get(int index) {
+        int i = 4 * checkIndex(index);
+        int rgb = this.colors[index];
+        return new Segment<>(Point.cartesianPoint(this.coordinates[i], this.coordinates[i + 1]),
+                Point.cartesianPoint(this.coordinates[i + 2], this.coordinates[i + 3]),
+                RGBColor.of(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF), this.sizes[index]);
+    }
+
+    /**
+     * Restituisce una nuova versione della sequenza con la linea specificata aggiunta in coda.
+     * Questa sequenza non viene modificata.
+     *
+     * @param line la linea da aggiungere.
+     * @return la nuova sequenza contenente anche la linea specificata.
+     */
+    public SegmentStore append(Line<Point<Double>> line) {
+        double[] coordinates = this.coordinates;
+        int[] colors = this.colors;
+        int[] sizes = this.sizes;
+        AtomicInteger tip = this.tip;
+        boolean shared = !tip.compareAndSet(this.size, this.size + 1);
+        if (shared)
+            tip = new AtomicInteger(this.size + 1);
+        if (shared || this.size == colors.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, this.size * 2);
+            coordinates = Arrays.copyOf(coordinates, 4 * capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        int i = 4 * this.size;
+        coordinates[i] = line.getStartingPoint().getDoubleX();
+        coordinates[i + 1] = line.getStartingPoint().getDoubleY();
+        coordinates[i + 2] = line.getEndPoint().getDoubleX();
+        coordinates[i + 3] = line.getEndPoint().getDoubleY();
+        colors[this.size] = line.getColor().getARGB() & 0xFFFFFF;
+        sizes[this.size] = line.getSize();
+        return new SegmentStore(tip, coordinates, colors, sizes, this.size + 1);
+    }
+
+    /**
+     * Verifica se i segmenti di questa sequenza sono i primi segmenti della sequenza specificata perch&eacute;
+     * le due versioni condividono gli stessi array. Il controllo non confronta i segmenti, per cui pu&ograve;
+     * restituire false anche per sequenze con gli stessi segmenti iniziali, ad esempio dopo una copia degli array.
+     *
+     * @param other la sequenza da confrontare.
+     * @return true se questa sequenza &egrave; certamente un prefisso di quella specificata, false altrimenti.
+     */
+    public boolean isPrefixOf(SegmentStore other) {
+        return this.size <= other.size && (this.size == 0 || this.coordinates == other.coordinates);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        return index;
+    }
+
+    @Override
+    public Iterator<Line<Point<Double>>> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < SegmentStore.this.size;
+            }
+
+            @Override
+            public Line<Point<Double>> next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return get(this.index++);
+            }
+        };
+    }
+}
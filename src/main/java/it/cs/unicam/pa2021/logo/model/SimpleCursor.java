@@ -27,7 +27,7 @@ public class SimpleCursor implements Cursor<Point<Double>, SimpleDirection> {
      * @throws NullPointerException se il piano specificato &egrave; null.
      */
     public SimpleCursor(Plane<Point<Double>> plane) {
-        this(plane, plane.getHome(), Directional.defaultSimpleDirection(), new RGBColor(0, 0, 0), new RGBColor(255, 255, 255));
+        this(plane, plane.getHome(), Directional.defaultSimpleDirection(), RGBColor.of(0, 0, 0), RGBColor.of(255, 255, 255));
     }
 
     /**
@@ -72,10 +72,10 @@ public class SimpleCursor implements Cursor<Point<Double>, SimpleDirection> {
      */
     public SimpleCursor(Plane<Point<Double>> plane, Cursor<Point<Double>, SimpleDirection> cursor) {
         this.plane = plane;
-        this.position = Point.cartesianPoint(cursor.getPosition().getX(), cursor.getPosition().getY());
+        this.position = cursor.getPosition();
         this.direction = Directional.simpleDirection(cursor.getDirection().getDirectionWay());
-        this.lineColor = new RGBColor(cursor.getLineColor().getRed(), cursor.getLineColor().getGreen(), cursor.getLineColor().getBlue());
-        this.areaColor = new RGBColor(cursor.getAreaColor().getRed(), cursor.getAreaColor().getGreen(), cursor.getAreaColor().getBlue());
+        this.lineColor = cursor.getLineColor();
+        this.areaColor = cursor.getAreaColor();
         this.plot = cursor.isPlot();
         this.pen = cursor.isPen();
         this.penSize = cursor.getPenSize();
@@ -8,6 +8,16 @@ package it.cs.unicam.pa2021.logo.model;
  */
 public class SimpleDirection implements Directional<Integer> {
 
+    private static final double[] COS = new double[361];
+    private static final double[] SIN = new double[361];
+
+    static {
+        for (int degrees = 0; degrees <= 360; degrees++) {
+            COS[degrees] = Math.cos(Math.toRadians(degrees));
+            SIN[degrees] = Math.sin(Math.toRadians(degrees));
+        }
+    }
+
     private int angle;
 
     /**
@@ -39,6 +49,40 @@ public class SimpleDirection implements Directional<Integer> {
         return "" + this.angle;
     }
 
+    /**
+     * Restituisce il coseno dell' angolo specificato, precalcolato con Math.cos per tutti gli angoli interi
+     * da 0 a 360 gradi, cos&igrave; che il risultato coincida con quello calcolato ogni volta.
+     *
+     * @param degrees l' angolo in gradi.
+     * @return il coseno dell' angolo.
+     * @throws ArrayIndexOutOfBoundsException se l' angolo &egrave; out of range.
+     */
+    public static double cos(int degrees) {
+        return COS[degrees];
+    }
+
+    /**
+     * Restituisce il seno dell' angolo specificato, precalcolato con Math.sin per tutti gli angoli interi
+     * da 0 a 360 gradi, cos&igrave; che il risultato coincida con quello calcolato ogni volta.
+     *
+     * @param degrees l' angolo in gradi.
+     * @return il seno dell' angolo.
+     * @throws ArrayIndexOutOfBoundsException se l' angolo &egrave; out of range.
+     */
+    public static double sin(int degrees) {
+        return SIN[degrees];
+    }
+
+    @Override
+    public double getUnitX() {
+        return COS[this.angle];
+    }
+
+    @Override
+    public double getUnitY() {
+        return SIN[this.angle];
+    }
+
     @Override
     public Integer getDirectionWay() {
         return this.angle;
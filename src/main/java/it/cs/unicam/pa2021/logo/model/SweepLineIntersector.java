@@ -0,0 +1,291 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Calcola le intersezioni tra un insieme di linee tramite l' algoritmo a linea di scansione di Bentley-Ottmann.
+ * La linea di scansione attraversa il piano da sinistra verso destra fermandosi sugli estremi delle linee e
+ * sui punti di intersezione via via scoperti; le linee attraversate sono mantenute ordinate per ordinata,
+ * per cui vengono confrontate solo linee adiacenti e il costo complessivo &egrave; O((n + k) log n),
+ * con n il numero di linee e k il numero di intersezioni.
+ * Vengono considerati anche i contatti in cui l' estremo di una linea cade all' interno di un' altra linea.
+ */
+public final class SweepLineIntersector {
+
+    private static final double EPSILON = 1e-7;
+
+    private final List<Sweep> segments = new ArrayList<>();
+    private final List<List<double[]>> crossings = new ArrayList<>();
+    private final TreeMap<Event, Event> events = new TreeMap<>(Comparator.<Event>comparingDouble(e -> e.x).thenComparingDouble(e -> e.y));
+    private final TreeSet<Sweep> status = new TreeSet<>(this::compare);
+    private final Sweep probe = new Sweep(-1, 0, 0, 0, 0);
+    private double sweepX;
+    private double sweepY;
+    private boolean before;
+
+    private SweepLineIntersector(List<? extends Line<Point<Double>>> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            Line<Point<Double>> l = lines.get(i);
+            double x1 = l.getStartingPoint().getDoubleX(), y1 = l.getStartingPoint().getDoubleY(),
+                    x2 = l.getEndPoint().getDoubleX(), y2 = l.getEndPoint().getDoubleY();
+            boolean reversed = x2 < x1 || (x2 == x1 && y2 < y1);
+            Sweep s = reversed ? new Sweep(i, x2, y2, x1, y1) : new Sweep(i, x1, y1, x2, y2);
+            this.segments.add(s);
+            this.crossings.add(new ArrayList<>());
+            if (x1 == x2 && y1 == y2)
+                continue;
+            event(s.x1, s.y1).upper.add(s);
+            event(s.x2, s.y2);
+        }
+    }
+
+    /**
+     * Divide ogni linea specificata nei punti in cui incontra le altre linee.
+     * Per ogni linea viene restituita la lista dei tratti in cui viene divisa, ordinati dall' estremo
+     * iniziale all' estremo finale e aventi lo stesso colore e la stessa grandezza della linea di partenza;
+     * una linea che non incontra altre linee viene restituita intera.
+     * I punti di divisione sono arrotondati a due cifre decimali, come le posizioni del cursore.
+     *
+     * @param lines le linee da dividere.
+     * @return per ogni linea, nello stesso ordine, i tratti in cui viene divisa.
+     */
+    public static List<List<Line<Point<Double>>>> split(List<? extends Line<Point<Double>>> lines) {
+        SweepLineIntersector intersector = new SweepLineIntersector(lines);
+        intersector.sweep();
+        List<List<Line<Point<Double>>>> pieces = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            List<Point<Double>> cuts = new ArrayList<>();
+            for (double[] c : intersector.crossings.get(i))
+                cuts.add(Point.cartesianPoint(round(c[0]), round(c[1])));
+            pieces.add(split(lines.get(i), cuts));
+        }
+        return pieces;
+    }
+
+    /**
+     * Divide la linea specificata nei punti specificati, scartando i punti che coincidono con i suoi estremi.
+     *
+     * @param line la linea da dividere.
+     * @param cuts i punti della linea in cui dividerla, in qualsiasi ordine.
+     * @return i tratti in cui viene divisa la linea, ordinati dall' estremo iniziale all' estremo finale.
+     */
+    public static List<Line<Point<Double>>> split(Line<Point<Double>> line, List<Point<Double>> cuts) {
+        Point<Double> start = line.getStartingPoint(), end = line.getEndPoint();
+        List<Point<Double>> sorted = new ArrayList<>(cuts);
+        sorted.sort(Comparator.comparingDouble(p -> distance(start, p)));
+        List<Line<Point<Double>>> pieces = new ArrayList<>();
+        Point<Double> from = start;
+        for (Point<Double> p : sorted) {
+            if (p.equals(from) || p.equals(end))
+                continue;
+            pieces.add(new Segment<>(from, p, line.getColor(), line.getSize()));
+            from = p;
+        }
+        if (pieces.isEmpty())
+            return Collections.singletonList(line);
+        pieces.add(new Segment<>(from, end, line.getColor(), line.getSize()));
+        return pieces;
+    }
+
+    /**
+     * Restituisce i punti in cui due linee si incontrano: il punto di intersezione se le linee non sono parallele,
+     * altrimenti gli estremi di ciascuna linea che cadono sull' altra se le linee sono sovrapposte.
+     * I punti sono arrotondati a due cifre decimali; le linee di lunghezza nulla non incontrano altre linee.
+     *
+     * @param a la prima linea.
+     * @param b la seconda linea.
+     * @return i punti comuni alle due linee, una lista vuota se le linee non si incontrano.
+     */
+    public static List<Point<Double>> commonPoints(Line<Point<Double>> a, Line<Point<Double>> b) {
+        double x1 = a.getStartingPoint().getDoubleX(), y1 = a.getStartingPoint().getDoubleY(),
+                x2 = a.getEndPoint().getDoubleX(), y2 = a.getEndPoint().getDoubleY(),
+                x3 = b.getStartingPoint().getDoubleX(), y3 = b.getStartingPoint().getDoubleY(),
+                x4 = b.getEndPoint().getDoubleX(), y4 = b.getEndPoint().getDoubleY();
+        List<Point<Double>> points = new ArrayList<>();
+        if ((x1 == x2 && y1 == y2) || (x3 == x4 && y3 == y4))
+            return points;
+        double[] p = intersection(x1, y1, x2, y2, x3, y3, x4, y4);
+        if (p != null) {
+            points.add(Point.cartesianPoint(round(p[0]), round(p[1])));
+            return points;
+        }
+        if (onSegment(x1, y1, x3, y3, x4, y4))
+            points.add(a.getStartingPoint());
+        if (onSegment(x2, y2, x3, y3, x4, y4))
+            points.add(a.getEndPoint());
+        if (onSegment(x3, y3, x1, y1, x2, y2))
+            points.add(b.getStartingPoint());
+        if (onSegment(x4, y4, x1, y1, x2, y2))
+            points.add(b.getEndPoint());
+        return points;
+    }
+
+    private void sweep() {
+        while (!this.events.isEmpty())
+            handle(this.events.pollFirstEntry().getKey());
+    }
+
+    private void handle(Event e) {
+        this.sweepX = e.x;
+        this.sweepY = e.y;
+        this.before = true;
+        List<Sweep> through = new ArrayList<>();
+        for (Sweep s : this.status.tailSet(this.probe, false)) {
+            if (Math.abs(yAt(s) - this.sweepY) > tolerance(s))
+                break;
+            through.add(s);
+        }
+        List<Sweep> crossing = new ArrayList<>();
+        for (Sweep s : through)
+            if (Math.abs(s.x2 - e.x) > EPSILON || Math.abs(s.y2 - e.y) > EPSILON)
+                crossing.add(s);
+        if (through.size() + e.upper.size() > 1)
+            for (Sweep s : crossing)
+                this.crossings.get(s.id).add(new double[]{e.x, e.y});
+        for (Sweep s : through)
+            this.status.remove(s);
+        this.before = false;
+        List<Sweep> inserted = new ArrayList<>(e.upper);
+        inserted.addAll(crossing);
+        this.status.addAll(inserted);
+        if (inserted.isEmpty()) {
+            Sweep below = this.status.lower(this.probe), above = this.status.higher(this.probe);
+            if (below != null && above != null)
+                schedule(below, above, e);
+            return;
+        }
+        Sweep lowest = Collections.min(inserted, this::compare), highest = Collections.max(inserted, this::compare);
+        Sweep below = this.status.lower(lowest), above = this.status.higher(highest);
+        if (below != null)
+            schedule(below, lowest, e);
+        if (above != null)
+            schedule(highest, above, e);
+    }
+
+    private void schedule(Sweep a, Sweep b, Event current) {
+        double[] p = intersection(a.x1, a.y1, a.x2, a.y2, b.x1, b.y1, b.x2, b.y2);
+        if (p == null)
+            return;
+        double x = p[0], y = p[1];
+        if (Math.abs(x - current.x) <= EPSILON && Math.abs(y - current.y) <= EPSILON)
+            return;
+        if (x > current.x || (x == current.x && y > current.y))
+            event(x, y);
+    }
+
+    /**
+     * Restituisce l' evento nel punto specificato, creandolo se non esiste gi&agrave; un evento
+     * abbastanza vicino da essere considerato lo stesso punto.
+     */
+    private Event event(double x, double y) {
+        for (Event e : this.events.subMap(new Event(x - EPSILON, Double.NEGATIVE_INFINITY), true,
+                new Event(x + EPSILON, Double.POSITIVE_INFINITY), true).keySet())
+            if (Math.abs(e.y - y) <= EPSILON)
+                return e;
+        Event e = new Event(x, y);
+        this.events.put(e, e);
+        return e;
+    }
+
+    private static double tolerance(Sweep s) {
+        return s.x1 == s.x2 ? EPSILON : EPSILON * Math.max(1, Math.abs(s.slope));
+    }
+
+    private double yAt(Sweep s) {
+        if (s == this.probe || s.x1 == s.x2)
+            return s == this.probe ? this.sweepY : Math.max(s.y1, Math.min(s.y2, this.sweepY));
+        if (this.sweepX <= s.x1)
+            return s.y1;
+        if (this.sweepX >= s.x2)
+            return s.y2;
+        return s.y1 + (this.sweepX - s.x1) * s.slope;
+    }
+
+    private int compare(Sweep a, Sweep b) {
+        if (a == b)
+            return 0;
+        double ya = yAt(a), yb = yAt(b);
+        if (Math.abs(ya - yb) > Math.max(tolerance(a), tolerance(b)))
+            return Double.compare(ya, yb);
+        if (a == this.probe)
+            return -1;
+        if (b == this.probe)
+            return 1;
+        int c = Double.compare(a.slope, b.slope);
+        if (c != 0)
+            return this.before ? -c : c;
+        return Integer.compare(a.id, b.id);
+    }
+
+    private static double[] intersection(double x1, double y1, double x2, double y2,
+                                         double x3, double y3, double x4, double y4) {
+        double dx1 = x2 - x1, dy1 = y2 - y1, dx2 = x4 - x3, dy2 = y4 - y3;
+        double d = dx1 * dy2 - dy1 * dx2;
+        if (d == 0)
+            return null;
+        double t = ((x3 - x1) * dy2 - (y3 - y1) * dx2) / d;
+        double u = ((x3 - x1) * dy1 - (y3 - y1) * dx1) / d;
+        if (t < -EPSILON || t > 1 + EPSILON || u < -EPSILON || u > 1 + EPSILON)
+            return null;
+        return new double[]{x1 + t * dx1, y1 + t * dy1};
+    }
+
+    private static boolean onSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1, dy = y2 - y1;
+        double length = dx * dx + dy * dy;
+        if (length == 0)
+            return false;
+        double cross = (x - x1) * dy - (y - y1) * dx;
+        double t = ((x - x1) * dx + (y - y1) * dy) / length;
+        return Math.abs(cross) / Math.sqrt(length) <= EPSILON && t > 0 && t < 1;
+    }
+
+    private static double distance(Point<Double> a, Point<Double> b) {
+        return Math.hypot(b.getDoubleX() - a.getDoubleX(), b.getDoubleY() - a.getDoubleY());
+    }
+
+    private static double round(double v) {
+        double r = Math.round(v * 100.0) / 100.0;
+        return r == -0.0 ? 0.0 : r;
+    }
+
+    /**
+     * Punto in cui si ferma la linea di scansione, con le linee che vi hanno l' estremo sinistro.
+     */
+    private static final class Event {
+        private final double x;
+        private final double y;
+        private final List<Sweep> upper = new ArrayList<>();
+
+        private Event(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /**
+     * Linea orientata da sinistra verso destra (dal basso verso l' alto se verticale).
+     */
+    private static final class Sweep {
+        private final int id;
+        private final double x1;
+        private final double y1;
+        private final double x2;
+        private final double y2;
+        private final double slope;
+
+        private Sweep(int id, double x1, double y1, double x2, double y2) {
+            this.id = id;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            this.slope = x1 == x2 ? Double.POSITIVE_INFINITY : (y2 - y1) / (x2 - x1);
+        }
+    }
+}
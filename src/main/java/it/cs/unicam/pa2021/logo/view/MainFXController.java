@@ -4,22 +4,25 @@ package it.cs.unicam.pa2021.logo.view;
 import it.cs.unicam.pa2021.logo.controller.Controller;
 import it.cs.unicam.pa2021.logo.controller.DefaultController;
 import it.cs.unicam.pa2021.logo.model.*;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.ImagePattern;
 import javafx.scene.shape.Circle;
-import javafx.scene.shape.Polygon;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.transform.Scale;
 import javafx.stage.FileChooser;
@@ -41,6 +44,8 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
     @FXML
     public MenuItem loadFile;
     @FXML
+    public CheckMenuItem intersectionsItem;
+    @FXML
     public Pane textAreaPane;
     @FXML
     public TextArea instructionArea;
@@ -58,9 +63,22 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
     public Button nextButton;
     @FXML
     public Button executeButton;
+    @FXML
+    public Button resetButton;
+    @FXML
+    public Button pauseButton;
+    @FXML
+    public Button cancelButton;
+    @FXML
+    public ProgressBar progressBar;
+    @FXML
+    public Label progressLabel;
 
     private List<Integer> executeTextFieldInstructions; // Istruzioni eseguite nella textfield da rimuovere dalla lista di tutte le istruzioni
     private int i; // Contatore istruzione attuale
+    private PlaneCanvas planeCanvas; // Canvas in cui vengono disegnate le linee e le aree del piano
+    private ProgramExecution execution; // Esecuzione in corso del programma, null se non ci sono esecuzioni in corso
+    private final PlaneUpdateBuffer<Point<Double>> planeUpdates = new PlaneUpdateBuffer<>(this); // Notifiche del piano da mostrare al prossimo fotogramma
 
     @FXML
     public void initialize() {
@@ -69,14 +87,23 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
         createPlanePane();
         createRectangle();
         createCursor();
+        createPlaneCanvas();
         bottomPane.setVisible(false);
         previousButton.setDisable(true);
         executeButton.setDisable(true);
+        pauseButton.setDisable(true);
+        cancelButton.setDisable(true);
         instructionArea.setEditable(false);
         instructionArea.setStyle("-fx-font-weight: bold");
         instructionArea.positionCaret(instructionArea.getLength());
-        controller.getPlane().addPlaneUpdateListener(this);
+        controller.getPlane().addPlaneUpdateListener(planeUpdates);
         executeTextFieldInstructions = new ArrayList<>();
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                planeUpdates.flush();
+            }
+        }.start();
     }
 
     private void createPlanePane() {
@@ -103,6 +130,11 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
         planePane.getChildren().add(1, cursor);
     }
 
+    private void createPlaneCanvas() {
+        planeCanvas = new PlaneCanvas(planePane.getMaxWidth(), planePane.getMaxHeight());
+        planePane.getChildren().add(2, planeCanvas);
+    }
+
     private void setCartesianCoordinates() {
         Scale scale = new Scale();
         scale.setX(1);
@@ -121,22 +153,79 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
         fileChooser.getExtensionFilters().addAll(
                 new FileChooser.ExtensionFilter("Text Files", "*.txt"));
         File selectedFile = fileChooser.showOpenDialog(new Stage());
-        controller.loadInstructions(selectedFile.getAbsolutePath());
+        try {
+            controller.loadInstructions(selectedFile.getAbsolutePath());
+        } catch (LOGOSyntaxErrorException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            Stage stage = (Stage) alert.getDialogPane().getScene().getWindow();
+            stage.getIcons().add(new Image(getClass().getResource("/logoIcon.jpg").toString()));
+            alert.setTitle("Syntax error");
+            alert.setHeaderText("");
+            alert.setContentText(e.getMessage());
+            alert.showAndWait();
+            return;
+        }
         bottomPane.setVisible(true);
     }
 
     public void startExecution(ActionEvent actionEvent) {
+        int first = i;
+        execution = new ProgramExecution(controller, first);
+        progressBar.progressProperty().bind(execution.progressProperty());
+        progressLabel.textProperty().bind(execution.messageProperty());
+        execution.setOnSucceeded(e -> endExecution(first));
+        execution.setOnCancelled(e -> endExecution(first));
+        execution.setOnFailed(e -> endExecution(first));
+        setExecuting(true);
+        Thread thread = new Thread(execution, "LOGO execution");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void endExecution(int first) {
         StringBuilder text = new StringBuilder();
-        while (i < this.controller.getAllInstructions().size()) {
-            controller.execute(controller.getAllInstructions().get(i));
-            text.append(controller.getAllInstructions().get(i)).append("\n");
-            i++;
-        }
+        for (int j = first; j < first + execution.getExecuted(); j++)
+            text.append(controller.getAllInstructions().get(j)).append("\n");
+        i = first + execution.getExecuted();
+        progressBar.progressProperty().unbind();
+        progressLabel.textProperty().unbind();
+        execution = null;
+        setExecuting(false);
         instructionArea.appendText(text.toString());
-        playButton.setDisable(true);
-        previousButton.setDisable(false);
-        if (i == controller.getAllInstructions().size())
-            nextButton.setDisable(true);
+        previousButton.setDisable(!controller.hasPrevious());
+        playButton.setDisable(i == controller.getAllInstructions().size());
+        nextButton.setDisable(i == controller.getAllInstructions().size());
+    }
+
+    private void setExecuting(boolean executing) {
+        playButton.setDisable(executing);
+        previousButton.setDisable(executing);
+        nextButton.setDisable(executing);
+        resetButton.setDisable(executing);
+        loadFile.setDisable(executing);
+        instructionTextField.setDisable(executing);
+        pauseButton.setText("PAUSE");
+        pauseButton.setDisable(!executing);
+        cancelButton.setDisable(!executing);
+        if (executing)
+            executeButton.setDisable(true);
+    }
+
+    public void pauseExecution(ActionEvent actionEvent) {
+        if (execution == null)
+            return;
+        if (execution.isPaused()) {
+            execution.resume();
+            pauseButton.setText("PAUSE");
+        } else {
+            execution.pause();
+            pauseButton.setText("RESUME");
+        }
+    }
+
+    public void cancelExecution(ActionEvent actionEvent) {
+        if (execution != null)
+            execution.cancel();
     }
 
     @Override
@@ -148,30 +237,27 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
 
     @Override
     public void fireGeneratedLine(Line<Point<Double>> line) {
-        javafx.scene.shape.Line lineFX = new javafx.scene.shape.Line(line.getStartingPoint().getX(), line.getStartingPoint().getY(), line.getEndPoint().getX(), line.getEndPoint().getY());
-        lineFX.setStroke(Color.rgb(line.getColor().getRed(), line.getColor().getGreen(), line.getColor().getBlue()));
-        lineFX.setStrokeWidth(line.getSize());
-        planePane.getChildren().add(lineFX);
+        planeCanvas.drawLine(line);
         fireMovedCursor(line.getEndPoint());
     }
 
+    @Override
+    public void fireGeneratedLines(List<Line<Point<Double>>> lines) {
+        if (lines.isEmpty())
+            return;
+        planeCanvas.drawLines(lines);
+        fireMovedCursor(lines.get(lines.size() - 1).getEndPoint());
+    }
+
     @Override
     public void fireGeneratedArea(ClosedArea<Line<Point<Double>>> area) {
-        int p = 0;
-        double[] points = new double[area.getArea().size() * 4];
-        for (Line<Point<Double>> l : area.getArea()) {
-            points[p] = l.getStartingPoint().getX();
-            p++;
-            points[p] = l.getStartingPoint().getY();
-            p++;
-            points[p] = l.getEndPoint().getX();
-            p++;
-            points[p] = l.getEndPoint().getY();
-            p++;
-        }
-        Polygon polygon = new Polygon(points);
-        polygon.setFill(Color.rgb(area.getColor().getRed(), area.getColor().getGreen(), area.getColor().getBlue()));
-        planePane.getChildren().add(polygon);
+        planeCanvas.drawArea(area);
+    }
+
+    @Override
+    public void fireGeneratedAreas(List<ClosedArea<Line<Point<Double>>>> areas) {
+        for (ClosedArea<Line<Point<Double>>> a : areas)
+            planeCanvas.drawArea(a);
     }
 
     @Override
@@ -183,7 +269,7 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
 
     @Override
     public void fireScreenCleaned() {
-        planePane.getChildren().remove(2, planePane.getChildren().size());
+        planeCanvas.clear();
         controller.clearNext();
     }
 
@@ -204,7 +290,7 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
         if (controller.hasNext())
             configurationPlane(controller.next());
         else if (i < this.controller.getAllInstructions().size())
-            controller.execute(controller.getAllInstructions().get(i));
+            controller.execute(i);
         i++;
         appendConfigurationInstructions();
         if (i == controller.getAllInstructions().size()) {
@@ -223,19 +309,17 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
     }
 
     private void configurationPlane(Plane<Point<Double>> plane) {
-        planePane.getChildren().remove(2, planePane.getChildren().size());
+        planeUpdates.flush();
         fireMovedCursor(plane.getCursorPosition());
         fireScreenColor(plane.getBackgroundColor());
-        for (Line<Point<Double>> l : plane.getLines())
-            fireGeneratedLine(l);
-        for (ClosedArea<Line<Point<Double>>> a : plane.getClosedAreas())
-            fireGeneratedArea(a);
+        planeCanvas.drawPlane(plane);
     }
 
     public void reset(ActionEvent actionEvent) {
         i = 0;
-        planePane.getChildren().remove(2, planePane.getChildren().size());
-        controller.getPlane().removePlaneUpdateListener(this);
+        planeUpdates.flush();
+        planeCanvas.clear();
+        controller.getPlane().removePlaneUpdateListener(planeUpdates);
         controller.clear();
         fireMovedCursor(controller.getPlane().getHome());
         fireScreenColor(controller.getPlane().getBackgroundColor());
@@ -246,7 +330,11 @@ public class MainFXController implements PlaneUpdateListener<Point<Double>> {
         playButton.setDisable(false);
         previousButton.setDisable(true);
         nextButton.setDisable(false);
-        controller.getPlane().addPlaneUpdateListener(this);
+        controller.getPlane().addPlaneUpdateListener(planeUpdates);
+    }
+
+    public void changeAreaDetection(ActionEvent actionEvent) {
+        controller.setAreaDetection(intersectionsItem.isSelected() ? AreaDetection.INTERSECTIONS : AreaDetection.ENDPOINTS);
     }
 
     public void exit(ActionEvent actionEvent) {
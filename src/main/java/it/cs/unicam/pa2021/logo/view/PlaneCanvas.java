@@ -0,0 +1,151 @@
+package it.cs.unicam.pa2021.logo.view;
+
+import it.cs.unicam.pa2021.logo.model.*;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.StrokeLineCap;
+
+import java.util.List;
+
+/**
+ * Disegna le linee e le aree chiuse di un piano in un unico {@link Canvas} trasparente, invece di creare
+ * un nodo della scena per ogni linea e per ogni area.
+ * Le linee consecutive con lo stesso colore e lo stesso spessore vengono disegnate con un unico percorso,
+ * per cui il costo del disegno dipende dal numero di cambi di stile e non dal numero di nodi.
+ * Quando il piano da disegnare estende quello gi&agrave; disegnato, ad esempio passando alla configurazione
+ * successiva, vengono disegnati solo i segmenti e le aree aggiunti.
+ */
+public class PlaneCanvas extends Canvas {
+
+    private SegmentStore drawnSegments;
+    private int drawnAreas;
+
+    /**
+     * Crea un canvas trasparente delle dimensioni specificate.
+     *
+     * @param width  la larghezza del canvas.
+     * @param height l' altezza del canvas.
+     */
+    public PlaneCanvas(double width, double height) {
+        super(width, height);
+        this.getGraphicsContext2D().setLineCap(StrokeLineCap.SQUARE);
+    }
+
+    /**
+     * Cancella tutto il contenuto del canvas.
+     */
+    public void clear() {
+        this.getGraphicsContext2D().clearRect(0, 0, this.getWidth(), this.getHeight());
+        this.drawnSegments = SegmentStore.empty();
+        this.drawnAreas = 0;
+    }
+
+    /**
+     * Disegna le linee e le aree chiuse del piano specificato. Se il piano estende quello disegnato per ultimo
+     * vengono disegnati solo i nuovi segmenti e le nuove aree, altrimenti il canvas viene ridisegnato da capo.
+     *
+     * @param plane il piano da disegnare.
+     */
+    public void drawPlane(Plane<Point<Double>> plane) {
+        if (!(plane instanceof DefaultPlane)) {
+            this.clear();
+            this.drawnSegments = null;
+            for (Line<Point<Double>> l : plane.getLines())
+                this.drawLine(l);
+            for (ClosedArea<Line<Point<Double>>> a : plane.getClosedAreas())
+                this.drawArea(a);
+            return;
+        }
+        SegmentStore segments = ((DefaultPlane) plane).getSegments();
+        if (this.drawnSegments == null || !this.drawnSegments.isPrefixOf(segments)
+                || this.drawnAreas > plane.getClosedAreas().size())
+            this.clear();
+        this.strokeSegments(segments, this.drawnSegments.size(), segments.size());
+        int a = 0;
+        for (ClosedArea<Line<Point<Double>>> area : plane.getClosedAreas())
+            if (a++ >= this.drawnAreas)
+                this.fillArea(area);
+        this.drawnSegments = segments;
+        this.drawnAreas = a;
+    }
+
+    /**
+     * Disegna una linea sopra il contenuto del canvas.
+     *
+     * @param line la linea da disegnare.
+     */
+    public void drawLine(Line<Point<Double>> line) {
+        GraphicsContext gc = this.getGraphicsContext2D();
+        gc.setStroke(color(line.getColor().getARGB()));
+        gc.setLineWidth(line.getSize());
+        gc.strokeLine(line.getStartingPoint().getDoubleX(), line.getStartingPoint().getDoubleY(),
+                line.getEndPoint().getDoubleX(), line.getEndPoint().getDoubleY());
+        this.drawnSegments = null;
+    }
+
+    /**
+     * Disegna le linee specificate sopra il contenuto del canvas, raggruppando quelle consecutive
+     * con lo stesso colore e lo stesso spessore in un unico percorso.
+     *
+     * @param lines le linee da disegnare.
+     */
+    public void drawLines(List<Line<Point<Double>>> lines) {
+        SegmentStore segments = SegmentStore.empty();
+        for (Line<Point<Double>> l : lines)
+            segments = segments.append(l);
+        this.strokeSegments(segments, 0, segments.size());
+        this.drawnSegments = null;
+    }
+
+    /**
+     * Disegna un' area chiusa sopra il contenuto del canvas.
+     *
+     * @param area l' area chiusa da disegnare.
+     */
+    public void drawArea(ClosedArea<Line<Point<Double>>> area) {
+        this.fillArea(area);
+        this.drawnSegments = null;
+    }
+
+    private void strokeSegments(SegmentStore segments, int from, int to) {
+        GraphicsContext gc = this.getGraphicsContext2D();
+        int i = from;
+        while (i < to) {
+            int rgb = segments.getRGB(i);
+            int size = segments.getSize(i);
+            gc.setStroke(color(rgb));
+            gc.setLineWidth(size);
+            gc.beginPath();
+            double x = Double.NaN, y = Double.NaN;
+            for (; i < to && segments.getRGB(i) == rgb && segments.getSize(i) == size; i++) {
+                if (segments.getStartX(i) != x || segments.getStartY(i) != y)
+                    gc.moveTo(segments.getStartX(i), segments.getStartY(i));
+                x = segments.getEndX(i);
+                y = segments.getEndY(i);
+                gc.lineTo(x, y);
+            }
+            gc.stroke();
+        }
+    }
+
+    private void fillArea(ClosedArea<Line<Point<Double>>> area) {
+        List<Line<Point<Double>>> lines = area.getArea();
+        double[] xs = new double[lines.size() * 2];
+        double[] ys = new double[lines.size() * 2];
+        int p = 0;
+        for (Line<Point<Double>> l : lines) {
+            xs[p] = l.getStartingPoint().getDoubleX();
+            ys[p++] = l.getStartingPoint().getDoubleY();
+            xs[p] = l.getEndPoint().getDoubleX();
+            ys[p++] = l.getEndPoint().getDoubleY();
+        }
+        GraphicsContext gc = this.getGraphicsContext2D();
+        gc.setFill(color(area.getColor().getARGB()));
+        gc.fillPolygon(xs, ys, p);
+    }
+
+    private static Color color(int rgb) {
+        return Color.rgb(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF);
+    }
+}
@@ -0,0 +1,101 @@
+package it.cs.unicam.pa2021.logo.view;
+
+import it.cs.unicam.pa2021.logo.controller.Controller;
+import it.cs.unicam.pa2021.logo.model.Point;
+import javafx.concurrent.Task;
+
+import java.util.Objects;
+
+/**
+ * Esegue in un thread diverso da quello di JavaFX le istruzioni di un programma LOGO, una alla volta,
+ * con il controller specificato.
+ * Dopo ogni istruzione aggiorna il progresso e il messaggio del task con l' istruzione eseguita, il numero
+ * di linee del piano e il tempo trascorso; le modifiche del piano arrivano alla vista tramite i suoi listener.
+ * L' esecuzione pu&ograve; essere sospesa, ripresa e annullata tra un' istruzione e l' altra.
+ * Il valore del task &egrave; il numero di istruzioni eseguite.
+ */
+public class ProgramExecution extends Task<Integer> {
+
+    private final Controller<Point<Double>> controller;
+    private final int size;
+    private final int first;
+    private volatile int executed;
+    private boolean paused;
+
+    /**
+     * Crea l' esecuzione delle istruzioni caricate nel controller a partire da quella in posizione first.
+     *
+     * @param controller il controller con cui eseguire le istruzioni.
+     * @param first      la posizione della prima istruzione da eseguire.
+     * @throws NullPointerException     se il controller &egrave; null.
+     * @throws IllegalArgumentException se la posizione specificata non &egrave; valida.
+     */
+    public ProgramExecution(Controller<Point<Double>> controller, int first) {
+        this.controller = Objects.requireNonNull(controller, "Null controller!");
+        this.size = controller.getAllInstructions().size();
+        if (first < 0 || first > this.size)
+            throw new IllegalArgumentException("Invalid instruction index: " + first);
+        this.first = first;
+    }
+
+    @Override
+    protected Integer call() throws InterruptedException {
+        long start = System.nanoTime();
+        int total = this.size - this.first;
+        for (int i = this.first; i < this.size; i++) {
+            this.awaitResume();
+            if (this.isCancelled())
+                break;
+            this.controller.execute(i);
+            this.executed++;
+            this.updateProgress(this.executed, total);
+            this.updateMessage("Instruction " + (i + 1) + "/" + this.size + ", "
+                    + this.controller.getPlane().getNumLines() + " lines, "
+                    + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+        return this.executed;
+    }
+
+    /**
+     * Restituisce il numero di istruzioni eseguite fino a questo momento.
+     *
+     * @return il numero di istruzioni eseguite.
+     */
+    public int getExecuted() {
+        return this.executed;
+    }
+
+    /**
+     * Sospende l' esecuzione dopo l' istruzione in corso.
+     */
+    public synchronized void pause() {
+        this.paused = true;
+    }
+
+    /**
+     * Riprende l' esecuzione sospesa.
+     */
+    public synchronized void resume() {
+        this.paused = false;
+        this.notifyAll();
+    }
+
+    /**
+     * Verifica se l' esecuzione &egrave; sospesa.
+     *
+     * @return true se l' esecuzione &egrave; sospesa, false altrimenti.
+     */
+    public synchronized boolean isPaused() {
+        return this.paused;
+    }
+
+    @Override
+    protected void cancelled() {
+        this.resume();
+    }
+
+    private synchronized void awaitResume() throws InterruptedException {
+        while (this.paused && !this.isCancelled())
+            this.wait();
+    }
+}
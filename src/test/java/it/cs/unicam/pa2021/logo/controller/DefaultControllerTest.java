@@ -0,0 +1,220 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.AreaDetection;
+import it.cs.unicam.pa2021.logo.model.DefaultPlane;
+import it.cs.unicam.pa2021.logo.model.LOGOSyntaxErrorException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultControllerTest {
+
+    private static List<String> walk(int count) {
+        Random random = new Random(1);
+        List<String> instructions = new ArrayList<>();
+        for (int j = 0; j < count; j++)
+            instructions.add(j % 2 == 0 ? "FORWARD " + (1 + random.nextInt(100)) : "LEFT " + (1 + random.nextInt(359)));
+        return instructions;
+    }
+
+    private static DefaultController controller(List<String> instructions) {
+        DefaultController controller = new DefaultController();
+        controller.newPlane(500, 500);
+        controller.executeAll(instructions);
+        return controller;
+    }
+
+    @Test
+    public void historyShouldStayWithinBudget() {
+        List<String> instructions = walk(1000);
+        DefaultController controller = new DefaultController();
+        controller.newPlane(500, 500);
+        controller.setCheckpointInterval(100);
+        controller.setHistoryBudget(64);
+        for (String instruction : instructions) {
+            controller.execute(instruction);
+            assertTrue(controller.getStoredConfigurations() <= 64);
+        }
+        assertEquals(controller(instructions.subList(0, 437)).getPlane().toString(), controller.seek(437).toString());
+        assertTrue(controller.getStoredConfigurations() <= 64);
+    }
+
+    @Test
+    public void loadedInstructionsShouldBeExecutedByIndex() throws IOException, LOGOSyntaxErrorException {
+        Path file = Files.createTempFile("program", ".txt");
+        try {
+            Files.writeString(file, "REPEAT 4 [ FORWARD 50\n LEFT 90 ]\nPENUP\nFORWARD 20\n");
+            DefaultController controller = new DefaultController();
+            controller.newPlane(500, 500);
+            controller.loadInstructions(file.toString());
+            assertEquals(List.of("REPEAT 4 [ FORWARD 50 LEFT 90 ]", "PENUP", "FORWARD 20"), controller.getAllInstructions());
+            controller.getAllInstructions().add(2, "LEFT 45");
+            for (int i = 0; i < controller.getAllInstructions().size(); i++)
+                controller.execute(i);
+            assertEquals(controller(new ArrayList<>(controller.getAllInstructions())).getPlane().toString(),
+                    controller.getPlane().toString());
+            assertEquals(1, controller.getPlane().getNumClosedAreas());
+            assertThrows(IllegalArgumentException.class, () -> controller.execute(4));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void outputPathShouldReplaceTheTxtExtension() {
+        assertEquals("dir/programOutput.svg", DefaultController.outputPath("dir/program.txt", ".svg"));
+        assertEquals("dir/programOutput.svg", DefaultController.outputPath("dir/program", ".svg"));
+        assertEquals("dir.txt/programOutput.png", DefaultController.outputPath("dir.txt/program", ".png"));
+        assertEquals("dir/.txtOutput.txt", DefaultController.outputPath("dir/.txt", ".txt"));
+    }
+
+    @Test
+    public void planeShouldBeExportedNextToTheProgram() throws IOException {
+        Path directory = Files.createTempDirectory("export");
+        Path program = directory.resolve("program.txt");
+        try {
+            DefaultController controller = controller(walk(10));
+            Path file = controller.exportPlane(program.toString(), PlaneExporter.binary());
+            assertEquals(directory.resolve("programOutput.logo"), file);
+            assertEquals("LOGO", new String(Files.readAllBytes(file), 0, 4, StandardCharsets.US_ASCII));
+            assertFalse(Files.exists(program));
+        } finally {
+            Files.deleteIfExists(directory.resolve("programOutput.logo"));
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void areaDetectionShouldApplyToTheCurrentAndNewPlanes() {
+        DefaultController controller = new DefaultController();
+        controller.newPlane(400, 400);
+        controller.execute("REPEAT 4 [ FORWARD 100 RIGHT 144 ]");
+        assertEquals(0, controller.getPlane().getNumClosedAreas());
+        controller.setAreaDetection(AreaDetection.INTERSECTIONS);
+        assertEquals(AreaDetection.INTERSECTIONS, controller.getAreaDetection());
+        assertTrue(controller.getPlane().getNumClosedAreas() > 0);
+        controller.clear();
+        controller.execute("REPEAT 4 [ FORWARD 100 RIGHT 144 ]");
+        assertTrue(controller.getPlane().getNumClosedAreas() > 0);
+        controller.newPlane(400, 400);
+        assertEquals(AreaDetection.INTERSECTIONS, ((DefaultPlane) controller.getPlane()).getAreaDetection());
+    }
+
+    @Test
+    public void seekShouldMoveBackwardAndForward() {
+        List<String> instructions = walk(50);
+        DefaultController controller = new DefaultController();
+        controller.newPlane(500, 500);
+        controller.getAllInstructions().addAll(instructions);
+        for (int i = 0; i < 10; i++)
+            controller.execute(i);
+        assertEquals(controller(instructions.subList(0, 40)).getPlane().toString(), controller.seek(40).toString());
+        assertEquals(40, controller.getConfigurationInstructions().size());
+        assertFalse(controller.hasNext());
+        assertEquals(controller(instructions.subList(0, 5)).getPlane().toString(), controller.seek(5).toString());
+        assertEquals(instructions.subList(0, 5), new ArrayList<>(controller.getConfigurationInstructions()));
+        assertTrue(controller.hasNext());
+        assertEquals(controller(instructions).getPlane().toString(), controller.seek(50).toString());
+        assertEquals(controller.getPlane(), controller.seek(50));
+        assertEquals(controller(new ArrayList<>()).getPlane().toString(), controller.seek(0).toString());
+        assertFalse(controller.hasPrevious());
+    }
+
+    @Test
+    public void seekShouldRestoreEvictedConfigurations() {
+        List<String> instructions = walk(100);
+        DefaultController controller = new DefaultController();
+        controller.newPlane(500, 500);
+        controller.setCheckpointInterval(10);
+        controller.setHistoryBudget(8);
+        controller.executeAll(instructions);
+        for (int index : new int[]{25, 95, 3, 30, 31, 29})
+            assertEquals(controller(instructions.subList(0, index)).getPlane().toString(), controller.seek(index).toString());
+        assertTrue(controller.getStoredConfigurations() <= 100 / 10 + 1 + 8);
+        assertEquals(controller(instructions.subList(0, 28)).getPlane().toString(), controller.previous().toString());
+    }
+
+    @Test
+    public void seekShouldRejectInvalidIndices() {
+        DefaultController controller = new DefaultController();
+        controller.newPlane(500, 500);
+        controller.getAllInstructions().addAll(walk(20));
+        for (int i = 0; i < 10; i++)
+            controller.execute(i);
+        assertThrows(IllegalArgumentException.class, () -> controller.seek(-1));
+        assertThrows(IllegalArgumentException.class, () -> controller.seek(21));
+        assertEquals(10, controller.getConfigurationInstructions().size());
+        controller.seek(20);
+        assertEquals(20, controller.getConfigurationInstructions().size());
+    }
+
+    @Test
+    public void seekShouldNotReplayInstructionsOutOfOrder() {
+        DefaultController typed = controller(walk(10));
+        typed.getAllInstructions().addAll(walk(20));
+        assertThrows(IllegalArgumentException.class, () -> typed.seek(20));
+        assertEquals(10, typed.getConfigurationInstructions().size());
+        assertEquals(typed.getPlane(), typed.seek(10));
+        DefaultController skipped = new DefaultController();
+        skipped.newPlane(500, 500);
+        skipped.getAllInstructions().addAll(walk(20));
+        skipped.execute(1);
+        assertThrows(IllegalArgumentException.class, () -> skipped.seek(5));
+        skipped.clear();
+        skipped.execute(0);
+        skipped.getAllInstructions().set(0, "HOME");
+        assertThrows(IllegalArgumentException.class, () -> skipped.seek(5));
+    }
+
+    @Test
+    public void executingFromAPreviousConfigurationShouldDropTheNextOnes() {
+        DefaultController controller = controller(List.of("FORWARD 10", "LEFT 90", "FORWARD 20"));
+        controller.previous();
+        controller.previous();
+        controller.execute("FORWARD 50");
+        assertFalse(controller.hasNext());
+        assertNull(controller.next());
+        assertEquals(List.of("FORWARD 10", "FORWARD 50"), new ArrayList<>(controller.getConfigurationInstructions()));
+        controller.setHistoryBudget(1);
+        String expected = controller(List.of("FORWARD 10", "FORWARD 50")).getPlane().toString();
+        assertEquals(expected, controller.seek(2).toString());
+        controller.seek(0);
+        assertEquals(expected, controller.seek(2).toString());
+        assertEquals(2, controller.getPlane().getNumLines());
+        assertThrows(IllegalArgumentException.class, () -> controller.seek(3));
+    }
+
+    @Test
+    public void historyShouldBeTruncatedWhileExecuting() throws InterruptedException {
+        List<String> instructions = walk(2000);
+        DefaultController controller = new DefaultController();
+        controller.newPlane(500, 500);
+        controller.setHistoryBudget(64);
+        controller.getAllInstructions().addAll(instructions);
+        List<Throwable> errors = new ArrayList<>();
+        Thread execution = new Thread(() -> {
+            try {
+                for (int i = 0; i < instructions.size(); i++)
+                    controller.execute(i);
+            } catch (RuntimeException e) {
+                errors.add(e);
+            }
+        });
+        execution.start();
+        while (execution.isAlive()) {
+            controller.clearNext();
+            controller.getAllInstructions().size();
+        }
+        execution.join();
+        assertTrue(errors.isEmpty());
+        assertEquals(controller(instructions).getPlane().toString(), controller.getPlane().toString());
+    }
+}
@@ -0,0 +1,125 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionServiceTest {
+
+    private static PlaneUpdateListener<Point<Double>> onLine(Runnable action) {
+        return new PlaneUpdateListener<>() {
+            @Override
+            public void fireMovedCursor(Point<Double> point) {
+            }
+
+            @Override
+            public void fireGeneratedLine(Line<Point<Double>> line) {
+                action.run();
+            }
+
+            @Override
+            public void fireGeneratedArea(ClosedArea<Line<Point<Double>>> area) {
+            }
+
+            @Override
+            public void fireScreenColor(RGBColor color) {
+            }
+
+            @Override
+            public void fireScreenCleaned() {
+            }
+        };
+    }
+
+    @Test
+    public void tasksShouldCompleteInParallel() throws LOGOSyntaxErrorException {
+        CountDownLatch latch = new CountDownLatch(4);
+        AtomicInteger released = new AtomicInteger();
+        List<ExecutionTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ExecutionTask task = new ExecutionTask("p" + i, "REPEAT 4 [ FORWARD " + (10 + i) + " LEFT 90 ]", 100, 100);
+            task.addPlaneUpdateListener(onLine(() -> {
+                latch.countDown();
+                try {
+                    if (latch.await(10, TimeUnit.SECONDS))
+                        released.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            tasks.add(task);
+        }
+        ExecutionReport report;
+        try (ExecutionService service = new ExecutionService(4)) {
+            report = service.executeAll(tasks);
+        }
+        assertEquals(16, released.get());
+        assertEquals(0, report.getFailed());
+        for (int i = 0; i < 4; i++) {
+            ExecutionResult result = report.getResults().get(i);
+            assertEquals("p" + i, result.getName());
+            assertTrue(result.isCompleted());
+            assertEquals(LOGOProgram.compile(tasks.get(i).getSource()).execute(new DefaultPlane(100, 100)).toString(),
+                    result.getPlane().toString());
+        }
+    }
+
+    @Test
+    public void failuresShouldBeIsolated() {
+        ExecutionTask failing = new ExecutionTask("failing", "FORWARD 10", 100, 100);
+        failing.addPlaneUpdateListener(onLine(() -> {
+            throw new IllegalStateException("Listener failure");
+        }));
+        List<ExecutionTask> tasks = Arrays.asList(new ExecutionTask("valid", "FORWARD 10", 100, 100),
+                new ExecutionTask("syntax", "FORWARD", 100, 100), failing,
+                new ExecutionTask("border", "FORWARD 1000", 100, 100));
+        ExecutionReport report;
+        try (ExecutionService service = new ExecutionService(2)) {
+            report = service.executeAll(tasks);
+        }
+        List<ExecutionResult> results = report.getResults();
+        assertEquals(ExecutionResult.Status.COMPLETED, results.get(0).getStatus());
+        assertEquals(1, results.get(0).getPlane().getNumLines());
+        assertEquals(ExecutionResult.Status.SYNTAX_ERROR, results.get(1).getStatus());
+        assertTrue(results.get(1).getError().contains("line 1"));
+        assertEquals(ExecutionResult.Status.FAILED, results.get(2).getStatus());
+        assertEquals("Listener failure", results.get(2).getError());
+        assertEquals(ExecutionResult.Status.COMPLETED, results.get(3).getStatus());
+        assertEquals(2, report.getFailed());
+    }
+
+    @Test
+    public void limitsShouldBeEnforced() {
+        ExecutionTask budget = new ExecutionTask("budget", "REPEAT 10 [ FORWARD 1 LEFT 90 ]", 100, 100);
+        budget.setInstructionBudget(7);
+        ExecutionTask timeout = new ExecutionTask("timeout", "FORWARD 1 REPEAT 100000000 [ FORWARD 1 LEFT 90 ]", 100, 100);
+        timeout.setTimeout(Duration.ofMillis(10));
+        ExecutionResult result = ExecutionService.execute(budget);
+        assertEquals(ExecutionResult.Status.BUDGET_EXCEEDED, result.getStatus());
+        assertEquals(4, result.getPlane().getNumLines());
+        result = ExecutionService.execute(timeout);
+        assertEquals(ExecutionResult.Status.TIMEOUT, result.getStatus());
+        assertEquals(1, result.getPlane().getNumLines());
+        assertThrows(IllegalArgumentException.class, () -> budget.setInstructionBudget(-1));
+        assertThrows(IllegalArgumentException.class, () -> timeout.setTimeout(Duration.ofMillis(-1)));
+    }
+
+    @Test
+    public void areaDetectionShouldBeApplied() {
+        ExecutionTask task = new ExecutionTask("star", "REPEAT 5 [ FORWARD 100 RIGHT 144 ]", 400, 400);
+        assertEquals(AreaDetection.ENDPOINTS, task.getAreaDetection());
+        assertEquals(1, ExecutionService.execute(task).getPlane().getNumClosedAreas());
+        task.setAreaDetection(AreaDetection.INTERSECTIONS);
+        assertTrue(ExecutionService.execute(task).getPlane().getNumClosedAreas() > 1);
+        assertThrows(NullPointerException.class, () -> task.setAreaDetection(null));
+    }
+}
@@ -0,0 +1,46 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportWriterTest {
+
+    @Test
+    public void dataLargerThanTheBufferShouldBeWritten() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportWriter writer = new ExportWriter(Channels.newChannel(out));
+        byte[] bytes = new byte[100000];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) i;
+        writer.putByte(7);
+        for (int i = 0; i < 50000; i++)
+            writer.putInt(i).putDouble(i / 2.0);
+        writer.put(bytes, 1, bytes.length - 1);
+        writer.flush();
+        ByteBuffer data = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(1 + 50000 * 12 + bytes.length - 1, data.remaining());
+        assertEquals(7, data.get());
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(i, data.getInt());
+            assertEquals(i / 2.0, data.getDouble());
+        }
+        for (int i = 1; i < bytes.length; i++)
+            assertEquals(bytes[i], data.get());
+    }
+
+    @Test
+    public void textShouldBeWrittenAsAscii() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportWriter writer = new ExportWriter(Channels.newChannel(out));
+        writer.putAscii("n=").putNumber(2.0).putAscii(" ").putNumber(-2.5).putAscii(" ").putNumber(1e20)
+                .putAscii(" ").putHexColor(0x12AB0F).flush();
+        assertEquals("n=2 -2.5 1.0E20 #12ab0f", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+}
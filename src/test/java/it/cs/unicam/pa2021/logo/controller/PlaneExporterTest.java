@@ -0,0 +1,142 @@
+package it.cs.unicam.pa2021.logo.controller;
+
+import it.cs.unicam.pa2021.logo.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaneExporterTest {
+
+    private static Plane<Point<Double>> plane() throws LOGOSyntaxErrorException {
+        return LOGOProgram.compile("FORWARD 5 FORWARD 2 SETPENCOLOR 255 0 0 FORWARD 1 PENUP FORWARD 1 PENDOWN FORWARD 1 "
+                + "SETFILLCOLOR 0 0 255 REPEAT 4 [ LEFT 90 FORWARD 4 ]").execute(new DefaultPlane(40, 20));
+    }
+
+    private static byte[] export(PlaneExporter exporter, Plane<Point<Double>> plane) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(plane, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void binaryExportShouldWriteHeaderAndCounts() throws LOGOSyntaxErrorException, IOException {
+        Plane<Point<Double>> plane = plane();
+        ByteBuffer data = ByteBuffer.wrap(export(PlaneExporter.binary(), plane));
+        byte[] magic = new byte[4];
+        data.get(magic);
+        assertEquals("LOGO", new String(magic, StandardCharsets.US_ASCII));
+        assertEquals(1, data.get());
+        assertEquals(40.0, data.getDouble());
+        assertEquals(20.0, data.getDouble());
+        assertEquals(0xFFFFFF, data.getInt());
+        assertEquals(8, data.getInt());
+        assertArrayEquals(new double[]{20, 10, 25, 10}, new double[]{data.getDouble(), data.getDouble(), data.getDouble(), data.getDouble()});
+        assertEquals(0x000000, data.getInt());
+        assertEquals(1, data.getInt());
+        data.position(data.position() + 7 * (4 * 8 + 2 * 4));
+        assertEquals(1, data.getInt());
+        assertEquals(0x0000FF, data.getInt());
+        assertEquals(4, data.getInt());
+        data.position(data.position() + 4 * 4 * 8);
+        assertFalse(data.hasRemaining());
+    }
+
+    @Test
+    public void pngExportShouldWriteValidChunks() throws LOGOSyntaxErrorException, IOException, DataFormatException {
+        ByteBuffer data = ByteBuffer.wrap(export(PlaneExporter.png(), plane()));
+        byte[] signature = new byte[8];
+        data.get(signature);
+        assertArrayEquals(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, signature);
+        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        String type = null;
+        byte[] header = null;
+        int chunks = 0;
+        while (data.hasRemaining()) {
+            byte[] chunk = new byte[4 + data.getInt()];
+            data.get(chunk);
+            CRC32 crc = new CRC32();
+            crc.update(chunk);
+            assertEquals((int) crc.getValue(), data.getInt());
+            type = new String(chunk, 0, 4, StandardCharsets.US_ASCII);
+            if (chunks++ == 0) {
+                assertEquals("IHDR", type);
+                header = Arrays.copyOfRange(chunk, 4, chunk.length);
+            } else if (type.equals("IDAT"))
+                idat.write(chunk, 4, chunk.length - 4);
+        }
+        assertEquals("IEND", type);
+        ByteBuffer ihdr = ByteBuffer.wrap(header);
+        assertEquals(13, header.length);
+        assertEquals(40, ihdr.getInt());
+        assertEquals(20, ihdr.getInt());
+        assertArrayEquals(new byte[]{8, 2, 0, 0, 0}, Arrays.copyOfRange(header, 8, 13));
+        Inflater inflater = new Inflater();
+        byte[] image = new byte[20 * (1 + 3 * 40)];
+        inflater.setInput(idat.toByteArray());
+        assertEquals(image.length, inflater.inflate(image));
+        assertTrue(inflater.finished());
+        inflater.end();
+        for (int row = 0; row < 20; row++)
+            assertEquals(0, image[row * (1 + 3 * 40)]);
+        assertEquals(0xFFFFFF, pixel(image, 0, 0));
+        assertEquals(0x000000, pixel(image, 22, 10));
+        assertEquals(0xFF0000, pixel(image, 27, 14));
+        assertEquals(0x0000FF, pixel(image, 28, 12));
+    }
+
+    private static int pixel(byte[] image, int x, int y) {
+        int offset = (19 - y) * (1 + 3 * 40) + 1 + 3 * x;
+        return (image[offset] & 0xFF) << 16 | (image[offset + 1] & 0xFF) << 8 | (image[offset + 2] & 0xFF);
+    }
+
+    @Test
+    public void svgExportShouldGroupPaths() throws LOGOSyntaxErrorException, IOException {
+        String svg = new String(export(PlaneExporter.svg(), plane()), StandardCharsets.UTF_8);
+        assertTrue(svg.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<svg "));
+        assertTrue(svg.contains("width=\"40\" height=\"20\" viewBox=\"0 0 40 20\""));
+        assertTrue(svg.endsWith("</g>\n</svg>\n"));
+        assertEquals(2, svg.split("<path ", -1).length - 1);
+        assertTrue(svg.contains("<path stroke=\"#000000\" stroke-width=\"1\" d=\"M20 10L25 10L27 10\"/>"));
+        assertTrue(svg.contains("<path stroke=\"#ff0000\" stroke-width=\"1\" d=\"M27 10L28 10M29 10L30 10L30 14L26 14L26 10L30 10\"/>"));
+        assertTrue(svg.contains("<polygon stroke=\"none\" fill=\"#0000ff\" points=\"30,10 30,14 26,14 26,10\"/>"));
+        assertEquals(1, svg.split("<polygon ", -1).length - 1);
+    }
+
+    @Test
+    public void svgAreasShouldFollowTheSharedEndpoints() throws IOException {
+        Point<Double> a = Point.cartesianPoint(100, 100), b = Point.cartesianPoint(200, 200),
+                c = Point.cartesianPoint(200, 100), d = Point.cartesianPoint(100, 200);
+        Plane<Point<Double>> plane = new DefaultPlane(300, 300);
+        for (Line<Point<Double>> l : Arrays.asList(new Segment<>(a, c, RGBColor.of(0, 0, 0), 1),
+                new Segment<>(c, b, RGBColor.of(0, 0, 0), 1), new Segment<>(a, d, RGBColor.of(0, 0, 0), 1),
+                new Segment<>(d, b, RGBColor.of(0, 0, 0), 1)))
+            plane.addLine(l);
+        assertEquals(1, plane.getNumClosedAreas());
+        String svg = new String(export(PlaneExporter.svg(), plane), StandardCharsets.UTF_8);
+        String points = svg.substring(svg.indexOf("points=\"") + 8, svg.indexOf("\"/>", svg.indexOf("points=\"")));
+        assertEquals(4, points.split(" ").length);
+        for (String vertex : new String[]{"100,100", "200,100", "200,200", "100,200"})
+            assertTrue(points.contains(vertex));
+        String cycle = "100,100 200,100 200,200 100,200 100,100 200,100 200,200 100,200";
+        String reversed = "100,200 200,200 200,100 100,100 100,200 200,200 200,100 100,100";
+        assertTrue(cycle.contains(points) || reversed.contains(points), points);
+    }
+
+    @Test
+    public void exportersShouldBeFoundByExtension() {
+        assertEquals("svg", PlaneExporter.forExtension("SVG").getExtension());
+        assertEquals("png", PlaneExporter.forExtension("png").getExtension());
+        assertEquals("logo", PlaneExporter.forExtension("logo").getExtension());
+        assertThrows(IllegalArgumentException.class, () -> PlaneExporter.forExtension("jpg"));
+    }
+}
@@ -0,0 +1,22 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartesianPointTest {
+
+    @Test
+    public void pointsShouldBeComparedBitByBit() {
+        Point<Double> p = Point.cartesianPoint(12.5, 7.25);
+        assertEquals(p, Point.cartesianPoint(Double.valueOf(12.5), Double.valueOf(7.25)));
+        assertEquals(Objects.hash(12.5, 7.25), p.hashCode());
+        assertEquals(12.5, p.getDoubleX());
+        assertEquals(7.25, p.getY());
+        assertNotEquals(Point.cartesianPoint(0.0, 0.0), Point.cartesianPoint(-0.0, 0.0));
+        assertEquals(Point.cartesianPoint(Double.NaN, 1), Point.cartesianPoint(Double.NaN, 1));
+        assertEquals("P(12.5,7.25)", p.toString());
+    }
+}
@@ -2,9 +2,14 @@ package it.cs.unicam.pa2021.logo.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -123,6 +128,23 @@ class DefaultPlaneTest {
         assertEquals(1, plane.getNumClosedAreas());
     }
 
+    @Test
+    public void previousPlaneShouldNotChange() {
+        Plane<Point<Double>> plane = new DefaultPlane(1000, 1000);
+        Instruction<Point<Double>> i = Instruction::repeat;
+        plane = i.execute(plane, 3, Arrays.asList("FORWARD", "10", "RIGHT", "90"));
+        Plane<Point<Double>> square = i.execute(plane, 1, Arrays.asList("FORWARD", "10"));
+        Plane<Point<Double>> cleaned = Instruction.clearScreen(square);
+        assertEquals(3, plane.getNumLines());
+        assertEquals(4, plane.getNumPoints());
+        assertEquals(0, plane.getNumClosedAreas());
+        assertEquals(4, square.getNumLines());
+        assertEquals(1, square.getNumClosedAreas());
+        assertEquals(0, cleaned.getNumLines());
+        assertEquals(0, cleaned.getNumPoints());
+        assertThrows(UnsupportedOperationException.class, () -> square.getLines().clear());
+    }
+
     @Test
     public void IllegalArgumentExceptionShouldBeThrown() {
         assertThrows(IllegalArgumentException.class, () -> new DefaultPlane(-100, 200));
@@ -170,4 +192,223 @@ class DefaultPlaneTest {
         assertFalse(plane.bePartOfPlane(Point.cartesianPoint(50, 70)));
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void crossingLinesShouldCloseAreaOnlyWithIntersections() {
+        DefaultPlane endpoints = new DefaultPlane(100, 100);
+        DefaultPlane intersections = new DefaultPlane(100, 100);
+        intersections.setAreaDetection(AreaDetection.INTERSECTIONS);
+        List<Point<Double>> path = List.of(Point.cartesianPoint(0, 0), Point.cartesianPoint(10, 10),
+                Point.cartesianPoint(10, 0), Point.cartesianPoint(0, 10));
+        for (int j = 0; j < path.size() - 1; j++) {
+            endpoints.addLine(new Segment<>(path.get(j), path.get(j + 1), new RGBColor(0, 0, 0), 1));
+            intersections.addLine(new Segment<>(path.get(j), path.get(j + 1), new RGBColor(0, 0, 0), 1));
+        }
+        assertEquals(0, endpoints.getNumClosedAreas());
+        assertEquals(1, intersections.getNumClosedAreas());
+        assertEquals(3, intersections.getClosedAreas().peek().getArea().size());
+        assertEquals(3, intersections.getNumLines());
+        endpoints.setAreaDetection(AreaDetection.INTERSECTIONS);
+        assertEquals(1, endpoints.getNumClosedAreas());
+        assertEquals(intersections.getClosedAreas().peek().getArea().size(), endpoints.getClosedAreas().peek().getArea().size());
+    }
+
+    @Test
+    public void areasShouldNotCrossWithIntersections() {
+        DefaultPlane intersections = new DefaultPlane(400, 400);
+        intersections.setAreaDetection(AreaDetection.INTERSECTIONS);
+        Instruction<Point<Double>> i = Instruction::repeat;
+        Plane<Point<Double>> plane = i.execute(intersections, 5, Arrays.asList("FORWARD", "100", "RIGHT", "144"));
+        assertTrue(plane.getNumClosedAreas() > 1);
+        List<ClosedArea<Line<Point<Double>>>> areas = new ArrayList<>(plane.getClosedAreas());
+        for (ClosedArea<Line<Point<Double>>> a : areas)
+            for (ClosedArea<Line<Point<Double>>> b : areas)
+                if (a != b)
+                    for (Line<Point<Double>> l : a.getArea())
+                        for (Line<Point<Double>> m : b.getArea())
+                            assertFalse(crosses(l, m), l + " crosses " + m);
+    }
+
+    @Test
+    public void linesInRectangleShouldBeFound() {
+        DefaultPlane p = new DefaultPlane(500, 500);
+        Line<Point<Double>> l0 = new Segment<>(Point.cartesianPoint(10, 10), Point.cartesianPoint(490, 490), new RGBColor(0, 0, 0), 1);
+        Line<Point<Double>> l1 = new Segment<>(Point.cartesianPoint(300, 10), Point.cartesianPoint(300, 100), new RGBColor(0, 0, 0), 1);
+        Line<Point<Double>> l2 = new Segment<>(Point.cartesianPoint(10, 400), Point.cartesianPoint(100, 400), new RGBColor(0, 0, 0), 1);
+        p.addLine(l0);
+        p.addLine(l1);
+        p.addLine(l2);
+        assertEquals(Arrays.asList(l0, l1), p.getLinesIn(Point.cartesianPoint(280, 50), Point.cartesianPoint(320, 300)));
+        assertEquals(Arrays.asList(l0), p.getLinesIn(Point.cartesianPoint(250, 250), Point.cartesianPoint(250, 250)));
+        assertEquals(Arrays.asList(l2), p.getLinesIn(Point.cartesianPoint(100, 420), Point.cartesianPoint(0, 380)));
+        assertTrue(p.getLinesIn(Point.cartesianPoint(400, 10), Point.cartesianPoint(480, 100)).isEmpty());
+        assertEquals(Optional.of(l1), p.lineExistsBetween(Point.cartesianPoint(300, 100), Point.cartesianPoint(300, 10)));
+        p.clear();
+        assertTrue(p.getLinesIn(Point.cartesianPoint(0, 0), Point.cartesianPoint(500, 500)).isEmpty());
+        assertTrue(p.getLinesAt(Point.cartesianPoint(10, 10)).isEmpty());
+    }
+
+    @Test
+    public void areaOfLinesShouldBeFound() {
+        DefaultPlane p = new DefaultPlane(100, 100);
+        List<Point<Double>> square = List.of(Point.cartesianPoint(10, 10), Point.cartesianPoint(20, 10),
+                Point.cartesianPoint(20, 20), Point.cartesianPoint(10, 20), Point.cartesianPoint(10, 10));
+        for (int j = 0; j < square.size() - 1; j++)
+            p.addLine(new Segment<>(square.get(j), square.get(j + 1), new RGBColor(0, 0, 0), 1));
+        Line<Point<Double>> tail = new Segment<>(square.get(2), Point.cartesianPoint(50, 50), new RGBColor(0, 0, 0), 1);
+        p.addLine(tail);
+        assertEquals(1, p.getNumClosedAreas());
+        for (Line<Point<Double>> l : p.getClosedAreas().peek().getArea())
+            assertEquals(Optional.of(p.getClosedAreas().peek()), p.areaOf(l));
+        assertEquals(Optional.of(p.getClosedAreas().peek()), p.areaOf(new Segment<>(square.get(1), square.get(0), new RGBColor(0, 0, 0), 1)));
+        assertFalse(p.areaOf(tail).isPresent());
+        assertFalse(p.areaOf(new Segment<>(square.get(0), square.get(2), new RGBColor(0, 0, 0), 1)).isPresent());
+    }
+
+    @Test
+    public void addLinesShouldMatchAddLine() {
+        List<Line<Point<Double>>> lines = new ArrayList<>();
+        for (int j = 0; j < 200; j++) {
+            double a = Math.toRadians(j * 7 % 12 * 30), b = Math.toRadians((j * 5 + j / 12) % 12 * 30);
+            lines.add(new Segment<>(Point.cartesianPoint(Math.round(250 + 100 * Math.cos(a)), Math.round(250 + 100 * Math.sin(a))),
+                    Point.cartesianPoint(Math.round(250 + 100 * Math.cos(b)), Math.round(250 + 100 * Math.sin(b))),
+                    new RGBColor(0, 0, 0), 1));
+        }
+        for (AreaDetection mode : AreaDetection.values()) {
+            DefaultPlane expected = new DefaultPlane(500, 500);
+            expected.setAreaDetection(mode);
+            for (Line<Point<Double>> l : lines)
+                expected.addLine(l);
+            DefaultPlane actual = new DefaultPlane(500, 500);
+            actual.setAreaDetection(mode);
+            List<Integer> notifications = new ArrayList<>();
+            actual.addPlaneUpdateListener(new PlaneUpdateListener<>() {
+                public void fireMovedCursor(Point<Double> point) { }
+                public void fireGeneratedLine(Line<Point<Double>> line) { }
+                public void fireGeneratedArea(ClosedArea<Line<Point<Double>>> area) { notifications.add(1); }
+                public void fireGeneratedAreas(List<ClosedArea<Line<Point<Double>>>> areas) { notifications.add(areas.size()); }
+                public void fireScreenColor(RGBColor color) { }
+                public void fireScreenCleaned() { }
+            });
+            actual.addLines(lines);
+            assertTrue(expected.getNumClosedAreas() > 0);
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(Arrays.asList(expected.getNumClosedAreas()), notifications);
+        }
+    }
+
+    @Test
+    public void addLinesShouldLeaveTheSameGraphAsAddLine() {
+        for (AreaDetection mode : AreaDetection.values()) {
+            List<Line<Point<Double>>> walk = randomWalk(new Random(2), 3000);
+            DefaultPlane expected = new DefaultPlane(1000, 1000);
+            expected.setAreaDetection(mode);
+            DefaultPlane actual = new DefaultPlane(1000, 1000);
+            actual.setAreaDetection(mode);
+            for (Line<Point<Double>> l : walk.subList(0, 2000))
+                expected.addLine(l);
+            actual.addLines(walk.subList(0, 1000));
+            DefaultPlane copy = new DefaultPlane(actual);
+            actual.addLines(walk.subList(1000, 2000));
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.getGraph().getEdges(), actual.getGraph().getEdges());
+            assertEquals(expected.getGraph().getNodes(), actual.getGraph().getNodes());
+            assertEquals(1000, copy.getNumLines());
+            for (Line<Point<Double>> l : walk.subList(2000, 3000)) {
+                expected.addLine(l);
+                actual.addLine(l);
+            }
+            assertTrue(expected.getNumClosedAreas() > 0);
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void planeVersionsShouldDetectAreas() {
+        for (AreaDetection mode : AreaDetection.values()) {
+            DefaultPlane expected = new DefaultPlane(100, 100);
+            expected.setAreaDetection(mode);
+            DefaultPlane version = new DefaultPlane(100, 100);
+            version.setAreaDetection(mode);
+            List<Point<Double>> path = List.of(Point.cartesianPoint(10, 10), Point.cartesianPoint(50, 10),
+                    Point.cartesianPoint(50, 50), Point.cartesianPoint(10, 50), Point.cartesianPoint(30, 0),
+                    Point.cartesianPoint(30, 60), Point.cartesianPoint(10, 10));
+            for (int j = 0; j < path.size() - 1; j++) {
+                Line<Point<Double>> l = new Segment<>(path.get(j), path.get(j + 1), new RGBColor(0, 0, 0), 1);
+                expected.addLine(l);
+                DefaultPlane previous = version;
+                version = new DefaultPlane(previous);
+                version.addLine(l);
+                assertEquals(j, previous.getNumLines());
+            }
+            assertTrue(expected.getNumClosedAreas() > 0);
+            assertEquals(expected.toString(), version.toString());
+        }
+    }
+
+    @Test
+    public void indexKeysShouldNotCollide() {
+        Set<Integer> pairs = new HashSet<>(), cells = new HashSet<>();
+        for (int k = 0; k < 1000; k++) {
+            pairs.add(Long.hashCode(DefaultPlane.pairKey(2 * k, 2 * k + 1)));
+            cells.add(Long.hashCode(DefaultPlane.cellKey(k, k)));
+        }
+        assertEquals(1000, pairs.size());
+        assertEquals(1000, cells.size());
+    }
+
+    @Test
+    public void newVersionsShouldShareThePlane() {
+        Random random = new Random(1);
+        DefaultPlane first = new DefaultPlane(1000, 1000);
+        first.addLines(randomWalk(random, 1000));
+        String state = first.toString();
+        DefaultPlane plane = first;
+        int copies = 0;
+        for (Line<Point<Double>> l : randomWalk(random, 1000)) {
+            DefaultPlane previous = plane;
+            plane = new DefaultPlane(previous);
+            assertSame(previous.getSegments(), plane.getSegments());
+            plane.addLine(l);
+            assertEquals(previous.getNumLines() + 1, plane.getNumLines());
+            if (!previous.getSegments().isPrefixOf(plane.getSegments()))
+                copies++;
+        }
+        assertTrue(copies <= 2, copies + " of 1000 versions copied the segments");
+        assertEquals(1000, first.getNumLines());
+        assertEquals(state, first.toString());
+    }
+
+    /**
+     * Verifica se due linee si incrociano in un punto interno a entrambe; le linee sovrapposte,
+     * come i lati comuni a due aree, non si incrociano.
+     */
+    private static boolean crosses(Line<Point<Double>> l, Line<Point<Double>> m) {
+        double dx1 = l.getEndPoint().getDoubleX() - l.getStartingPoint().getDoubleX(),
+                dy1 = l.getEndPoint().getDoubleY() - l.getStartingPoint().getDoubleY(),
+                dx2 = m.getEndPoint().getDoubleX() - m.getStartingPoint().getDoubleX(),
+                dy2 = m.getEndPoint().getDoubleY() - m.getStartingPoint().getDoubleY();
+        if (Math.abs(dx1 * dy2 - dy1 * dx2) < 1e-3 * Math.hypot(dx1, dy1) * Math.hypot(dx2, dy2))
+            return false;
+        for (Point<Double> p : SweepLineIntersector.commonPoints(l, m))
+            if (!isEndPoint(l, p) && !isEndPoint(m, p))
+                return true;
+        return false;
+    }
+
+    private static boolean isEndPoint(Line<Point<Double>> line, Point<Double> point) {
+        return line.getStartingPoint().equals(point) || line.getEndPoint().equals(point);
+    }
+
+    private static List<Line<Point<Double>>> randomWalk(Random random, int count) {
+        List<Line<Point<Double>>> lines = new ArrayList<>();
+        Point<Double> last = Point.cartesianPoint(500, 500);
+        for (int j = 0; j < count; j++) {
+            Point<Double> next = Point.cartesianPoint(random.nextInt(1000), random.nextInt(1000));
+            lines.add(new Segment<>(last, next, new RGBColor(0, 0, 0), 1));
+            last = next;
+        }
+        return lines;
+    }
+
+}
@@ -2,7 +2,9 @@ package it.cs.unicam.pa2021.logo.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -252,4 +254,51 @@ class InstructionTest {
         assertThrows(IllegalArgumentException.class, () -> instr.execute(plane, new RGBColor(56, 2, 301)));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void cursorShouldStopAtFirstBorderCrossed() {
+        Plane<Point<Double>> plane = new DefaultPlane(100, 50);
+        Instruction<Point<Double>> i = Instruction::left;
+        plane = i.execute(plane, 30);
+        i = Instruction::forward;
+        plane = i.execute(plane, 100);
+        assertEquals(Point.cartesianPoint(91.57, 49.0), plane.getCursorPosition());
+        i = Instruction::right;
+        plane = i.execute(plane, 180);
+        i = Instruction::forward;
+        plane = i.execute(plane, 200);
+        assertEquals(Point.cartesianPoint(6.7, 0.0), plane.getCursorPosition());
+    }
+
+    @Test
+    public void tracerShouldReceiveExecutionEvents() throws LOGOSyntaxErrorException {
+        List<String> events = new ArrayList<>();
+        DefaultPlane plane = new DefaultPlane(100, 100);
+        plane.setTracer(new ExecutionTracer() {
+            @Override
+            public void generatedLine(Line<Point<Double>> line) {
+                events.add("line");
+            }
+
+            @Override
+            public void movedCursor(Point<Double> from, Point<Double> to) {
+                events.add("move " + to);
+            }
+
+            @Override
+            public void reachedBorder(Point<Double> position) {
+                events.add("border " + position);
+            }
+
+            @Override
+            public void generatedArea(ClosedArea<Line<Point<Double>>> area) {
+                events.add("area");
+            }
+        });
+        Plane<Point<Double>> p = LOGOProgram.compile("PENUP FORWARD 10 PENDOWN REPEAT 4 [ FORWARD 10 LEFT 90 ] FORWARD 100")
+                .execute(plane);
+        assertEquals(Arrays.asList("move P(60.0,50.0)", "line", "line", "line", "line", "area",
+                "border P(99.0,50.0)", "line"), events);
+        assertSame(plane.getTracer(), p.getTracer());
+        assertSame(ExecutionTracer.NONE, new DefaultPlane(100, 100).getTracer());
+    }
+}
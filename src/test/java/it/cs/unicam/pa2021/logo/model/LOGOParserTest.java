@@ -0,0 +1,56 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LOGOParserTest {
+
+    @Test
+    public void statementsShouldHavePositions() throws LOGOSyntaxErrorException {
+        List<LOGOStatement> program = LOGOParser.parse("SETFILLCOLOR 0 255 0\n  RIGHT 90 FORWARD 50\nREPEAT 2 [RIGHT 120 FORWARD 50]");
+        assertEquals(4, program.size());
+        assertEquals("SETFILLCOLOR 0 255 0", program.get(0).toString());
+        assertEquals(2, program.get(1).getLine());
+        assertEquals(3, program.get(1).getColumn());
+        assertEquals(12, program.get(2).getColumn());
+        LOGOStatement repeat = program.get(3);
+        assertEquals("REPEAT 2 [ RIGHT 120 FORWARD 50 ]", repeat.toString());
+        assertEquals(2, repeat.getBody().size());
+        assertEquals(3, repeat.getBody().get(0).getLine());
+        assertEquals(11, repeat.getBody().get(0).getColumn());
+    }
+
+    @Test
+    public void nestedRepeatShouldBeParsed() throws LOGOSyntaxErrorException {
+        List<LOGOStatement> program = LOGOParser.parse("REPEAT 4 [REPEAT 3 [ FORWARD 10 LEFT 120 ]\nRIGHT 90]");
+        assertEquals(1, program.size());
+        LOGOStatement inner = program.get(0).getBody().get(0);
+        assertEquals("REPEAT", inner.getName());
+        assertEquals(3, inner.getArguments()[0]);
+        assertEquals(2, inner.getBody().size());
+        assertEquals("REPEAT 4 [ REPEAT 3 [ FORWARD 10 LEFT 120 ] RIGHT 90 ]", program.get(0).toString());
+        Plane<Point<Double>> p = LOGOProgram.compile(program.get(0).toString()).execute(new DefaultPlane(100, 100));
+        assertEquals(4, p.getNumClosedAreas());
+    }
+
+    @Test
+    public void syntaxErrorsShouldHavePositions() {
+        LOGOSyntaxErrorException e = assertThrows(LOGOSyntaxErrorException.class, () -> LOGOParser.parse("50\nLEFT 90"));
+        assertEquals(1, e.getLine());
+        assertEquals(1, e.getColumn());
+        e = assertThrows(LOGOSyntaxErrorException.class, () -> LOGOParser.parse("LEFT 90\nHOME REPEAT CIAO 3 [RIGHT 67]"));
+        assertEquals(2, e.getLine());
+        assertEquals(13, e.getColumn());
+        e = assertThrows(LOGOSyntaxErrorException.class, () -> LOGOParser.parse("REPEAT 3 [RIGHT 67 WRONG BACKWARD 44]"));
+        assertEquals(20, e.getColumn());
+        e = assertThrows(LOGOSyntaxErrorException.class, () -> LOGOParser.parse("SETSCREENCOLOR 255 0"));
+        assertEquals(21, e.getColumn());
+        e = assertThrows(LOGOSyntaxErrorException.class, () -> LOGOParser.parse("REPEAT 2 [ REPEAT 2 [ HOME ]"));
+        assertEquals(10, e.getColumn());
+        e = assertThrows(LOGOSyntaxErrorException.class, () -> LOGOParser.parse("HOME ]"));
+        assertEquals(6, e.getColumn());
+    }
+}
@@ -0,0 +1,165 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LOGOProgramTest {
+
+    @Test
+    public void programShouldMatchInstructions() throws LOGOSyntaxErrorException {
+        Plane<Point<Double>> expected = new DefaultPlane(500, 500);
+        expected = Instruction.setPenColor(expected, 255, 0, 0);
+        for (int i = 0; i < 36; i++) {
+            expected = Instruction.forward(expected, 20);
+            expected = Instruction.right(expected, 10);
+        }
+        Plane<Point<Double>> actual = LOGOProgram.compile("SETPENCOLOR 255 0 0 REPEAT 36 [ FORWARD 20 RIGHT 10 ]")
+                .execute(new DefaultPlane(500, 500));
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getNumClosedAreas(), actual.getNumClosedAreas());
+    }
+
+    @Test
+    public void repeatShouldRequireBracketsAndInstructions() {
+        LOGOSyntaxErrorException e = assertThrows(LOGOSyntaxErrorException.class,
+                () -> LOGOProgram.compile("REPEAT 4  FORWARD 10 LEFT 90 "));
+        assertEquals(1, e.getLine());
+        assertEquals(11, e.getColumn());
+        e = assertThrows(LOGOSyntaxErrorException.class, () -> LOGOProgram.compile("REPEAT 4 [ FORWARD 10 WRONG LEFT 90 ]"));
+        assertEquals(23, e.getColumn());
+        assertThrows(LOGOSyntaxErrorException.class, () -> LOGOProgram.compileRepeat(4, Arrays.asList("FORWARD", "10", "WRONG")));
+    }
+
+    @Test
+    public void nestedRepeatShouldBeExecuted() throws LOGOSyntaxErrorException {
+        Plane<Point<Double>> p = LOGOProgram.compile("REPEAT 2 [REPEAT 3 [FORWARD 1] LEFT 90]")
+                .execute(new DefaultPlane(100, 100));
+        assertEquals(6, p.getNumLines());
+        assertEquals(new SimpleDirection(180).getDirectionWay(), p.getCursor().getDirection().getDirectionWay());
+        Plane<Point<Double>> expected = new DefaultPlane(100, 100);
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++)
+                expected = Instruction.forward(expected, 1);
+            expected = Instruction.left(expected, 90);
+        }
+        assertEquals(expected.toString(), p.toString());
+        assertEquals(expected.getCursorPosition(), p.getCursorPosition());
+        Plane<Point<Double>> empty = LOGOProgram.compile("REPEAT 0 [ FORWARD 1 ]").execute(new DefaultPlane(100, 100));
+        assertEquals(0, empty.getNumLines());
+        assertEquals(empty.getHome(), empty.getCursorPosition());
+        assertEquals(new DefaultPlane(100, 100).toString(), empty.toString());
+    }
+
+    @Test
+    public void motionBlocksShouldMatchInstructions() throws LOGOSyntaxErrorException {
+        Plane<Point<Double>> expected = new DefaultPlane(300, 300);
+        for (int i = 0; i < 50; i++) {
+            expected = Instruction.forward(expected, 7);
+            expected = Instruction.penUp(expected);
+            expected = Instruction.backward(expected, 3);
+            expected = Instruction.penDown(expected);
+            expected = Instruction.left(expected, 37);
+        }
+        Plane<Point<Double>> actual = LOGOProgram.compile("REPEAT 50 [ FORWARD 7 PENUP BACKWARD 3 PENDOWN LEFT 37 ]")
+                .execute(new DefaultPlane(300, 300));
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getCursor().isPen(), actual.getCursor().isPen());
+        assertEquals(expected.getCursor().isPlot(), actual.getCursor().isPlot());
+        assertEquals(expected.getCursor().getDirection().getDirectionWay(), actual.getCursor().getDirection().getDirectionWay());
+    }
+
+    @Test
+    public void motionBlocksShouldStopAtTheBorder() throws LOGOSyntaxErrorException {
+        Plane<Point<Double>> expected = new DefaultPlane(100, 100);
+        for (int i = 0; i < 4; i++) {
+            expected = Instruction.forward(expected, 30);
+            expected = Instruction.right(expected, 10);
+        }
+        Plane<Point<Double>> actual = LOGOProgram.compile("REPEAT 4 [ FORWARD 30 RIGHT 10 ]").execute(new DefaultPlane(100, 100));
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getCursorPosition(), actual.getCursorPosition());
+    }
+
+    @Test
+    public void invalidProgramsShouldNotCompile() {
+        assertThrows(LOGOSyntaxErrorException.class, () -> LOGOProgram.compile("WRONG 3"));
+        assertThrows(LOGOSyntaxErrorException.class, () -> LOGOProgram.compile("50"));
+        assertThrows(LOGOSyntaxErrorException.class, () -> LOGOProgram.compile("SETSCREENCOLOR 255 0"));
+        assertThrows(LOGOSyntaxErrorException.class, () -> LOGOProgram.compile("FORWARD TEN"));
+        assertThrows(LOGOSyntaxErrorException.class, () -> LOGOProgram.compile("REPEAT 3 [ FORWARD 1"));
+    }
+
+    @Test
+    public void parsedProgramShouldMatchCompiledProgram() throws LOGOSyntaxErrorException {
+        String source = "SETPENCOLOR 255 0 0 REPEAT 4 [ REPEAT 3 [ FORWARD 10 LEFT 120 ] RIGHT 90 ] HOME";
+        Plane<Point<Double>> expected = LOGOProgram.compile(source).execute(new DefaultPlane(100, 100));
+        Plane<Point<Double>> actual = LOGOProgram.of(LOGOParser.parse(source)).execute(new DefaultPlane(100, 100));
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(4, actual.getNumClosedAreas());
+        assertThrows(IllegalArgumentException.class, () -> LOGOProgram.of(Arrays.asList(
+                new LOGOStatement("FORWARD", new int[0], Arrays.asList(), 1, 1))));
+    }
+
+    @Test
+    public void executionShouldStopAtTheLimits() throws LOGOSyntaxErrorException {
+        LOGOProgram program = LOGOProgram.compile("REPEAT 10 [ FORWARD 1 LEFT 90 ]");
+        assertEquals(10, program.execute(new DefaultPlane(100, 100), 20, null).getNumLines());
+        LOGOLimitExceededException e = assertThrows(LOGOLimitExceededException.class,
+                () -> program.execute(new DefaultPlane(100, 100), 7, null));
+        assertEquals(LOGOLimitExceededException.Limit.INSTRUCTIONS, e.getLimit());
+        assertEquals(4, e.getPlane().getNumLines());
+        e = assertThrows(LOGOLimitExceededException.class, () -> LOGOProgram.compile("REPEAT 100000000 [ HOME ]")
+                .execute(new DefaultPlane(100, 100), Long.MAX_VALUE, Duration.ofMillis(10)));
+        assertEquals(LOGOLimitExceededException.Limit.TIME, e.getLimit());
+    }
+
+    @Test
+    public void motionBlocksShouldStopAtTheLimits() throws LOGOSyntaxErrorException {
+        LOGOProgram program = LOGOProgram.compile("FORWARD 1 REPEAT 100000000 [ FORWARD 1 LEFT 90 ]");
+        LOGOLimitExceededException e = assertThrows(LOGOLimitExceededException.class,
+                () -> program.execute(new DefaultPlane(100, 100), Long.MAX_VALUE, Duration.ofMillis(10)));
+        assertEquals(LOGOLimitExceededException.Limit.TIME, e.getLimit());
+        assertEquals(1, e.getPlane().getNumLines());
+        e = assertThrows(LOGOLimitExceededException.class, () -> program.execute(new DefaultPlane(100, 100), 1000, null));
+        assertEquals(LOGOLimitExceededException.Limit.INSTRUCTIONS, e.getLimit());
+        assertEquals(501, e.getPlane().getNumLines());
+    }
+
+    @Test
+    public void motionBlocksShouldFireLinesBeforeAreas() throws LOGOSyntaxErrorException {
+        List<String> events = new ArrayList<>();
+        Plane<Point<Double>> plane = new DefaultPlane(100, 100);
+        plane.addPlaneUpdateListener(new PlaneUpdateListener<>() {
+            @Override
+            public void fireMovedCursor(Point<Double> point) {
+                events.add("cursor");
+            }
+
+            @Override
+            public void fireGeneratedLine(Line<Point<Double>> line) {
+                events.add("line");
+            }
+
+            @Override
+            public void fireGeneratedArea(ClosedArea<Line<Point<Double>>> area) {
+                events.add("area");
+            }
+
+            @Override
+            public void fireScreenColor(RGBColor color) {
+            }
+
+            @Override
+            public void fireScreenCleaned() {
+            }
+        });
+        LOGOProgram.compile("REPEAT 1 [ PENUP FORWARD 10 PENDOWN REPEAT 4 [ LEFT 90 FORWARD 10 ] ]").execute(plane);
+        assertEquals(Arrays.asList("cursor", "line", "line", "line", "line", "area"), events);
+    }
+}
@@ -0,0 +1,91 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentGraphTest {
+
+    private GraphNode<Integer, String> node(int label) {
+        return new GraphNode<>(label, "N" + label);
+    }
+
+    @Test
+    public void pathShouldBeFound() {
+        Graph<String> graph = new PersistentGraph<>();
+        graph.addEdge(node(1), node(2));
+        graph.addEdge(node(2), node(3));
+        assertTrue(graph.getPath(node(1), node(4)).isEmpty());
+        assertTrue(graph.getPath(node(1), node(2)).isEmpty());
+        List<GraphNode<Integer, String>> path = graph.getPath(node(1), node(3));
+        assertEquals(Arrays.asList(node(1), node(2), node(3)), path);
+        assertEquals("N2", path.get(1).getData());
+        assertEquals(2, graph.getEdges());
+    }
+
+    @Test
+    public void removedEdgesShouldNotBeFollowed() {
+        Graph<String> graph = new PersistentGraph<>();
+        graph.addEdge(node(1), node(2));
+        graph.addEdge(node(2), node(3));
+        graph.removeEdge(node(3), node(2));
+        graph.removeEdge(node(3), node(4));
+        assertEquals(1, graph.getEdges());
+        assertTrue(graph.getPath(node(1), node(3)).isEmpty());
+    }
+
+    @Test
+    public void parallelEdgesShouldBeRemovedOneAtATime() {
+        Graph<String> graph = new PersistentGraph<>();
+        graph.addEdge(node(1), node(2));
+        graph.addEdge(node(2), node(1));
+        graph.addEdge(node(2), node(3));
+        graph.removeEdge(node(1), node(2));
+        assertEquals(2, graph.getEdges());
+        assertEquals(Arrays.asList(node(1), node(2), node(3)), graph.getPath(node(1), node(3)));
+        graph.removeEdge(node(1), node(2));
+        assertEquals(1, graph.getEdges());
+        assertTrue(graph.getPath(node(1), node(3)).isEmpty());
+    }
+
+    @Test
+    public void copiesShouldBeIndependent() {
+        Graph<String> graph = new PersistentGraph<>();
+        for (int j = 1; j < 1000; j++)
+            graph.addEdge(node(j), node(j + 1));
+        Graph<String> copy = graph.copy();
+        copy.addEdge(node(1000), node(1));
+        copy.removeEdge(node(500), node(501));
+        graph.addEdge(node(1000), node(2000));
+        assertEquals(999, copy.getEdges());
+        assertEquals(1000, graph.getEdges());
+        assertEquals(1000, graph.getPath(node(1), node(1000)).size());
+        assertTrue(graph.getPath(node(500), node(501)).isEmpty());
+        assertEquals(1001, graph.getPath(node(1), node(2000)).size());
+        assertEquals(1000, copy.getPath(node(500), node(501)).size());
+        assertTrue(copy.getPath(node(1), node(2000)).isEmpty());
+        assertEquals(1000, copy.getNodes().size());
+        assertEquals(1001, graph.getNodes().size());
+    }
+
+    @Test
+    public void batchedChangesShouldBeVisibleAndCommitted() {
+        PersistentGraph<String> graph = new PersistentGraph<>();
+        graph.addEdge(node(1), node(2));
+        graph.startBatch();
+        graph.addEdge(node(2), node(3));
+        graph.addEdge(node(3), node(4));
+        assertEquals(Arrays.asList(node(1), node(2), node(3), node(4)), graph.getPath(node(1), node(4)));
+        PersistentGraph<String> copy = graph.copy();
+        graph.removeEdge(node(2), node(3));
+        graph.commitBatch();
+        assertTrue(graph.getPath(node(1), node(4)).isEmpty());
+        assertEquals(2, graph.getEdges());
+        assertEquals(4, copy.getPath(node(1), node(4)).size());
+        assertEquals(3, copy.getEdges());
+        assertEquals(4, graph.getNodes().size());
+    }
+}
@@ -0,0 +1,70 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentHashMapTest {
+
+    @Test
+    public void pointsShouldBeMapped() {
+        PersistentHashMap<Point<Double>, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 3000; i++)
+            map = map.put(Point.cartesianPoint(i, i * 0.5), i);
+        assertEquals(3000, map.size());
+        for (int i = 0; i < 3000; i++)
+            assertEquals(i, map.get(Point.cartesianPoint(i, i * 0.5)));
+        assertFalse(map.containsKey(Point.cartesianPoint(-1, 0)));
+        Map<Point<Double>, Integer> iterated = new HashMap<>();
+        for (Map.Entry<Point<Double>, Integer> e : map)
+            iterated.put(e.getKey(), e.getValue());
+        assertEquals(3000, iterated.size());
+    }
+
+    @Test
+    public void collidingKeysShouldBeMapped() {
+        PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+        map = map.put("Aa", 1).put("BB", 2).put("C", 3);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertEquals(3, map.size());
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        map = map.put("BB", 4);
+        assertEquals(3, map.size());
+        assertEquals(4, map.get("BB"));
+    }
+
+    @Test
+    public void previousVersionsShouldNotChange() {
+        PersistentHashMap<String, Integer> first = PersistentHashMap.<String, Integer>empty().put("A", 1);
+        PersistentHashMap<String, Integer> second = first.put("A", 2).put("B", 3);
+        assertEquals(1, first.size());
+        assertEquals(1, first.get("A"));
+        assertNull(first.get("B"));
+        assertEquals(2, second.get("A"));
+    }
+
+    @Test
+    public void keysShouldBeRemoved() {
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 2000; i++)
+            map = map.put(i, i);
+        PersistentHashMap<Integer, Integer> removed = map;
+        for (int i = 0; i < 2000; i += 2)
+            removed = removed.remove(i);
+        assertEquals(1000, removed.size());
+        assertEquals(2000, map.size());
+        for (int i = 0; i < 2000; i += 2) {
+            assertNull(removed.get(i));
+            assertEquals(i + 1, removed.get(i + 1));
+            assertEquals(i, map.get(i));
+        }
+        assertSame(removed, removed.remove(0));
+        PersistentHashMap<String, Integer> colliding = PersistentHashMap.<String, Integer>empty().put("Aa", 1).put("BB", 2);
+        assertEquals(2, colliding.remove("Aa").get("BB"));
+        assertEquals(1, colliding.remove("Aa").size());
+    }
+}
@@ -0,0 +1,44 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentVectorTest {
+
+    @Test
+    public void elementsShouldBeAppended() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 5000; i++)
+            vector = vector.append(i);
+        assertEquals(5000, vector.size());
+        for (int i = 0; i < 5000; i++)
+            assertEquals(i, vector.get(i));
+        List<Integer> iterated = new ArrayList<>();
+        vector.forEach(iterated::add);
+        assertEquals(5000, iterated.size());
+        assertEquals(4999, iterated.get(4999));
+    }
+
+    @Test
+    public void previousVersionsShouldNotChange() {
+        PersistentVector<String> empty = PersistentVector.empty();
+        PersistentVector<String> a = empty.append("A");
+        PersistentVector<String> ab = a.append("B");
+        PersistentVector<String> ac = a.append("C");
+        assertTrue(empty.isEmpty());
+        assertEquals(1, a.size());
+        assertEquals("B", ab.get(1));
+        assertEquals("C", ac.get(1));
+    }
+
+    @Test
+    public void IndexOutOfBoundsExceptionShouldBeThrown() {
+        PersistentVector<String> vector = PersistentVector.<String>empty().append("A");
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(-1));
+    }
+}
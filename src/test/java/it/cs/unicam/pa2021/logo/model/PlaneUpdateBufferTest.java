@@ -0,0 +1,79 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaneUpdateBufferTest {
+
+    private final List<String> events = new ArrayList<>();
+
+    private final PlaneUpdateListener<Point<Double>> view = new PlaneUpdateListener<>() {
+        @Override
+        public void fireMovedCursor(Point<Double> point) {
+            events.add("move " + point);
+        }
+
+        @Override
+        public void fireGeneratedLine(Line<Point<Double>> line) {
+            events.add("line");
+        }
+
+        @Override
+        public void fireGeneratedLines(List<Line<Point<Double>>> lines) {
+            events.add(lines.size() + " lines");
+        }
+
+        @Override
+        public void fireGeneratedArea(ClosedArea<Line<Point<Double>>> area) {
+            events.add("area");
+        }
+
+        @Override
+        public void fireGeneratedAreas(List<ClosedArea<Line<Point<Double>>>> areas) {
+            events.add(areas.size() + " areas");
+        }
+
+        @Override
+        public void fireScreenColor(RGBColor color) {
+            events.add("color " + color);
+        }
+
+        @Override
+        public void fireScreenCleaned() {
+            events.add("cleaned");
+        }
+    };
+
+    @Test
+    public void eventsShouldBeDeliveredInBatchesOnFlush() throws LOGOSyntaxErrorException {
+        PlaneUpdateBuffer<Point<Double>> buffer = new PlaneUpdateBuffer<>(view);
+        DefaultPlane plane = new DefaultPlane(100, 100);
+        plane.addPlaneUpdateListener(buffer);
+        LOGOProgram.compile("PENUP FORWARD 10 PENDOWN REPEAT 4 [ FORWARD 10 LEFT 90 ] FORWARD 5 PENUP FORWARD 5 FORWARD 5")
+                .execute(plane);
+        assertTrue(events.isEmpty());
+        assertTrue(buffer.isPending());
+        buffer.flush();
+        assertEquals(Arrays.asList("4 lines", "1 areas", "1 lines", "move P(75.0,50.0)"), events);
+        assertFalse(buffer.isPending());
+    }
+
+    @Test
+    public void cleanedScreenShouldDiscardPendingDrawings() {
+        PlaneUpdateBuffer<Point<Double>> buffer = new PlaneUpdateBuffer<>(view);
+        Line<Point<Double>> line = new Segment<>(Point.cartesianPoint(0, 0), Point.cartesianPoint(1, 1), RGBColor.of(0, 0, 0), 1);
+        buffer.fireGeneratedLine(line);
+        buffer.fireScreenColor(RGBColor.of(255, 0, 0));
+        buffer.fireScreenCleaned();
+        buffer.fireGeneratedLine(line);
+        buffer.fireMovedCursor(Point.cartesianPoint(1, 1));
+        buffer.fireMovedCursor(Point.cartesianPoint(2, 2));
+        buffer.flush();
+        assertEquals(Arrays.asList("cleaned", "1 lines", "color " + RGBColor.of(255, 0, 0), "move P(2.0,2.0)"), events);
+    }
+}
@@ -0,0 +1,66 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaneUpdateSupportTest {
+
+    private static PlaneUpdateListener<Point<Double>> listener(String name, List<String> events) {
+        return new PlaneUpdateListener<>() {
+            @Override
+            public void fireMovedCursor(Point<Double> point) {
+                events.add(name + " " + point);
+            }
+
+            @Override
+            public void fireGeneratedLine(Line<Point<Double>> line) {
+            }
+
+            @Override
+            public void fireGeneratedArea(ClosedArea<Line<Point<Double>>> area) {
+            }
+
+            @Override
+            public void fireScreenColor(RGBColor color) {
+            }
+
+            @Override
+            public void fireScreenCleaned() {
+            }
+        };
+    }
+
+    @Test
+    public void listenersShouldBeNotifiedUntilRemoved() {
+        List<String> events = new ArrayList<>();
+        List<Runnable> queued = new ArrayList<>();
+        Executor executor = queued::add;
+        PlaneUpdateSupport<Point<Double>> support = new PlaneUpdateSupport<>();
+        PlaneUpdateListener<Point<Double>> a = listener("a", events);
+        PlaneUpdateListener<Point<Double>> b = listener("b", events);
+        support.addListener(a);
+        support.addListener(b, executor);
+        support.addListener(null);
+        support.fireMovedCursor(Point.cartesianPoint(1, 1));
+        assertEquals(Arrays.asList("a P(1.0,1.0)"), events);
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertEquals(Arrays.asList("a P(1.0,1.0)", "b P(1.0,1.0)"), events);
+        support.removeListener(b);
+        support.setEnabled(false);
+        support.fireMovedCursor(Point.cartesianPoint(2, 2));
+        support.setEnabled(true);
+        support.removeListener(listener("c", events));
+        support.fireMovedCursor(Point.cartesianPoint(3, 3));
+        support.removeListener(a);
+        support.fireMovedCursor(Point.cartesianPoint(4, 4));
+        assertEquals(Arrays.asList("a P(1.0,1.0)", "b P(1.0,1.0)", "a P(3.0,3.0)"), events);
+        assertEquals(1, queued.size());
+    }
+}
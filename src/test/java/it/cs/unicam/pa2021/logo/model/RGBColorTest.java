@@ -26,4 +26,15 @@ class RGBColorTest {
         assertEquals(new RGBColor(0,1,2),color);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void paletteColorsShouldBeShared() {
+        RGBColor color = RGBColor.of(255, 128, 0);
+        assertSame(color, RGBColor.of(255, 128, 0));
+        assertEquals(new RGBColor(255, 128, 0), color);
+        assertEquals(new RGBColor(255, 128, 0).hashCode(), color.hashCode());
+        assertEquals(0xFFFF8000, color.getARGB());
+        assertEquals(128, color.getGreen());
+        assertThrows(IllegalArgumentException.class, () -> RGBColor.of(256, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> RGBColor.of(0, -1, 0));
+    }
+}
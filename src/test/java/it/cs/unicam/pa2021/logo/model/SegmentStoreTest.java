@@ -0,0 +1,64 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentStoreTest {
+
+    private static Line<Point<Double>> line(double x1, double y1, double x2, double y2) {
+        return new Segment<>(Point.cartesianPoint(x1, y1), Point.cartesianPoint(x2, y2), new RGBColor(255, 128, 0), 2);
+    }
+
+    @Test
+    public void segmentsShouldBeMaterializedAsLines() {
+        SegmentStore store = SegmentStore.empty();
+        List<Line<Point<Double>>> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Line<Point<Double>> l = line(i, i + 0.25, i * 2, 3.5);
+            expected.add(l);
+            store = store.append(l);
+        }
+        assertEquals(100, store.size());
+        assertEquals(expected.get(42), store.get(42));
+        assertEquals(expected.get(42).toString(), store.get(42).toString());
+        assertEquals(0xFF8000, store.getRGB(7));
+        assertEquals(2, store.getSize(7));
+        assertEquals(7.25, store.getStartY(7));
+        assertEquals(14, store.getEndX(7));
+        List<Line<Point<Double>>> actual = new ArrayList<>();
+        store.forEach(actual::add);
+        assertEquals(expected, actual);
+        assertThrows(IndexOutOfBoundsException.class, () -> SegmentStore.empty().get(0));
+    }
+
+    @Test
+    public void versionsShouldNotSeeEachOther() {
+        SegmentStore base = SegmentStore.empty().append(line(0, 0, 1, 1)).append(line(1, 1, 2, 2));
+        SegmentStore first = base.append(line(2, 2, 3, 3));
+        SegmentStore second = base.append(line(2, 2, 5, 5));
+        SegmentStore third = base.append(line(2, 2, 7, 7)).append(line(7, 7, 8, 8));
+        assertEquals(2, base.size());
+        assertEquals(3, first.getEndX(2));
+        assertEquals(5, second.getEndX(2));
+        assertEquals(7, third.getEndX(2));
+        assertEquals(4, third.size());
+        assertEquals(3, first.append(line(3, 3, 4, 4)).getEndX(2));
+    }
+
+    @Test
+    public void prefixShouldBeRecognizedOnlyWithinTheSameVersions() {
+        SegmentStore base = SegmentStore.empty().append(line(0, 0, 1, 1)).append(line(1, 1, 2, 2));
+        SegmentStore longer = base.append(line(2, 2, 3, 3));
+        SegmentStore other = base.append(line(2, 2, 5, 5));
+        assertTrue(SegmentStore.empty().isPrefixOf(base));
+        assertTrue(base.isPrefixOf(longer));
+        assertFalse(base.isPrefixOf(other));
+        assertTrue(longer.isPrefixOf(longer));
+        assertFalse(longer.isPrefixOf(base));
+        assertFalse(longer.isPrefixOf(other.append(line(5, 5, 6, 6))));
+    }
+}
@@ -27,4 +27,14 @@ class SimpleDirectionTest {
         assertDoesNotThrow(() -> new SimpleDirection(345));
         assertDoesNotThrow(() -> new SimpleDirection(87));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void unitVectorShouldMatchTrigonometricFunctions() {
+        for (int degrees = 0; degrees <= 360; degrees++) {
+            SimpleDirection direction = new SimpleDirection(degrees);
+            assertEquals(Math.cos(Math.toRadians(degrees)), direction.getUnitX());
+            assertEquals(Math.sin(Math.toRadians(degrees)), direction.getUnitY());
+            assertEquals(direction.getUnitX(), SimpleDirection.cos(degrees));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package it.cs.unicam.pa2021.logo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SweepLineIntersectorTest {
+
+    private static Line<Point<Double>> line(double x1, double y1, double x2, double y2) {
+        return new Segment<>(Point.cartesianPoint(x1, y1), Point.cartesianPoint(x2, y2), new RGBColor(0, 0, 0), 1);
+    }
+
+    @Test
+    public void crossingLinesShouldBeSplit() {
+        List<List<Line<Point<Double>>>> pieces = SweepLineIntersector.split(Arrays.asList(
+                line(0, 0, 10, 10), line(0, 10, 10, 0), line(20, 0, 30, 0)));
+        assertEquals(Arrays.asList(line(0, 0, 5, 5), line(5, 5, 10, 10)), pieces.get(0));
+        assertEquals(Arrays.asList(line(0, 10, 5, 5), line(5, 5, 10, 0)), pieces.get(1));
+        assertEquals(Arrays.asList(line(20, 0, 30, 0)), pieces.get(2));
+    }
+
+    @Test
+    public void touchingLinesShouldBeSplit() {
+        List<List<Line<Point<Double>>>> pieces = SweepLineIntersector.split(Arrays.asList(
+                line(0, 0, 10, 0), line(4, 0, 4, 8), line(4, 8, 4, 4), line(10, 0, 10, 5)));
+        assertEquals(Arrays.asList(line(0, 0, 4, 0), line(4, 0, 10, 0)), pieces.get(0));
+        assertEquals(Arrays.asList(line(4, 0, 4, 4), line(4, 4, 4, 8)), pieces.get(1));
+        assertEquals(Arrays.asList(line(4, 8, 4, 4)), pieces.get(2));
+        assertEquals(Arrays.asList(line(10, 0, 10, 5)), pieces.get(3));
+    }
+
+    @Test
+    public void manyCrossingsShouldBeFound() {
+        List<Line<Point<Double>>> grid = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            grid.add(line(i * 10 + 5, 0, i * 10 + 5, 100));
+            grid.add(line(0, i * 10 + 5, 100, i * 10 + 5));
+        }
+        for (List<Line<Point<Double>>> pieces : SweepLineIntersector.split(grid))
+            assertEquals(11, pieces.size());
+    }
+
+    @Test
+    public void commonPointsShouldBeComputed() {
+        assertEquals(Arrays.asList(Point.cartesianPoint(5.0, 5.0)),
+                SweepLineIntersector.commonPoints(line(0, 0, 10, 10), line(0, 10, 10, 0)));
+        assertTrue(SweepLineIntersector.commonPoints(line(0, 0, 10, 0), line(0, 1, 10, 1)).isEmpty());
+        assertEquals(Arrays.asList(Point.cartesianPoint(10.0, 0.0), Point.cartesianPoint(5.0, 0.0)),
+                SweepLineIntersector.commonPoints(line(0, 0, 10, 0), line(5, 0, 15, 0)));
+    }
+}